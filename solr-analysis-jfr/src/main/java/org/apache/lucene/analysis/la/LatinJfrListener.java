@@ -0,0 +1,135 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * {@link LatinAnalysisListener} committing Java Flight Recorder events, registered in
+ * <code>META-INF/services/org.apache.lucene.analysis.la.LatinAnalysisListener</code>.<br/>
+ * Deploying this jar next to solr-analysis enables the monitoring (the filters time every token while a listener is installed),
+ * the events are recorded if enabled in the recording settings:
+ * <ul>
+ * <li><code>solr.latin.SlowToken</code> and <code>solr.latin.CacheStatistics</code> are enabled by default</li>
+ * <li><code>solr.latin.FieldAnalyzed</code> is disabled by default, it is committed for every field value</li>
+ * </ul>
+ * e.g. <code>jcmd &lt;pid&gt; JFR.start settings=profile +solr.latin.FieldAnalyzed#enabled=true</code> (JDK 17+).
+ * @author Markus Klose
+ */
+public class LatinJfrListener extends LatinAnalysisListener {
+
+	@Name("solr.latin.FieldAnalyzed")
+	@Label("Latin Field Analyzed")
+	@Description("A Latin analysis filter reached the end of a field value")
+	@Category({"Solr", "Latin Analysis"})
+	@StackTrace(false)
+	@Enabled(false)
+	static final class FieldAnalyzedEvent extends Event {
+		@Label("Filter")
+		String filter;
+
+		@Label("Tokens")
+		int tokens;
+
+		@Label("Analysis Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long analysisTime;
+	}
+
+	@Name("solr.latin.SlowToken")
+	@Label("Latin Slow Token")
+	@Description("A Latin analysis filter took at least the slow token time for a token")
+	@Category({"Solr", "Latin Analysis"})
+	@StackTrace(false)
+	static final class SlowTokenEvent extends Event {
+		@Label("Filter")
+		String filter;
+
+		@Label("Token Length")
+		int tokenLength;
+
+		@Label("Rules")
+		String rule;
+
+		@Label("Token Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long tokenTime;
+	}
+
+	@Name("solr.latin.CacheStatistics")
+	@Label("Latin Stem Cache Statistics")
+	@Description("Periodic statistics of a Latin stem cache")
+	@Category({"Solr", "Latin Analysis"})
+	@StackTrace(false)
+	static final class CacheStatisticsEvent extends Event {
+		@Label("Cache")
+		@Description("Identity hash code of the cache")
+		int cache;
+
+		@Label("Size")
+		int size;
+
+		@Label("Hits")
+		long hits;
+
+		@Label("Misses")
+		long misses;
+	}
+
+	@Override
+	public void fieldAnalyzed(String filter, int tokens, long nanos) {
+		FieldAnalyzedEvent event = new FieldAnalyzedEvent();
+		if (event.isEnabled()) {
+			event.filter = filter;
+			event.tokens = tokens;
+			event.analysisTime = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void slowToken(String filter, int tokenLength, String rule, long nanos) {
+		SlowTokenEvent event = new SlowTokenEvent();
+		if (event.isEnabled()) {
+			event.filter = filter;
+			event.tokenLength = tokenLength;
+			event.rule = rule;
+			event.tokenTime = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void cacheStatistics(LatinStemCache cache, int size, long hits, long misses) {
+		CacheStatisticsEvent event = new CacheStatisticsEvent();
+		if (event.isEnabled()) {
+			event.cache = System.identityHashCode(cache);
+			event.size = size;
+			event.hits = hits;
+			event.misses = misses;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link LatinJfrListener}, plain JUnit: the flight recorder starts threads and sets system properties
+ * the Lucene test framework reports as leaked.
+ */
+public class TestLatinJfrListener {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	/** the listener is found by the ServiceLoader */
+	@Test
+	public void testRegistered() {
+		assertTrue(LatinAnalysisListener.get() instanceof LatinJfrListener);
+		LatinAnalysisListener.install(null);
+		assertFalse(LatinAnalysisListener.isReportingStatistics());
+	}
+
+	@Test
+	public void testEvents() throws IOException {
+		LatinJfrListener listener = new LatinJfrListener();
+		LatinStemCache cache = new LatinStemCache(10);
+		Path file = temp.getRoot().toPath().resolve("latin.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("solr.latin.FieldAnalyzed");
+			recording.enable("solr.latin.SlowToken");
+			recording.enable("solr.latin.CacheStatistics");
+			recording.start();
+			listener.fieldAnalyzed("LatinStemFilter", 4, 2000L);
+			listener.slowToken("LatinStemFilter", 7, "noun arum 6, verb m 3", 1500000L);
+			listener.cacheStatistics(cache, 1, 2L, 3L);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		assertEquals(3, events.size());
+		for (RecordedEvent event : events) {
+			switch (event.getEventType().getName()) {
+			case "solr.latin.FieldAnalyzed":
+				assertEquals("LatinStemFilter", event.getString("filter"));
+				assertEquals(4, event.getInt("tokens"));
+				assertEquals(2000L, event.getDuration("analysisTime").toNanos());
+				break;
+			case "solr.latin.SlowToken":
+				assertEquals(7, event.getInt("tokenLength"));
+				assertEquals("noun arum 6, verb m 3", event.getString("rule"));
+				assertEquals(1500000L, event.getDuration("tokenTime").toNanos());
+				break;
+			case "solr.latin.CacheStatistics":
+				assertEquals(System.identityHashCode(cache), event.getInt("cache"));
+				assertEquals(1, event.getInt("size"));
+				assertEquals(2L, event.getLong("hits"));
+				assertEquals(3L, event.getLong("misses"));
+				break;
+			default:
+				fail(event.getEventType().getName());
+			}
+		}
+	}
+
+	/** the field event is committed for every field value, it is off unless enabled */
+	@Test
+	public void testFieldAnalyzedDisabled() throws IOException {
+		Path file = temp.getRoot().toPath().resolve("latin.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("solr.latin.SlowToken");
+			recording.start();
+			new LatinJfrListener().fieldAnalyzed("LatinStemFilter", 4, 2000L);
+			recording.stop();
+			recording.dump(file);
+		}
+		assertTrue(RecordingFile.readAllEvents(file).isEmpty());
+	}
+}
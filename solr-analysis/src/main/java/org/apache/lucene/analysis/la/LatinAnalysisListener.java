@@ -0,0 +1,228 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service provider interface for monitoring the Latin analysis, e.g. the Java Flight Recorder events of
+ * <code>LatinJfrListener</code> (artifact solr-analysis-jfr, JDK 17+), enabled by deploying its jar next to this one.<br/>
+ * The listener is found with {@link ServiceLoader} (<code>META-INF/services/org.apache.lucene.analysis.la.LatinAnalysisListener</code>,
+ * the first provider wins) or set with {@link #install(LatinAnalysisListener)}. The filters look it up once when they are created,
+ * without a listener monitoring costs one null check per token.<br/>
+ * Events: {@link #fieldAnalyzed(String, int, long)} when a filter reached the end of a field value,
+ * {@link #slowToken(String, int, String, long)} for tokens taking at least {@link #getSlowTokenNanos()} and 
+ * {@link #cacheStatistics(LatinStemCache, int, long, long)} for every {@link LatinStemCache}, 
+ * each {@link #getCacheStatisticsMillis()} on a daemon thread.
+ * @author Markus Klose
+ */
+public abstract class LatinAnalysisListener {
+	private static final Logger log = LoggerFactory.getLogger(LatinAnalysisListener.class);
+
+	/** installed listener, null if monitoring is disabled */
+	private static volatile LatinAnalysisListener listener = load();
+
+	/** stem caches reporting statistics, weak so caches of closed cores are released */
+	private static final Set<LatinStemCache> CACHES = Collections.synchronizedSet(
+			Collections.newSetFromMap(new WeakHashMap<LatinStemCache, Boolean>()));
+
+	/** reports the cache statistics to the installed listener, null if it wants none */
+	private static ScheduledExecutorService statisticsReporter;
+
+	/**
+	 * @return
+	 * 	the installed listener, null if monitoring is disabled
+	 */
+	public static LatinAnalysisListener get() {
+		return listener;
+	}
+
+	/**
+	 * install a listener instead of the one found by the {@link ServiceLoader}. Filters created before keep their listener.
+	 * The statistics thread of the previous listener is stopped, so <code>install(null)</code> releases it
+	 * (e.g. when the webapp is undeployed).
+	 * @param newListener
+	 * 	listener to install, null to disable monitoring
+	 */
+	public static synchronized void install(LatinAnalysisListener newListener) {
+		listener = newListener;
+		stopStatisticsReporter();
+		if (newListener != null && newListener.getCacheStatisticsMillis() > 0) {
+			startStatisticsReporter(newListener.getCacheStatisticsMillis());
+		}
+	}
+
+	/** find a listener on the classpath, skipping providers that can't be loaded (e.g. built for a newer JDK) */
+	private static LatinAnalysisListener load() {
+		Iterator<LatinAnalysisListener> providers = ServiceLoader.load(LatinAnalysisListener.class).iterator();
+		while (true) {
+			LatinAnalysisListener provider;
+			try {
+				if (!providers.hasNext()) {
+					return null;
+				}
+				provider = providers.next();
+			} catch (ServiceConfigurationError e) {
+				log.warn("Latin analysis listener not loaded", e);
+				continue;
+			} catch (LinkageError e) {
+				log.warn("Latin analysis listener not loaded", e);
+				continue;
+			}
+			log.info("Monitoring Latin analysis with " + provider.getClass().getName());
+			if (provider.getCacheStatisticsMillis() > 0) {
+				startStatisticsReporter(provider.getCacheStatisticsMillis());
+			}
+			return provider;
+		}
+	}
+
+	/**
+	 * start the periodic cache statistics.
+	 * @param millis
+	 * 	interval of the statistics
+	 */
+	private static synchronized void startStatisticsReporter(long millis) {
+		statisticsReporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "latin-cache-statistics");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		statisticsReporter.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				reportCacheStatistics();
+			}
+		}, millis, millis, TimeUnit.MILLISECONDS);
+	}
+
+	/** stop the periodic cache statistics, if running */
+	private static synchronized void stopStatisticsReporter() {
+		if (statisticsReporter != null) {
+			statisticsReporter.shutdownNow();
+			statisticsReporter = null;
+		}
+	}
+
+	/**
+	 * @return
+	 * 	true if the statistics thread is running
+	 */
+	static synchronized boolean isReportingStatistics() {
+		return statisticsReporter != null;
+	}
+
+	/**
+	 * register a cache for the periodic statistics.
+	 * @param cache
+	 * 	stem cache
+	 */
+	static void register(LatinStemCache cache) {
+		CACHES.add(cache);
+	}
+
+	/** report the statistics of all registered caches to the current listener */
+	static void reportCacheStatistics() {
+		LatinAnalysisListener current = listener;
+		if (current == null) {
+			return;
+		}
+		LatinStemCache[] caches;
+		synchronized (CACHES) {
+			caches = CACHES.toArray(new LatinStemCache[CACHES.size()]);
+		}
+		for (LatinStemCache cache : caches) {
+			try {
+				current.cacheStatistics(cache, cache.size(), cache.getHits(), cache.getMisses());
+			} catch (RuntimeException e) {
+				log.warn("Latin analysis listener failed", e);
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * 	minimum duration of a token to report it as slow, in nanoseconds (default 1 ms)
+	 */
+	public long getSlowTokenNanos() {
+		return 1000000L;
+	}
+
+	/**
+	 * @return
+	 * 	interval of the cache statistics in milliseconds, 0 for none (default 10 s)
+	 */
+	public long getCacheStatisticsMillis() {
+		return 10000L;
+	}
+
+	/**
+	 * a filter reached the end of a field value (one document field).
+	 * @param filter
+	 * 	simple class name of the filter
+	 * @param tokens
+	 * 	number of tokens the filter emitted
+	 * @param nanos
+	 * 	time from <code>reset()</code> to <code>end()</code>, including the filters and the tokenizer before
+	 */
+	public void fieldAnalyzed(String filter, int tokens, long nanos) {
+	}
+
+	/**
+	 * a token took at least {@link #getSlowTokenNanos()}.
+	 * @param filter
+	 * 	simple class name of the filter
+	 * @param tokenLength
+	 * 	length of the token
+	 * @param rule
+	 * 	rules applied to the token (see {@link LatinStemRules.Rule#toString()}), null if the filter has no rules
+	 * @param nanos
+	 * 	time the filter spent on the token
+	 */
+	public void slowToken(String filter, int tokenLength, String rule, long nanos) {
+	}
+
+	/**
+	 * periodic statistics of a stem cache.
+	 * @param cache
+	 * 	the cache
+	 * @param size
+	 * 	number of cached forms
+	 * @param hits
+	 * 	lookups answered by the cache (since the last warm-up)
+	 * @param misses
+	 * 	lookups of counted forms the cache missed
+	 */
+	public void cacheStatistics(LatinStemCache cache, int size, long hits, long misses) {
+	}
+}
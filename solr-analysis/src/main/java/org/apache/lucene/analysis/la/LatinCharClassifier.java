@@ -0,0 +1,170 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Classifies a whole term buffer in one pass, so the Latin filters can take their fast path
+ * or reject a token without running their own character checks.<br/>
+ * ASCII characters are classified by a table lookup, only other characters take the slow path
+ * (range check, {@link Character#toLowerCase(char)}).<br/>
+ * On Java 17 and later the jar contains a Vector API classifier (<code>META-INF/versions/17</code>, multi-release jar),
+ * used for tokens of at least one vector of characters if the JVM is started with
+ * <code>--add-modules jdk.incubator.vector</code>; otherwise, and for shorter tokens, the scalar classifier is used.
+ * @author Markus Klose
+ */
+public final class LatinCharClassifier {
+
+	/** all characters are Roman numeral letters: i, v, x, l, c, d, m (any case) or U+2160 - U+2188 */
+	public static final int ROMAN_NUMERAL = 1;
+
+	/** contains at least one character of the Unicode number forms U+2160 - U+2188 */
+	public static final int NUMBER_FORMS = 2;
+
+	/** all characters are ASCII */
+	public static final int ASCII = 4;
+
+	/** contains at least one 'v', 'V', 'j' or 'J' */
+	public static final int VJ = 8;
+
+	/** first and last character of the Roman numerals in the Unicode number forms */
+	static final char FIRST_NUMBER_FORM = '\u2160';
+	static final char LAST_NUMBER_FORM = '\u2188';
+
+	/** classes of the ASCII characters (ROMAN_NUMERAL, VJ) */
+	private static final byte[] ASCII_CLASSES = new byte[128];
+	static {
+		for (char c : "ivxlcdmIVXLCDM".toCharArray()) {
+			ASCII_CLASSES[c] |= ROMAN_NUMERAL;
+		}
+		for (char c : "vjVJ".toCharArray()) {
+			ASCII_CLASSES[c] |= VJ;
+		}
+	}
+
+	/** classifier of a Java version specific implementation */
+	interface Classifier {
+
+		/** @return minimum token length to use this classifier for */
+		int minLength();
+
+		/** see {@link LatinCharClassifier#classify(char[], int)} */
+		int classify(char[] termBuffer, int termLength);
+	}
+
+	/** class of the Vector API classifier, only in META-INF/versions/17 of the jar */
+	private static final String VECTOR_CLASSIFIER = "org.apache.lucene.analysis.la.LatinVectorCharClassifier";
+
+	/** Vector API classifier, null if not available */
+	private static final Classifier VECTOR = loadVectorClassifier();
+
+	/** minimum token length for the Vector API classifier */
+	private static final int VECTOR_MIN_LENGTH = VECTOR != null ? VECTOR.minLength() : Integer.MAX_VALUE;
+
+	private LatinCharClassifier() {
+	}
+
+	private static Classifier loadVectorClassifier() {
+		try {
+			return (Classifier) Class.forName(VECTOR_CLASSIFIER).newInstance();
+		} catch (ClassNotFoundException e) {
+			// Java < 17 or the classes are not loaded from the multi-release jar
+			return null;
+		} catch (LinkageError e) {
+			// jdk.incubator.vector is not added
+			return null;
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return
+	 * 	true if long tokens are classified by the Vector API
+	 */
+	public static boolean isVectorized() {
+		return VECTOR != null;
+	}
+
+	/**
+	 * classify a token.
+	 * @param termBuffer
+	 * 	term buffer containing token
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	bit set of {@link #ROMAN_NUMERAL}, {@link #NUMBER_FORMS}, {@link #ASCII} and {@link #VJ}
+	 * 	(an empty token is ROMAN_NUMERAL and ASCII)
+	 */
+	public static int classify(char[] termBuffer, int termLength) {
+		if (termLength >= VECTOR_MIN_LENGTH) {
+			return VECTOR.classify(termBuffer, termLength);
+		}
+		return classifyScalar(termBuffer, 0, termLength);
+	}
+
+	/**
+	 * classify a range of a token by table lookups.
+	 * @param termBuffer
+	 * 	term buffer containing token
+	 * @param from
+	 * 	first character of the range
+	 * @param to
+	 * 	end (exclusive) of the range
+	 * @return
+	 * 	classes of the range, see {@link #classify(char[], int)}
+	 */
+	static int classifyScalar(char[] termBuffer, int from, int to) {
+		// classes all characters must have / any character may set
+		int all = ROMAN_NUMERAL | ASCII;
+		int any = 0;
+		for (int i = from; i < to; i++) {
+			char c = termBuffer[i];
+			if (c < 0x80) {
+				int classes = ASCII_CLASSES[c];
+				all &= classes | ASCII;
+				any |= classes;
+			} else {
+				all &= ~ASCII;
+				if (c >= FIRST_NUMBER_FORM && c <= LAST_NUMBER_FORM) {
+					any |= NUMBER_FORMS;
+				} else if (!isRomanLetter(Character.toLowerCase(c))) {
+					all &= ~ROMAN_NUMERAL;
+				}
+			}
+		}
+		return all | (any & (NUMBER_FORMS | VJ));
+	}
+
+	/**
+	 * classes of two consecutive ranges of a token.
+	 * @param classes1
+	 * 	classes of the first range
+	 * @param classes2
+	 * 	classes of the second range
+	 * @return
+	 * 	classes of both ranges
+	 */
+	static int combine(int classes1, int classes2) {
+		return (classes1 & classes2 & (ROMAN_NUMERAL | ASCII)) | ((classes1 | classes2) & (NUMBER_FORMS | VJ));
+	}
+
+	/** lower case Roman numeral letter, e.g. for the lower case of U+0130 */
+	private static boolean isRomanLetter(char c) {
+		return c < 0x80 && (ASCII_CLASSES[c] & ROMAN_NUMERAL) != 0;
+	}
+}
@@ -0,0 +1,633 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.lucene.analysis.util.CharArraySet;
+
+/**
+ * Streaming corpus tool estimating the effect of the {@link LatinStemmer} on a text dump before changing
+ * the stemmer settings of an index.<br/>
+ * Every line of the dump is one document. Words (letter sequences) are lower cased, 'v'/'j' are replaced and
+ * stemmed as noun and verb; the report contains the distinct surface forms and stems, the distribution of forms per
+ * stem, how often noun and verb stem are equal, and the terms, postings and positions each output of
+ * {@link LatinStemFilter} would write.<br/>
+ * Lines are read in batches and analyzed by a thread pool. Memory is bounded: distinct forms and stems are counted
+ * by 64 bit hashes in primitive hash tables up to <code>maxForms</code> forms, the cardinalities are
+ * additionally estimated with HyperLogLog sketches, which stay exact enough beyond that bound.
+ * The stemmer uses the built-in rules and 'que' exceptions unless <code>-rules</code> names a suffix rules file
+ * (format of latin-stem-rules.txt, like the <code>rules</code> of {@link LatinStemFilterFactory}) and
+ * <code>-queExceptions</code> a file of words ending with 'que' (one per line), which extend the built-in list
+ * like the managed 'que' exceptions of an index.
+ * <pre>java -cp ... org.apache.lucene.analysis.la.LatinCorpusAnalyzer &lt;dump.txt&gt; [-threads n] [-maxForms n] [-rules file] [-queExceptions file]</pre>
+ * @author Markus Klose
+ */
+public class LatinCorpusAnalyzer {
+
+	/** default bound of the exact tables */
+	public static final int DEFAULT_MAX_FORMS = 5000000;
+
+	/** lines per batch */
+	private static final int BATCH_SIZE = 1000;
+
+	/** upper bounds of the forms per stem histogram buckets */
+	private static final int[] BUCKETS = {1, 2, 4, 8, 16, 32, 64, Integer.MAX_VALUE};
+
+	private final LatinStemmer stemmer;
+	private final int threads;
+	private final int maxForms;
+
+	/**
+	 * default constructor.
+	 * @param stemmer
+	 * 	stemmer to evaluate
+	 * @param threads
+	 * 	number of analysis threads
+	 * @param maxForms
+	 * 	bound of the distinct forms counted exactly
+	 */
+	public LatinCorpusAnalyzer(LatinStemmer stemmer, int threads, int maxForms) {
+		this.stemmer = stemmer;
+		this.threads = threads;
+		this.maxForms = maxForms;
+	}
+
+	public static void main(String[] args) throws Exception {
+		// every option needs a value
+		if (args.length < 1 || args.length % 2 == 0) {
+			System.err.println("Usage: LatinCorpusAnalyzer <dump.txt> [-threads n] [-maxForms n] [-rules file] [-queExceptions file]");
+			System.exit(1);
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		int maxForms = DEFAULT_MAX_FORMS;
+		String rulesFile = null;
+		String queExceptionsFile = null;
+		for (int i = 1; i < args.length; i += 2) {
+			if ("-threads".equals(args[i])) {
+				threads = Integer.parseInt(args[i + 1]);
+			} else if ("-maxForms".equals(args[i])) {
+				maxForms = Integer.parseInt(args[i + 1]);
+			} else if ("-rules".equals(args[i])) {
+				rulesFile = args[i + 1];
+			} else if ("-queExceptions".equals(args[i])) {
+				queExceptionsFile = args[i + 1];
+			} else {
+				throw new IllegalArgumentException("unknown option " + args[i]);
+			}
+		}
+		LatinStemmer stemmer = createStemmer(rulesFile, queExceptionsFile);
+		Reader reader = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8);
+		try {
+			new LatinCorpusAnalyzer(stemmer, threads, maxForms).analyze(reader).print(System.out);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * create the stemmer to evaluate.
+	 * @param rulesFile
+	 * 	suffix rules file (UTF-8), null to use the built-in rules
+	 * @param queExceptionsFile
+	 * 	file (UTF-8) of words ending with 'que' that should not be stemmed, one per line, lines starting with '#' are
+	 * 	ignored; null to use the built-in list only
+	 * @return
+	 * 	the stemmer
+	 * @throws IllegalArgumentException
+	 * 	if a line of the rules file is not a valid rule
+	 */
+	static LatinStemmer createStemmer(String rulesFile, String queExceptionsFile) throws IOException {
+		LatinStemmer stemmer = rulesFile != null
+				? new LatinStemmer(LatinStemRules.parse(Files.readAllLines(Paths.get(rulesFile), StandardCharsets.UTF_8)))
+				: new LatinStemmer();
+		if (queExceptionsFile != null) {
+			// the words extend the built-in list
+			CharArraySet queExceptions = new CharArraySet(LatinStemmer.getDefaultQueExceptions(), true);
+			for (String line : Files.readAllLines(Paths.get(queExceptionsFile), StandardCharsets.UTF_8)) {
+				line = line.trim();
+				if (line.length() > 0 && !line.startsWith("#")) {
+					queExceptions.add(LatinStemFilter.replaceVJ(line));
+				}
+			}
+			stemmer.setQueExceptions(queExceptions);
+		}
+		return stemmer;
+	}
+
+	/**
+	 * analyze a corpus.
+	 * @param corpus
+	 * 	corpus, one document per line
+	 * @return
+	 * 	the report
+	 */
+	public Report analyze(Reader corpus) throws IOException {
+		final Report report = new Report(maxForms);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		// at most two batches per thread in memory
+		final Semaphore permits = new Semaphore(threads * 2);
+		List<Future<?>> pending = new ArrayList<Future<?>>();
+		try {
+			BufferedReader reader = new BufferedReader(corpus);
+			List<String> batch = new ArrayList<String>(BATCH_SIZE);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				batch.add(line);
+				if (batch.size() == BATCH_SIZE) {
+					pending.add(submit(executor, permits, batch, report));
+					batch = new ArrayList<String>(BATCH_SIZE);
+				}
+			}
+			if (!batch.isEmpty()) {
+				pending.add(submit(executor, permits, batch, report));
+			}
+			for (Future<?> future : pending) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IOException("unable to analyze the corpus", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return report;
+	}
+
+	private Future<?> submit(ExecutorService executor, final Semaphore permits, final List<String> batch, final Report report) throws InterruptedException {
+		permits.acquire();
+		return executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					report.merge(analyzeBatch(batch));
+				} finally {
+					permits.release();
+				}
+			}
+		});
+	}
+
+	/**
+	 * analyze the documents of a batch.
+	 * @param lines
+	 * 	documents
+	 * @return
+	 * 	statistics of the batch
+	 */
+	Batch analyzeBatch(List<String> lines) {
+		Batch batch = new Batch();
+		LongHashSet docForms = new LongHashSet(64);
+		LongHashSet docStems = new LongHashSet(64);
+		LongHashSet docNouns = new LongHashSet(64);
+		LongHashSet docVerbs = new LongHashSet(64);
+		char[] buffer = new char[64];
+		for (String line : lines) {
+			docForms.clear();
+			docStems.clear();
+			docNouns.clear();
+			docVerbs.clear();
+			batch.docs++;
+			int length = line.length();
+			int i = 0;
+			while (i < length) {
+				// next letter sequence
+				while (i < length && !Character.isLetter(line.charAt(i))) {
+					i++;
+				}
+				int termLength = 0;
+				while (i < length && Character.isLetter(line.charAt(i))) {
+					if (termLength == buffer.length) {
+						buffer = Arrays.copyOf(buffer, termLength * 2);
+					}
+					buffer[termLength++] = Character.toLowerCase(line.charAt(i++));
+				}
+				if (termLength == 0) {
+					continue;
+				}
+				LatinStemFilter.replaceVJ(buffer, termLength);
+				String[] stems = stemmer.stem(buffer, termLength);
+				long form = hash(buffer, termLength);
+				long noun = hash(stems[LatinStemmer.NOUN]);
+				long verb = hash(stems[LatinStemmer.VERB]);
+				batch.tokens++;
+				if (noun == verb) {
+					batch.equalTokens++;
+				}
+				docForms.add(form);
+				docStems.add(noun);
+				docStems.add(verb);
+				docNouns.add(noun);
+				docVerbs.add(verb);
+				if (batch.forms.add(form)) {
+					batch.formList.add(form, noun, verb);
+				}
+			}
+			batch.formPostings += docForms.size();
+			batch.stemPostings += docStems.size();
+			batch.nounPostings += docNouns.size();
+			batch.verbPostings += docVerbs.size();
+		}
+		return batch;
+	}
+
+	/** 64 bit hash of a term (FNV-1a, finished by a mix step) */
+	static long hash(char[] termBuffer, int termLength) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < termLength; i++) {
+			hash = (hash ^ termBuffer[i]) * 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	static long hash(String term) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < term.length(); i++) {
+			hash = (hash ^ term.charAt(i)) * 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		// 0 marks a free slot of the hash tables
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * statistics of one batch, merged into the report.
+	 */
+	static final class Batch {
+		long docs;
+		long tokens;
+		long equalTokens;
+		long formPostings;
+		long stemPostings;
+		long nounPostings;
+		long verbPostings;
+		/** distinct forms of the batch with their stems */
+		final LongHashSet forms = new LongHashSet(1024);
+		final FormList formList = new FormList();
+	}
+
+	/** (form, noun stem, verb stem) hashes in insertion order */
+	static final class FormList {
+		long[] values = new long[3 * 256];
+		int size;
+
+		void add(long form, long noun, long verb) {
+			if (size * 3 == values.length) {
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+			values[size * 3] = form;
+			values[size * 3 + 1] = noun;
+			values[size * 3 + 2] = verb;
+			size++;
+		}
+	}
+
+	/**
+	 * statistics of the whole corpus.
+	 */
+	public static final class Report {
+		private final int maxForms;
+
+		private long docs;
+		private long tokens;
+		private long equalTokens;
+		private long formPostings;
+		private long stemPostings;
+		private long nounPostings;
+		private long verbPostings;
+
+		/** exact tables: distinct forms, number of forms per noun / verb stem */
+		private final LongHashSet forms = new LongHashSet(1 << 16);
+		private final LongIntHashMap formsPerNoun = new LongIntHashMap(1 << 15);
+		private final LongIntHashMap formsPerVerb = new LongIntHashMap(1 << 15);
+		private final LongHashSet allStems = new LongHashSet(1 << 16);
+		private long equalForms;
+		private boolean truncated;
+
+		/** estimations */
+		private final HyperLogLog formsEstimate = new HyperLogLog();
+		private final HyperLogLog nounEstimate = new HyperLogLog();
+		private final HyperLogLog verbEstimate = new HyperLogLog();
+		private final HyperLogLog stemsEstimate = new HyperLogLog();
+
+		Report(int maxForms) {
+			this.maxForms = maxForms;
+		}
+
+		synchronized void merge(Batch batch) {
+			docs += batch.docs;
+			tokens += batch.tokens;
+			equalTokens += batch.equalTokens;
+			formPostings += batch.formPostings;
+			stemPostings += batch.stemPostings;
+			nounPostings += batch.nounPostings;
+			verbPostings += batch.verbPostings;
+			long[] values = batch.formList.values;
+			for (int i = 0; i < batch.formList.size; i++) {
+				long form = values[i * 3];
+				long noun = values[i * 3 + 1];
+				long verb = values[i * 3 + 2];
+				formsEstimate.add(form);
+				nounEstimate.add(noun);
+				verbEstimate.add(verb);
+				stemsEstimate.add(noun);
+				stemsEstimate.add(verb);
+				if (forms.size() >= maxForms && !forms.contains(form)) {
+					truncated = true;
+					continue;
+				}
+				if (forms.add(form)) {
+					formsPerNoun.increment(noun);
+					formsPerVerb.increment(verb);
+					allStems.add(noun);
+					allStems.add(verb);
+					if (noun == verb) {
+						equalForms++;
+					}
+				}
+			}
+		}
+
+		/** @return number of documents (lines) */
+		public long getDocs() {
+			return docs;
+		}
+
+		/** @return number of words */
+		public long getTokens() {
+			return tokens;
+		}
+
+		/** @return number of words with equal noun and verb stem */
+		public long getEqualTokens() {
+			return equalTokens;
+		}
+
+		/** @return distinct surface forms, exact unless the bound was reached */
+		public long getDistinctForms() {
+			return truncated ? formsEstimate.cardinality() : forms.size();
+		}
+
+		/** @return distinct noun stems */
+		public long getDistinctNounStems() {
+			return truncated ? nounEstimate.cardinality() : formsPerNoun.size();
+		}
+
+		/** @return distinct verb stems */
+		public long getDistinctVerbStems() {
+			return truncated ? verbEstimate.cardinality() : formsPerVerb.size();
+		}
+
+		/** @return distinct terms written by {@link LatinStemFilter} (noun and verb stems) */
+		public long getDistinctStems() {
+			return truncated ? stemsEstimate.cardinality() : allStems.size();
+		}
+
+		/** @return true if the exact tables reached their bound and the distinct counts are estimations */
+		public boolean isTruncated() {
+			return truncated;
+		}
+
+		/**
+		 * print the report.
+		 * @param out
+		 * 	stream to print to
+		 */
+		public synchronized void print(PrintStream out) {
+			out.println(String.format(Locale.ROOT, "documents: %d, words: %d", docs, tokens));
+			out.println(String.format(Locale.ROOT, "distinct forms: %d, noun stems: %d, verb stems: %d, stems: %d%s",
+					getDistinctForms(), getDistinctNounStems(), getDistinctVerbStems(), getDistinctStems(),
+					truncated ? " (estimated, more than " + maxForms + " forms)" : ""));
+			out.println(String.format(Locale.ROOT, "noun stem = verb stem: %.1f%% of the words, %.1f%% of the distinct forms",
+					percent(equalTokens, tokens), percent(equalForms, forms.size())));
+			printHistogram(out, "forms per noun stem", formsPerNoun);
+			printHistogram(out, "forms per verb stem", formsPerVerb);
+
+			out.println("output                terms   postings  positions  postings saved");
+			printOption(out, "unstemmed", getDistinctForms(), formPostings, tokens);
+			printOption(out, "LatinStemFilter", getDistinctStems(), stemPostings, 2 * tokens);
+			printOption(out, "dedupStems", getDistinctStems(), stemPostings, 2 * tokens - equalTokens);
+			printOption(out, "noun sink", getDistinctNounStems(), nounPostings, tokens);
+			printOption(out, "verb sink", getDistinctVerbStems(), verbPostings, tokens);
+		}
+
+		private void printOption(PrintStream out, String name, long terms, long postings, long positions) {
+			out.println(String.format(Locale.ROOT, "%-15s %11d %10d %10d %14.1f%%", name, terms, postings, positions,
+					percent(formPostings - postings, formPostings)));
+		}
+
+		private void printHistogram(PrintStream out, String name, LongIntHashMap formsPerStem) {
+			long[] counts = new long[BUCKETS.length];
+			int max = 0;
+			int[] values = formsPerStem.values;
+			long[] keys = formsPerStem.keys;
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != 0) {
+					int value = values[i];
+					max = Math.max(max, value);
+					int bucket = 0;
+					while (value > BUCKETS[bucket]) {
+						bucket++;
+					}
+					counts[bucket]++;
+				}
+			}
+			StringBuilder line = new StringBuilder(name).append(" (max ").append(max).append("):");
+			for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+				int from = bucket == 0 ? 1 : BUCKETS[bucket - 1] + 1;
+				line.append(' ').append(from);
+				if (BUCKETS[bucket] == Integer.MAX_VALUE) {
+					line.append('+');
+				} else if (BUCKETS[bucket] != from) {
+					line.append('-').append(BUCKETS[bucket]);
+				}
+				line.append('=').append(counts[bucket]);
+			}
+			out.println(line);
+		}
+
+		private static double percent(long part, long total) {
+			return total == 0 ? 0 : part * 100.0 / total;
+		}
+	}
+
+	/**
+	 * open addressing hash set of non-zero longs.
+	 */
+	static class LongHashSet {
+		long[] keys;
+		int size;
+		int mask;
+
+		LongHashSet(int capacity) {
+			keys = new long[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1)];
+			mask = keys.length - 1;
+		}
+
+		/** @return true if the key was not contained */
+		boolean add(long key) {
+			int slot = slot(key);
+			if (keys[slot] == key) {
+				return false;
+			}
+			keys[slot] = key;
+			if (++size * 4 > keys.length * 3) {
+				grow();
+			}
+			return true;
+		}
+
+		boolean contains(long key) {
+			return keys[slot(key)] == key;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			if (size > 0) {
+				Arrays.fill(keys, 0);
+				size = 0;
+			}
+		}
+
+		/** slot of the key or the free slot to insert it */
+		int slot(long key) {
+			int slot = (int) (key ^ (key >>> 32)) & mask;
+			while (keys[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		void grow() {
+			long[] oldKeys = keys;
+			keys = new long[oldKeys.length * 2];
+			mask = keys.length - 1;
+			for (long key : oldKeys) {
+				if (key != 0) {
+					keys[slot(key)] = key;
+				}
+			}
+		}
+	}
+
+	/**
+	 * open addressing hash map of non-zero longs to counts.
+	 */
+	static final class LongIntHashMap extends LongHashSet {
+		int[] values;
+
+		LongIntHashMap(int capacity) {
+			super(capacity);
+			values = new int[keys.length];
+		}
+
+		void increment(long key) {
+			int slot = slot(key);
+			if (keys[slot] == key) {
+				values[slot]++;
+				return;
+			}
+			keys[slot] = key;
+			values[slot] = 1;
+			if (++size * 4 > keys.length * 3) {
+				grow();
+			}
+		}
+
+		@Override
+		void grow() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[keys.length];
+			mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) {
+					int slot = slot(oldKeys[i]);
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * HyperLogLog cardinality sketch over 64 bit hashes, 2^14 registers (standard error about 0.8%).
+	 */
+	static final class HyperLogLog {
+		private static final int P = 14;
+		private static final int M = 1 << P;
+		private final byte[] registers = new byte[M];
+
+		void add(long hash) {
+			int index = (int) (hash >>> (64 - P));
+			int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+			if (rank > registers[index]) {
+				registers[index] = (byte) rank;
+			}
+		}
+
+		long cardinality() {
+			double sum = 0;
+			int zeros = 0;
+			for (byte register : registers) {
+				sum += 1.0 / (1L << register);
+				if (register == 0) {
+					zeros++;
+				}
+			}
+			double alpha = 0.7213 / (1 + 1.079 / M);
+			double estimate = alpha * M * M / sum;
+			if (estimate <= 2.5 * M && zeros > 0) {
+				// small range correction: linear counting
+				estimate = M * Math.log((double) M / zeros);
+			}
+			return Math.round(estimate);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.analysis.util.CharArraySet;
+
+/**
+ * A {@link TokenFilter} that splits the enclitics '-que', '-ne' and '-ve' off their host word
+ * ("senatusque" -&gt; "senatus" "que"), so the host reaches {@link LatinStemFilter} and its stem cache in the same form
+ * as without the enclitic. Place it before {@link LatinStemFilter}.<br/>
+ * Only the enclitics enabled are split, words in the exception set are never split. As most words ending with
+ * 'ne' or 've' have no enclitic, '-ne' is only split after 's' or 't' ("estne", "videsne") and '-ve' only after 's'
+ * ("plusve"). At least two characters must remain. The enclitic is dropped, or emitted as a keyword token of type
+ * {@link #TYPE_ENCLITIC} at the next position. Tokens marked as keyword are not split.
+ * @author Markus Klose
+ */
+public final class LatinEncliticFilter extends TokenFilter {
+	
+	/** enclitics, combine with '|' */
+	public static final int QUE = 1;
+	public static final int NE = 2;
+	public static final int VE = 4;
+	
+	/** type of an emitted enclitic */
+	public static final String TYPE_ENCLITIC = "LATIN_ENCLITIC";
+	
+	/** minimum length of the host word */
+	private static final int MIN_HOST_LENGTH = 2;
+	
+	/** words never split (case insensitive) */
+	private final CharArraySet exceptions;
+	
+	/** enclitics to split */
+	private final int enclitics;
+	
+	/** emit the enclitic as token */
+	private final boolean emitEnclitic;
+	
+	/** attributes */
+	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+	private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+	private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+	
+	/** pending enclitic of the last host word, length 0 if none */
+	private final char[] enclitic = new char[3];
+	private int encliticLength;
+	private int encliticStart;
+	private int encliticEnd;
+	
+	/**
+	 * constructor splitting '-que' with the default 'que' exceptions ({@link LatinStemmer#getDefaultQueExceptions()}).
+	 * @param input
+	 * 	input token stream
+	 */
+	public LatinEncliticFilter(TokenStream input) {
+		this(input, LatinStemmer.getDefaultQueExceptions(), QUE, false);
+	}
+	
+	/**
+	 * default constructor.
+	 * @param input
+	 * 	input token stream
+	 * @param exceptions
+	 * 	case insensitive set of words that must not be split
+	 * @param enclitics
+	 * 	enclitics to split ({@link #QUE}, {@link #NE}, {@link #VE})
+	 * @param emitEnclitic
+	 * 	emit the enclitic as token instead of dropping it
+	 */
+	public LatinEncliticFilter(TokenStream input, CharArraySet exceptions, int enclitics, boolean emitEnclitic) {
+		super(input);
+		this.exceptions = exceptions;
+		this.enclitics = enclitics;
+		this.emitEnclitic = emitEnclitic;
+	}
+	
+	@Override
+	public boolean incrementToken() throws IOException {
+		if (encliticLength > 0) {
+			// enclitic of the previous host word
+			clearAttributes();
+			termAtt.copyBuffer(enclitic, 0, encliticLength);
+			offsetAtt.setOffset(encliticStart, encliticEnd);
+			posIncAtt.setPositionIncrement(1);
+			typeAtt.setType(TYPE_ENCLITIC);
+			keywordAttr.setKeyword(true);
+			encliticLength = 0;
+			return true;
+		}
+		if (!input.incrementToken()) {
+			return false;
+		}
+		if (keywordAttr.isKeyword()) {
+			return true;
+		}
+		char[] termBuffer = termAtt.buffer();
+		int termLength = termAtt.length();
+		int length = encliticLength(termBuffer, termLength);
+		if (length > 0 && !exceptions.contains(termBuffer, 0, termLength)) {
+			int hostLength = termLength - length;
+			if (emitEnclitic) {
+				System.arraycopy(termBuffer, hostLength, enclitic, 0, length);
+				encliticLength = length;
+				int startOffset = offsetAtt.startOffset();
+				int endOffset = offsetAtt.endOffset();
+				if (endOffset - startOffset == termLength) {
+					// offsets match the term: split them
+					encliticStart = startOffset + hostLength;
+					offsetAtt.setOffset(startOffset, encliticStart);
+				} else {
+					// changed by a char filter or a previous filter: keep the offsets of the word
+					encliticStart = startOffset;
+				}
+				encliticEnd = endOffset;
+			}
+			termAtt.setLength(hostLength);
+		}
+		return true;
+	}
+	
+	/**
+	 * find the enclitic of a word.
+	 * @param termBuffer
+	 * 	term buffer containing the word
+	 * @param termLength
+	 * 	length of the word
+	 * @return
+	 * 	length of the enclitic to split, 0 if none
+	 */
+	int encliticLength(char[] termBuffer, int termLength) {
+		if ((enclitics & QUE) != 0 && termLength >= MIN_HOST_LENGTH + 3
+				&& Character.toLowerCase(termBuffer[termLength - 3]) == 'q'
+				&& Character.toLowerCase(termBuffer[termLength - 2]) == 'u'
+				&& Character.toLowerCase(termBuffer[termLength - 1]) == 'e') {
+			return 3;
+		}
+		if (termLength < MIN_HOST_LENGTH + 2 || Character.toLowerCase(termBuffer[termLength - 1]) != 'e') {
+			return 0;
+		}
+		char last = Character.toLowerCase(termBuffer[termLength - 2]);
+		char host = Character.toLowerCase(termBuffer[termLength - 3]);
+		if ((enclitics & NE) != 0 && last == 'n' && (host == 's' || host == 't')) {
+			return 2;
+		}
+		if ((enclitics & VE) != 0 && last == 'v' && host == 's') {
+			return 2;
+		}
+		return 0;
+	}
+	
+	@Override
+	public void reset() throws IOException {
+		super.reset();
+		encliticLength = 0;
+	}
+}
@@ -0,0 +1,94 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+/**
+ * Factory for {@link LatinEncliticFilter}.
+ * <pre class="prettyprint" >
+ * &lt;fieldType name="text_latin" class="solr.TextField" positionIncrementGap="100"&gt;
+ *   &lt;analyzer&gt;
+ *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ *     &lt;filter class="solr.LatinEncliticFilterFactory" enclitics="que,ne,ve" emitEnclitic="false" exceptions="latin-enclitic-exceptions.txt"/&gt;
+ *     &lt;filter class="solr.LatinStemFilterFactory"/&gt;
+ *   &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;</pre>
+ *
+ * <code>enclitics</code> lists the enclitics to split (default <code>que</code>), with <code>emitEnclitic</code>
+ * the enclitic is indexed as own token. The optional word list <code>exceptions</code> extends the built-in 
+ * 'que' exceptions ({@link LatinStemmer#getDefaultQueExceptions()}); the set is loaded once per factory.
+ */
+public class LatinEncliticFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+
+	/** exceptions file, null to use the built-in 'que' exceptions only */
+	private final String exceptionsFile;
+	private final int enclitics;
+	private final boolean emitEnclitic;
+
+	/** words never split */
+	private CharArraySet exceptions = LatinStemmer.getDefaultQueExceptions();
+
+	/**
+	 * default constructor.
+	 * @param args
+	 * 	arguments from schema.xml
+	 */
+	public LatinEncliticFilterFactory(Map<String,String> args) {
+		super(args);
+		this.exceptionsFile = get(args, "exceptions");
+		this.emitEnclitic = getBoolean(args, "emitEnclitic", false);
+		Set<String> names = getSet(args, "enclitics");
+		int enclitics = 0;
+		for (String enclitic : names != null ? names : Collections.singleton("que")) {
+			if ("que".equals(enclitic)) {
+				enclitics |= LatinEncliticFilter.QUE;
+			} else if ("ne".equals(enclitic)) {
+				enclitics |= LatinEncliticFilter.NE;
+			} else if ("ve".equals(enclitic)) {
+				enclitics |= LatinEncliticFilter.VE;
+			} else {
+				throw new IllegalArgumentException("unknown enclitic '" + enclitic + "', expected que, ne or ve");
+			}
+		}
+		this.enclitics = enclitics;
+	}
+
+	@Override
+	public void inform(ResourceLoader loader) throws IOException {
+		if (exceptionsFile != null) {
+			CharArraySet words = new CharArraySet(LatinStemmer.getDefaultQueExceptions(), true);
+			words.addAll(getWordSet(loader, exceptionsFile, true));
+			exceptions = CharArraySet.unmodifiableSet(words);
+		}
+	}
+
+	@Override
+	public TokenStream create(TokenStream input) {
+		return new LatinEncliticFilter(input, exceptions, enclitics, emitEnclitic);
+	}
+}
@@ -0,0 +1,96 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+
+/**
+ * A light alternative to {@link LatinStemFilter}: only unambiguous inflectional endings are removed
+ * (see {@link LatinStemRules#LIGHT_RULES}), i.e. the plural endings and the case endings -ae, -os, -um and -us,
+ * which are no verb endings; single vowels and -as, -is, -es, -am, -em are kept, as well as the verb ending -mus.
+ * Each word is emitted as one token, stemmed in place.<br/>
+ * 'v' and 'j' are replaced like in {@link LatinStemFilter}, the first matching rule of either type is applied.
+ * Enclitics are not removed, place a {@link LatinEncliticFilter} before this filter if needed.
+ * Tokens marked as keyword are not changed.
+ * @author Markus Klose
+ */
+public final class LatinLightStemFilter extends TokenFilter {
+	/** compiled suffix rules */
+	private final LatinStemRules rules;
+
+	/** attributes */
+	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+
+	/** bound for the token length, null if unlimited */
+	private final LatinTokenLengthGuard lengthGuard;
+
+	/**
+	 * constructor using the built-in light rules.
+	 * @param input
+	 * 	input token stream
+	 */
+	public LatinLightStemFilter(TokenStream input) {
+		this(input, LatinStemRules.getLight(), null);
+	}
+
+	/**
+	 * constructor with custom rules and a bound for the token length.
+	 * @param input
+	 * 	input token stream
+	 * @param rules
+	 * 	compiled suffix rules
+	 * @param lengthGuard
+	 * 	bound for the token length, null if unlimited
+	 */
+	public LatinLightStemFilter(TokenStream input, LatinStemRules rules, LatinTokenLengthGuard lengthGuard) {
+		super(input);
+		this.rules = rules;
+		this.lengthGuard = lengthGuard;
+	}
+
+	@Override
+	public boolean incrementToken() throws IOException {
+		if (!input.incrementToken()) {
+			return false;
+		}
+		// token is secured by KeywordMarkerFilter or too long -> dont stem
+		if (keywordAttr.isKeyword() || (lengthGuard != null && !lengthGuard.accept(termAtt))) {
+			return true;
+		}
+		char[] termBuffer = termAtt.buffer();
+		int termLength = termAtt.length();
+		LatinStemFilter.replaceVJ(termBuffer, termLength);
+
+		int ruleId = rules.match(LatinStemRules.NOUN, termBuffer, termLength);
+		int verbRuleId = rules.match(LatinStemRules.VERB, termBuffer, termLength);
+		if (ruleId == -1 || (verbRuleId != -1 && verbRuleId < ruleId)) {
+			ruleId = verbRuleId;
+		}
+		if (ruleId != -1) {
+			termBuffer = termAtt.resizeBuffer(rules.stemLength(ruleId, termLength));
+			termAtt.setLength(rules.applyInPlace(ruleId, termBuffer, termLength));
+		}
+		return true;
+	}
+}
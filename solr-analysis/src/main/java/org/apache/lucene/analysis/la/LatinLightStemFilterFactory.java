@@ -0,0 +1,87 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+/**
+ * Factory for {@link LatinLightStemFilter}.
+ * <pre class="prettyprint" >
+ * &lt;fieldType name="text_latin_light" class="solr.TextField" positionIncrementGap="100"&gt;
+ *   &lt;analyzer&gt;
+ *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ *     &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ *     &lt;filter class="solr.LatinLightStemFilterFactory" rules="latin-light-stem-rules.txt"/&gt;
+ *   &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;</pre>
+ *
+ * The optional attribute <code>rules</code> names a file with suffix rules replacing the built-in light rules
+ * (see {@link LatinStemRules} for the format).<br/>
+ * The optional attributes <code>maxTokenLength</code> and <code>truncateLongTokens</code> bound the length of the tokens
+ * to process, see {@link LatinTokenLengthGuard}.
+ */
+public class LatinLightStemFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+
+	/** rules file, null to use the built-in light rules */
+	private final String rulesFile;
+
+	/** compiled rules */
+	private LatinStemRules rules;
+
+	/** bound for the token length, shared by all filters of this factory */
+	private final LatinTokenLengthGuard lengthGuard;
+
+	/**
+	 * default constructor.
+	 * @param args
+	 * 	arguments from schema.xml
+	 */
+	public LatinLightStemFilterFactory(Map<String,String> args) {
+		super(args);
+		this.rulesFile = get(args, "rules");
+		this.rules = rulesFile == null ? LatinStemRules.getLight() : null;
+		this.lengthGuard = new LatinTokenLengthGuard(getInt(args, LatinTokenLengthGuard.MAX_TOKEN_LENGTH, LatinTokenLengthGuard.UNLIMITED),
+				getBoolean(args, LatinTokenLengthGuard.TRUNCATE_LONG_TOKENS, false));
+	}
+
+	@Override
+	public void inform(ResourceLoader loader) throws IOException {
+		if (rulesFile != null) {
+			rules = LatinStemRules.parse(getLines(loader, rulesFile));
+		}
+	}
+
+	@Override
+	public TokenStream create(TokenStream input) {
+		return new LatinLightStemFilter(input, rules, lengthGuard);
+	}
+
+	/**
+	 * @return
+	 * 	bound for the token length, with the number of long tokens seen by the filters of this factory
+	 */
+	public LatinTokenLengthGuard getTokenLengthGuard() {
+		return lengthGuard;
+	}
+}
@@ -0,0 +1,60 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.rest.ManagedResourceObserver;
+import org.apache.solr.rest.ManagedResourceStorage.StorageIO;
+import org.apache.solr.rest.schema.analysis.ManagedWordSetResource;
+
+/**
+ * Managed word set of words ending with 'que' that should not be stemmed.<br/>
+ * Unlike {@link ManagedWordSetResource} the observers (e.g. {@link LatinStemFilterFactory}) are 
+ * notified about every change once it is stored, so no core reload is needed.
+ * @author Markus Klose
+ */
+public class LatinManagedQueResource extends ManagedWordSetResource {
+	
+	/** observers registered during initialization */
+	private List<ManagedResourceObserver> observers = Collections.emptyList();
+	
+	/** default constructor (used by the RestManager) */
+	public LatinManagedQueResource(String resourceId, SolrResourceLoader loader, StorageIO storageIO) throws SolrException {
+		super(resourceId, loader, storageIO);
+	}
+	
+	@Override
+	protected void notifyObserversDuringInit(NamedList<?> args, List<ManagedResourceObserver> observers) throws SolrException {
+		if (observers != null) {
+			this.observers = observers;
+		}
+		super.notifyObserversDuringInit(args, observers);
+	}
+	
+	@Override
+	public synchronized void storeManagedData(Object managedData) {
+		super.storeManagedData(managedData);
+		// the observers see a change only after it is stored
+		super.notifyObserversDuringInit(managedInitArgs.clone(), observers);
+	}
+}
@@ -0,0 +1,145 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.rest.BaseSolrResource;
+import org.apache.solr.rest.ManagedResource;
+import org.apache.solr.rest.ManagedResourceObserver;
+import org.apache.solr.rest.ManagedResourceStorage.StorageIO;
+
+/**
+ * Managed map of surface forms to fixed stems, used by {@link LatinStemFilterFactory} to correct bad stems.<br/>
+ * Updates are sent as JSON object (<code>{"surface":"stem"}</code>), single entries can be deleted.
+ * The observers are notified about every change once it is stored, so no core reload is needed.
+ * @author Markus Klose
+ */
+public class LatinManagedStemResource extends ManagedResource implements ManagedResource.ChildResourceSupport {
+	
+	/** name of the map in the GET response */
+	public static final String STEM_MAP_JSON_FIELD = "stemMap";
+	
+	/** surface form -> stem */
+	private Map<String, String> stemOverrides = new TreeMap<String, String>();
+	
+	/** observers registered during initialization */
+	private List<ManagedResourceObserver> observers = Collections.emptyList();
+	
+	/** default constructor (used by the RestManager) */
+	public LatinManagedStemResource(String resourceId, SolrResourceLoader loader, StorageIO storageIO) throws SolrException {
+		super(resourceId, loader, storageIO);
+	}
+	
+	/**
+	 * @return
+	 * 	unmodifiable copy of the current stem overrides
+	 */
+	public synchronized Map<String, String> getStemOverrides() {
+		return Collections.unmodifiableMap(new TreeMap<String, String>(stemOverrides));
+	}
+	
+	@Override
+	protected void notifyObserversDuringInit(NamedList<?> args, List<ManagedResourceObserver> observers) throws SolrException {
+		if (observers != null) {
+			this.observers = observers;
+		}
+		super.notifyObserversDuringInit(args, observers);
+	}
+	
+	@Override
+	protected void onManagedDataLoadedFromStorage(NamedList<?> managedInitArgs, Object managedData) throws SolrException {
+		stemOverrides = new TreeMap<String, String>();
+		if (managedData != null) {
+			for (Map.Entry<String, Object> entry : asMap(managedData).entrySet()) {
+				stemOverrides.put(entry.getKey(), String.valueOf(entry.getValue()));
+			}
+		}
+	}
+	
+	@Override
+	protected Object applyUpdatesToManagedData(Object updates) {
+		Map<String, Object> updateMap = asMap(updates);
+		// a bad entry rejects the whole update
+		for (Map.Entry<String, Object> entry : updateMap.entrySet()) {
+			if (!(entry.getValue() instanceof String)) {
+				throw new SolrException(ErrorCode.BAD_REQUEST, "Stem for '" + entry.getKey() + "' must be a string!");
+			}
+		}
+		boolean changed = false;
+		for (Map.Entry<String, Object> entry : updateMap.entrySet()) {
+			String stem = (String) entry.getValue();
+			if (!stem.equals(stemOverrides.put(entry.getKey(), stem))) {
+				changed = true;
+			}
+		}
+		return changed ? stemOverrides : null;
+	}
+	
+	@Override
+	public synchronized void storeManagedData(Object managedData) {
+		super.storeManagedData(managedData);
+		// the observers see a change only after it is stored
+		super.notifyObserversDuringInit(managedInitArgs.clone(), observers);
+	}
+	
+	@Override
+	public synchronized void doDeleteChild(BaseSolrResource endpoint, String childId) {
+		if (stemOverrides.remove(childId) == null) {
+			throw new SolrException(ErrorCode.NOT_FOUND, childId + " not found in " + getResourceId());
+		}
+		storeManagedData(stemOverrides);
+	}
+	
+	@Override
+	public synchronized void doGet(BaseSolrResource endpoint, String childId) {
+		SolrQueryResponse response = endpoint.getSolrResponse();
+		if (childId != null) {
+			String stem = stemOverrides.get(childId);
+			if (stem == null) {
+				throw new SolrException(ErrorCode.NOT_FOUND, childId + " not found in " + getResourceId());
+			}
+			response.add(childId, stem);
+		} else {
+			response.add(STEM_MAP_JSON_FIELD, buildMapToStore(stemOverrides));
+		}
+	}
+	
+	/**
+	 * check the JSON structure of stored or updated data.
+	 * @param data
+	 * 	parsed JSON
+	 * @return
+	 * 	data as map
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> asMap(Object data) {
+		if (!(data instanceof Map)) {
+			throw new SolrException(ErrorCode.BAD_REQUEST, "Unsupported data format (" + (data == null ? null : data.getClass().getName()) + "); expected a JSON object!");
+		}
+		return (Map<String, Object>) data;
+	}
+}
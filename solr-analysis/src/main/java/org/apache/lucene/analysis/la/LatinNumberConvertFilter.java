@@ -19,13 +19,25 @@ package org.apache.lucene.analysis.la;
 
 import java.io.IOException;
 
+import org.apache.lucene.analysis.NumericTokenStream;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.NumericUtils;
 
 /**
- * A {@link TokenFilter} that applies {@link LatinNumberConverter} to convert latin numbers.
+ * A {@link TokenFilter} that applies {@link LatinNumberConverter} to convert latin numbers.<br/>
+ * With a precision step the converted value is not written as decimal string but as the prefix coded
+ * <code>long</code> trie terms of {@link NumericTokenStream}: the full precision term replaces the numeral,
+ * the lower precision terms follow at the same position. Such a field can be searched with a
+ * {@link org.apache.lucene.search.NumericRangeQuery#newLongRange(String, int, Long, Long, boolean, boolean)}
+ * using the same precision step. The prefix coded terms only contain 7 bit characters, so they are indexed
+ * unchanged by the UTF-8 encoding of the term. They are marked as keywords, but a filter changing them breaks
+ * the numeric search, so the filter has to be the last one of the chain in this mode.
  * @author Markus Klose, Waldemar Erhardt
  */
 public class LatinNumberConvertFilter extends TokenFilter {
@@ -35,15 +47,81 @@ public class LatinNumberConvertFilter extends TokenFilter {
 	/** attributes */
 	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
 	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+	private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+	private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+	
+	/** bound for the token length, null if unlimited */
+	private final LatinTokenLengthGuard lengthGuard;
+	
+	/** precision step of the trie terms, 0 for decimal strings */
+	private final int precisionStep;
+	
+	/** trie encoding of the current value */
+	private final BytesRefBuilder bytes = new BytesRefBuilder();
+	private long value;
+	/** shift of the next lower precision term, -1 if none is pending */
+	private int shift = -1;
+	private State state;
 	  
 	/** default constructor */
 	public LatinNumberConvertFilter(TokenStream input, boolean strictMode) {
+		this(input, strictMode, null);
+	}
+	
+	/**
+	 * constructor with a bound for the token length.
+	 * @param input
+	 * 	input token stream
+	 * @param strictMode
+	 * 	use stricter validation of latin numbers
+	 * @param lengthGuard
+	 * 	bound for the token length, null if unlimited
+	 */
+	public LatinNumberConvertFilter(TokenStream input, boolean strictMode, LatinTokenLengthGuard lengthGuard) {
+		this(input, strictMode, lengthGuard, 0);
+	}
+	
+	/**
+	 * constructor for trie encoded output.
+	 * @param input
+	 * 	input token stream
+	 * @param strictMode
+	 * 	use stricter validation of latin numbers
+	 * @param lengthGuard
+	 * 	bound for the token length, null if unlimited
+	 * @param precisionStep
+	 * 	precision step of the trie terms (1 - 64, see {@link NumericTokenStream}), 0 for decimal strings
+	 */
+	public LatinNumberConvertFilter(TokenStream input, boolean strictMode, LatinTokenLengthGuard lengthGuard, int precisionStep) {
 		super(input);
+		checkPrecisionStep(precisionStep);
 		this.numberFormatter = new LatinNumberConverter(strictMode);
+		this.lengthGuard = lengthGuard;
+		this.precisionStep = precisionStep;
+	}
+	  
+	/**
+	 * validate a precision step.
+	 * @param precisionStep
+	 * 	precision step of the trie terms
+	 * @throws IllegalArgumentException
+	 * 	if the precision step is neither 0 nor between 1 and 64
+	 */
+	static void checkPrecisionStep(int precisionStep) {
+		if (precisionStep < 0 || precisionStep > 64) {
+			throw new IllegalArgumentException("precisionStep must be between 1 and 64 or 0 for decimal output: " + precisionStep);
+		}
 	}
 	  
 	@Override
 	public final boolean incrementToken() throws IOException {
+		if (shift != -1) {
+			// next lower precision term of the last numeral
+			restoreState(state);
+			setTrieTerm(NumericTokenStream.TOKEN_TYPE_LOWER_PREC);
+			posIncAtt.setPositionIncrement(0);
+			return true;
+		}
 		if (input.incrementToken()) {
 	    	
 			// token is secured by KeywordMarkerFilter -> dont stem
@@ -51,10 +129,20 @@ public class LatinNumberConvertFilter extends TokenFilter {
 				return true;
 			}
 			
+			// token is too long -> dont convert
+			if (lengthGuard != null && !lengthGuard.accept(termAtt)) {
+				return true;
+			}
+			
 	    	
 	        final String arabicNumber = numberFormatter.format(termAtt.buffer(), termAtt.length());
 	        //change CharTermAttribute if not null
-	        if (arabicNumber != null) {
+	        if (arabicNumber != null && precisionStep > 0) {
+	        	value = Long.parseLong(arabicNumber);
+	        	shift = 0;
+	        	setTrieTerm(NumericTokenStream.TOKEN_TYPE_FULL_PREC);
+	        	state = shift != -1 ? captureState() : null;
+	        } else if (arabicNumber != null) {
 	        	termAtt.setEmpty().append(arabicNumber);
 	        	termAtt.setLength(arabicNumber.length());
 	        }
@@ -63,4 +151,31 @@ public class LatinNumberConvertFilter extends TokenFilter {
 			return false;
 	    }
 	}
+	
+	/**
+	 * replace the term by the trie term of the current shift and advance the shift.
+	 * @param type
+	 * 	token type of the term
+	 */
+	private void setTrieTerm(String type) {
+		NumericUtils.longToPrefixCoded(value, shift, bytes);
+		char[] buffer = termAtt.resizeBuffer(bytes.length());
+		for (int i = 0; i < bytes.length(); i++) {
+			buffer[i] = (char) bytes.byteAt(i);
+		}
+		termAtt.setLength(bytes.length());
+		typeAtt.setType(type);
+		keywordAttr.setKeyword(true);
+		shift += precisionStep;
+		if (shift >= 64) {
+			shift = -1;
+		}
+	}
+	
+	@Override
+	public void reset() throws IOException {
+		super.reset();
+		shift = -1;
+		state = null;
+	}
 }
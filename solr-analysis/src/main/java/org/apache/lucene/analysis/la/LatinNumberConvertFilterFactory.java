@@ -32,12 +32,25 @@ import org.apache.lucene.analysis.util.TokenFilterFactory;
  *   &lt;/analyzer&gt;
  * &lt;/fieldType&gt;</pre> 
  *
+ * The optional attributes <code>maxTokenLength</code> and <code>truncateLongTokens</code> bound the length of the tokens
+ * to process, see {@link LatinTokenLengthGuard}.<br/>
+ * The optional attribute <code>precisionStep</code> (default 0, decimal output) writes the converted values as
+ * numeric trie terms instead, see {@link LatinNumberConvertFilter#LatinNumberConvertFilter(TokenStream, boolean, LatinTokenLengthGuard, int)};
+ * the filter has to be the last one of the analyzer then.
+ * The <code>latinRange</code> query parser ({@code org.apache.solr.search.LatinNumberRangeQParserPlugin}) searches such a field
+ * with numeric range queries.
  */
 public class LatinNumberConvertFilterFactory extends TokenFilterFactory {
 	
 	/** flag thats indicates the computation mode */
 	private boolean strictMode = false;
 	
+	/** bound for the token length, shared by all filters of this factory */
+	private final LatinTokenLengthGuard lengthGuard;
+	
+	/** precision step of the trie terms, 0 for decimal output */
+	private final int precisionStep;
+	
 	/**
 	 * default constructor.
 	 * @param args
@@ -46,10 +59,30 @@ public class LatinNumberConvertFilterFactory extends TokenFilterFactory {
 	public LatinNumberConvertFilterFactory(Map<String,String> args) {
 		super(args);
 		this.strictMode = getBoolean(args, "strictMode", false);
+		this.lengthGuard = new LatinTokenLengthGuard(getInt(args, LatinTokenLengthGuard.MAX_TOKEN_LENGTH, LatinTokenLengthGuard.UNLIMITED), 
+				getBoolean(args, LatinTokenLengthGuard.TRUNCATE_LONG_TOKENS, false));
+		this.precisionStep = getInt(args, "precisionStep", 0);
+		LatinNumberConvertFilter.checkPrecisionStep(precisionStep);
 	}
 	  
 	@Override
 	public TokenStream create(TokenStream input) {
-		return new LatinNumberConvertFilter(input, this.strictMode);
+		return new LatinNumberConvertFilter(input, this.strictMode, lengthGuard, precisionStep);
 	}  
+	
+	/**
+	 * @return
+	 * 	bound for the token length, with the number of long tokens seen by the filters of this factory
+	 */
+	public LatinTokenLengthGuard getTokenLengthGuard() {
+		return lengthGuard;
+	}
+	
+	/**
+	 * @return
+	 * 	precision step of the trie terms, 0 for decimal output
+	 */
+	public int getPrecisionStep() {
+		return precisionStep;
+	}
 }
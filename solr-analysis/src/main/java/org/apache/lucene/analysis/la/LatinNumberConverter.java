@@ -223,8 +223,17 @@ public class LatinNumberConverter {
 	 * 	if there are non valid chars return false, else true
 	 */
 	private boolean validate(char termBuffer[], int termLength) {
-		char toValidate;
+		int classes = LatinCharClassifier.classify(termBuffer, termLength);
+		if ((classes & LatinCharClassifier.ROMAN_NUMERAL) == 0) {
+			return false;
+		}
+		if ((classes & LatinCharClassifier.NUMBER_FORMS) == 0) {
+			// only i, v, x, l, c, d, m
+			return true;
+		}
 		
+		// only some number forms are valid
+		char toValidate;
 		for (int i = 0; i < termLength; i++) {
 			toValidate = Character.toLowerCase(termBuffer[i]);
 			if (toValidate != 'i' && toValidate != 'v' && toValidate != 'x' && toValidate != 'l'
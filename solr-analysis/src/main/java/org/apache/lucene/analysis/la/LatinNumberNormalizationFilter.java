@@ -29,18 +29,55 @@ public class LatinNumberNormalizationFilter extends TokenFilter {
 	  
 	/** attributes */
 	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	
+	/** bound for the token length, null if unlimited */
+	private final LatinTokenLengthGuard lengthGuard;
+	
+	/** monitoring, null if disabled */
+	private final LatinAnalysisListener listener;
+	private long fieldStart;
+	private int fieldTokens;
 		  
 	/** default constructor */
 	public LatinNumberNormalizationFilter(TokenStream input) {
+		this(input, null);
+	}
+	
+	/**
+	 * constructor with a bound for the token length.
+	 * @param input
+	 * 	input token stream
+	 * @param lengthGuard
+	 * 	bound for the token length, null if unlimited
+	 */
+	public LatinNumberNormalizationFilter(TokenStream input, LatinTokenLengthGuard lengthGuard) {
 		super(input);
 		this.numberNormalizer = new LatinNumberNormalizer();
+		this.lengthGuard = lengthGuard;
+		this.listener = LatinAnalysisListener.get();
 	}
 	  
 	
 	@Override
 	public final boolean incrementToken() throws IOException {
 		if (input.incrementToken()) {
-			final String normalizedNumber = numberNormalizer.format(termAtt.buffer(), termAtt.length());
+			fieldTokens++;
+			// token is too long -> dont normalize
+			if (lengthGuard != null && !lengthGuard.accept(termAtt)) {
+				return true;
+			}
+			
+			final String normalizedNumber;
+			if (listener == null) {
+				normalizedNumber = numberNormalizer.format(termAtt.buffer(), termAtt.length());
+			} else {
+				long start = System.nanoTime();
+				normalizedNumber = numberNormalizer.format(termAtt.buffer(), termAtt.length());
+				long nanos = System.nanoTime() - start;
+				if (nanos >= listener.getSlowTokenNanos()) {
+					listener.slowToken(LatinNumberNormalizationFilter.class.getSimpleName(), termAtt.length(), null, nanos);
+				}
+			}
 	        //change CharTermAttribute if not null
 	        if (normalizedNumber != null) {
 	        	termAtt.setEmpty().append(normalizedNumber);
@@ -51,5 +88,21 @@ public class LatinNumberNormalizationFilter extends TokenFilter {
 			return false;
 	    }
 	}
-
+	
+	@Override
+	public void reset() throws IOException {
+		super.reset();
+		if (listener != null) {
+			fieldStart = System.nanoTime();
+			fieldTokens = 0;
+		}
+	}
+	
+	@Override
+	public void end() throws IOException {
+		super.end();
+		if (listener != null) {
+			listener.fieldAnalyzed(LatinNumberNormalizationFilter.class.getSimpleName(), fieldTokens, System.nanoTime() - fieldStart);
+		}
+	}
 }
@@ -33,8 +33,13 @@ import org.apache.lucene.analysis.util.TokenFilterFactory;
  *   &lt;/analyzer&gt;
  * &lt;/fieldType&gt;</pre> 
  *
+ * The optional attributes <code>maxTokenLength</code> and <code>truncateLongTokens</code> bound the length of the tokens
+ * to process, see {@link LatinTokenLengthGuard}.
  */
 public class LatinNumberNormalizationFilterFactory extends TokenFilterFactory {
+	
+	/** bound for the token length, shared by all filters of this factory */
+	private final LatinTokenLengthGuard lengthGuard;
 
 	/**
 	 * default constructor.
@@ -43,10 +48,20 @@ public class LatinNumberNormalizationFilterFactory extends TokenFilterFactory {
 	 */
 	public LatinNumberNormalizationFilterFactory(Map<String,String> args) {
 		super(args);
+		this.lengthGuard = new LatinTokenLengthGuard(getInt(args, LatinTokenLengthGuard.MAX_TOKEN_LENGTH, LatinTokenLengthGuard.UNLIMITED), 
+				getBoolean(args, LatinTokenLengthGuard.TRUNCATE_LONG_TOKENS, false));
 	}
 	  
 	@Override
 	public TokenStream create(TokenStream input) {
-		return new LatinNumberNormalizationFilter(input);
+		return new LatinNumberNormalizationFilter(input, lengthGuard);
 	}  
+	
+	/**
+	 * @return
+	 * 	bound for the token length, with the number of long tokens seen by the filters of this factory
+	 */
+	public LatinTokenLengthGuard getTokenLengthGuard() {
+		return lengthGuard;
+	}
 }
@@ -37,6 +37,11 @@ public class LatinNumberNormalizer {
 	public String format(char termBuffer[], int termLength) {
 		String currentToken = String.valueOf(termBuffer, 0, termLength);
 		
+		// fast path: apostrophus and unicode numbers are all number forms
+		if ((LatinCharClassifier.classify(termBuffer, termLength) & LatinCharClassifier.NUMBER_FORMS) == 0) {
+			return currentToken;
+		}
+		
 		// step 1 - replace Apostrophus writings
 		currentToken = this.replaceApostrophus(currentToken);
 		
@@ -56,6 +61,10 @@ public class LatinNumberNormalizer {
 	 */
 	private String replaceApostrophus(String currentToken) {
 		//TODO lowercase?
+		// fast path: no reversed C (\u2183, \u2180) -> nothing to replace
+		if (currentToken.indexOf('\u2183') < 0 && currentToken.indexOf('\u2180') < 0) {
+			return currentToken;
+		}
 		String removedApostrophus = currentToken;
 	
 		// 100.000
@@ -85,55 +94,55 @@ public class LatinNumberNormalizer {
 	 * 	string withg replaced chars
 	 */
 	private String replaceLatinUnicode(String currentToken) {
-		String normalizedNumber = "";
+		StringBuilder normalizedNumber = new StringBuilder(currentToken.length());
 		// normalize chars
 		for (int i = 0; i < currentToken.length(); i++) {
 		    switch(currentToken.charAt(i)) {
 		    	// upper case
-		      	case '\u2160': normalizedNumber += "I"; break;
-		      	case '\u2161': normalizedNumber += "II"; break;
-		      	case '\u2162': normalizedNumber += "III"; break;
-		      	case '\u2163': normalizedNumber += "IV"; break;
-		      	case '\u2164': normalizedNumber += "V"; break;
-		      	case '\u2165': normalizedNumber += "VI"; break;
-		      	case '\u2166': normalizedNumber += "VII"; break;
-		      	case '\u2167': normalizedNumber += "VIII"; break;
-		      	case '\u2168': normalizedNumber += "IX"; break;
-		      	case '\u2169': normalizedNumber += "X"; break;
-		      	case '\u216A': normalizedNumber += "XI"; break;
-		      	case '\u216B': normalizedNumber += "XII"; break;
-		      	case '\u216C': normalizedNumber += "L"; break;
-		      	case '\u216D': normalizedNumber += "C"; break;
-		      	case '\u216E': normalizedNumber += "D"; break;
-		      	case '\u216F': normalizedNumber += "M"; break;
+		      	case '\u2160': normalizedNumber.append("I"); break;
+		      	case '\u2161': normalizedNumber.append("II"); break;
+		      	case '\u2162': normalizedNumber.append("III"); break;
+		      	case '\u2163': normalizedNumber.append("IV"); break;
+		      	case '\u2164': normalizedNumber.append("V"); break;
+		      	case '\u2165': normalizedNumber.append("VI"); break;
+		      	case '\u2166': normalizedNumber.append("VII"); break;
+		      	case '\u2167': normalizedNumber.append("VIII"); break;
+		      	case '\u2168': normalizedNumber.append("IX"); break;
+		      	case '\u2169': normalizedNumber.append("X"); break;
+		      	case '\u216A': normalizedNumber.append("XI"); break;
+		      	case '\u216B': normalizedNumber.append("XII"); break;
+		      	case '\u216C': normalizedNumber.append("L"); break;
+		      	case '\u216D': normalizedNumber.append("C"); break;
+		      	case '\u216E': normalizedNumber.append("D"); break;
+		      	case '\u216F': normalizedNumber.append("M"); break;
 		      	// lower case
-		      	case '\u2170': normalizedNumber += "i"; break;
-		      	case '\u2171': normalizedNumber += "ii"; break;
-		      	case '\u2172': normalizedNumber += "iii"; break;
-		      	case '\u2173': normalizedNumber += "iv"; break;
-		      	case '\u2174': normalizedNumber += "v"; break;
-		      	case '\u2175': normalizedNumber += "vi"; break;
-		      	case '\u2176': normalizedNumber += "vii"; break;
-		      	case '\u2177': normalizedNumber += "viii"; break;
-		      	case '\u2178': normalizedNumber += "ix"; break;
-		      	case '\u2179': normalizedNumber += "x"; break;
-		      	case '\u217A': normalizedNumber += "xi"; break;
-		      	case '\u217B': normalizedNumber += "xii"; break;
-		      	case '\u217C': normalizedNumber += "l"; break;
-		      	case '\u217D': normalizedNumber += "c"; break;
-		      	case '\u217E': normalizedNumber += "d"; break;
-		      	case '\u217F': normalizedNumber += "m"; break;
+		      	case '\u2170': normalizedNumber.append("i"); break;
+		      	case '\u2171': normalizedNumber.append("ii"); break;
+		      	case '\u2172': normalizedNumber.append("iii"); break;
+		      	case '\u2173': normalizedNumber.append("iv"); break;
+		      	case '\u2174': normalizedNumber.append("v"); break;
+		      	case '\u2175': normalizedNumber.append("vi"); break;
+		      	case '\u2176': normalizedNumber.append("vii"); break;
+		      	case '\u2177': normalizedNumber.append("viii"); break;
+		      	case '\u2178': normalizedNumber.append("ix"); break;
+		      	case '\u2179': normalizedNumber.append("x"); break;
+		      	case '\u217A': normalizedNumber.append("xi"); break;
+		      	case '\u217B': normalizedNumber.append("xii"); break;
+		      	case '\u217C': normalizedNumber.append("l"); break;
+		      	case '\u217D': normalizedNumber.append("c"); break;
+		      	case '\u217E': normalizedNumber.append("d"); break;
+		      	case '\u217F': normalizedNumber.append("m"); break;
 		      	// reversed 100 (Ã¢â€ Æ’,Ã¢â€ â€ž)
-		      	case '\u2183': normalizedNumber += "C"; break;
-		      	case '\u2184': normalizedNumber += "c"; break;
+		      	case '\u2183': normalizedNumber.append("C"); break;
+		      	case '\u2184': normalizedNumber.append("c"); break;
 		      	// 6 late form
-		      	case '\u2185': normalizedNumber += "VI"; break;
+		      	case '\u2185': normalizedNumber.append("VI"); break;
 		      	// 50 early form
-		      	case '\u2186': normalizedNumber += "L"; break;
+		      	case '\u2186': normalizedNumber.append("L"); break;
 		      	// default
-		      	default: normalizedNumber += currentToken.charAt(i);
+		      	default: normalizedNumber.append(currentToken.charAt(i));
 		    }
 		}
-		return normalizedNumber;
+		return normalizedNumber.toString();
 	}
 }
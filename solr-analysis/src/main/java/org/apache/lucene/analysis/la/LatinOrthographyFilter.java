@@ -0,0 +1,83 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+
+/**
+ * A {@link TokenFilter} that normalizes medieval and early-modern spelling variants (michi/mihi, nichil/nihil,
+ * -cio/-tio, e/ae/oe) with {@link LatinOrthographyRules}, so the variants of a word become one term
+ * before {@link LatinStemFilter}. Tokens marked as keyword are not changed.<br/>
+ * Replacements are lower case, place the filter after a <code>LowerCaseFilter</code>.
+ * @author Markus Klose
+ */
+public final class LatinOrthographyFilter extends TokenFilter {
+	/** compiled rules */
+	private final LatinOrthographyRules rules;
+
+	/** attributes */
+	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+
+	/** output buffer, reused for all tokens */
+	private char[] output = new char[32];
+
+	/**
+	 * constructor using the built-in rules.
+	 * @param input
+	 * 	input token stream
+	 */
+	public LatinOrthographyFilter(TokenStream input) {
+		this(input, LatinOrthographyRules.getDefault());
+	}
+
+	/**
+	 * constructor with custom rules.
+	 * @param input
+	 * 	input token stream
+	 * @param rules
+	 * 	compiled rewrite rules
+	 */
+	public LatinOrthographyFilter(TokenStream input, LatinOrthographyRules rules) {
+		super(input);
+		this.rules = rules;
+	}
+
+	@Override
+	public boolean incrementToken() throws IOException {
+		if (!input.incrementToken()) {
+			return false;
+		}
+		if (!keywordAttr.isKeyword()) {
+			int maxLength = rules.maxOutputLength(termAtt.length());
+			if (output.length < maxLength) {
+				output = new char[Math.max(maxLength, output.length * 2)];
+			}
+			int length = rules.rewrite(termAtt.buffer(), termAtt.length(), output);
+			if (length != -1) {
+				termAtt.copyBuffer(output, 0, length);
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,74 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+/**
+ * Factory for {@link LatinOrthographyFilter}.
+ * <pre class="prettyprint" >
+ * &lt;fieldType name="text_latin" class="solr.TextField" positionIncrementGap="100"&gt;
+ *   &lt;analyzer&gt;
+ *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ *     &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ *     &lt;filter class="solr.LatinOrthographyFilterFactory" rules="latin-orthography-rules.txt"/&gt;
+ *     &lt;filter class="solr.LatinStemFilterFactory"/&gt;
+ *   &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;</pre>
+ *
+ * The optional attribute <code>rules</code> names a file with rewrite rules replacing the built-in ones
+ * (see {@link LatinOrthographyRules} for the format). The rules are compiled once per factory, 
+ * the built-in rules once per JVM.
+ */
+public class LatinOrthographyFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+
+	/** rules file, null to use the built-in rules */
+	private final String rulesFile;
+
+	/** compiled rules */
+	private LatinOrthographyRules rules;
+
+	/**
+	 * default constructor.
+	 * @param args
+	 * 	arguments from schema.xml
+	 */
+	public LatinOrthographyFilterFactory(Map<String,String> args) {
+		super(args);
+		this.rulesFile = get(args, "rules");
+		this.rules = rulesFile == null ? LatinOrthographyRules.getDefault() : null;
+	}
+
+	@Override
+	public void inform(ResourceLoader loader) throws IOException {
+		if (rulesFile != null) {
+			rules = LatinOrthographyRules.parse(getLines(loader, rulesFile));
+		}
+	}
+
+	@Override
+	public TokenStream create(TokenStream input) {
+		return new LatinOrthographyFilter(input, rules);
+	}
+}
@@ -0,0 +1,253 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiled spelling rewrite rules of the {@link LatinOrthographyFilter}.<br/>
+ * Each line of a rules file contains <code>&lt;pattern&gt; &lt;replacement&gt;</code>, lines starting with '#' are comments.
+ * A pattern is a lower case letter sequence, optionally anchored with '^' at the start and '$' at the end of the word.
+ * The rules are compiled into one trie over the word with the word boundaries as symbols; a word is rewritten
+ * in one scan from left to right, at every position the longest matching pattern is replaced and the scan continues
+ * behind it. A rule replacing a pattern with itself therefore protects a word from shorter rules,
+ * e.g. <code>^aer aer</code> before <code>ae e</code>.
+ * @author Markus Klose
+ */
+public final class LatinOrthographyRules {
+
+	/** name of the built-in rules file (classpath resource next to this class) */
+	public static final String DEFAULT_RULES = "latin-orthography-rules.txt";
+
+	/** word boundaries */
+	static final char START = '^';
+	static final char END = '$';
+
+	/** trie root */
+	private final Node root;
+
+	/** most characters a match adds to the word */
+	private final int maxGrowth;
+
+	/**
+	 * node of the pattern trie.
+	 */
+	private static final class Node {
+		/** sorted labels of the children */
+		final char[] labels;
+		final Node[] children;
+		/** replacement of the pattern ending at this node, null if none */
+		final char[] replacement;
+		/** true if the pattern is replaced with itself (protection) */
+		final boolean keep;
+
+		Node(char[] labels, Node[] children, char[] replacement, boolean keep) {
+			this.labels = labels;
+			this.children = children;
+			this.replacement = replacement;
+			this.keep = keep;
+		}
+
+		Node child(char label) {
+			int pos = Arrays.binarySearch(labels, label);
+			return pos < 0 ? null : children[pos];
+		}
+	}
+
+	/**
+	 * mutable node, only used while compiling.
+	 */
+	private static final class BuildNode {
+		final TreeMap<Character, BuildNode> children = new TreeMap<Character, BuildNode>();
+		String replacement;
+		boolean keep;
+
+		Node compile() {
+			char[] labels = new char[children.size()];
+			Node[] compiled = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, BuildNode> child : children.entrySet()) {
+				labels[i] = child.getKey();
+				compiled[i++] = child.getValue().compile();
+			}
+			return new Node(labels, compiled, replacement == null ? null : replacement.toCharArray(), keep);
+		}
+	}
+
+	private LatinOrthographyRules(Node root, int maxGrowth) {
+		this.root = root;
+		this.maxGrowth = maxGrowth;
+	}
+
+	/**
+	 * parse and compile rules.
+	 * @param lines
+	 * 	lines of a rules file
+	 * @return
+	 * 	compiled rules
+	 * @throws IllegalArgumentException
+	 * 	if a line is not a valid rule
+	 */
+	public static LatinOrthographyRules parse(List<String> lines) {
+		BuildNode root = new BuildNode();
+		int maxGrowth = 0;
+		int lineNumber = 0;
+		for (String line : lines) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			String[] parts = line.split("\\s+");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("invalid orthography rule in line " + lineNumber + ": '" + line + "'");
+			}
+			String pattern = parts[0];
+			int start = pattern.charAt(0) == START ? 1 : 0;
+			int end = pattern.charAt(pattern.length() - 1) == END ? pattern.length() - 1 : pattern.length();
+			if (start >= end || !isLowerCaseWord(pattern.substring(start, end)) || !isLowerCaseWord(parts[1])) {
+				throw new IllegalArgumentException("invalid orthography rule in line " + lineNumber + ": '" + line + "'");
+			}
+			BuildNode node = root;
+			for (int i = 0; i < pattern.length(); i++) {
+				BuildNode child = node.children.get(pattern.charAt(i));
+				if (child == null) {
+					child = new BuildNode();
+					node.children.put(pattern.charAt(i), child);
+				}
+				node = child;
+			}
+			if (node.replacement != null) {
+				throw new IllegalArgumentException("duplicate pattern '" + pattern + "' in line " + lineNumber);
+			}
+			node.replacement = parts[1];
+			node.keep = parts[1].equals(pattern.substring(start, end));
+			maxGrowth = Math.max(maxGrowth, parts[1].length() - (end - start));
+		}
+		return new LatinOrthographyRules(root.compile(), maxGrowth);
+	}
+
+	/**
+	 * @return
+	 * 	the built-in rules
+	 */
+	public static LatinOrthographyRules getDefault() {
+		return DefaultRulesHolder.DEFAULT;
+	}
+
+	/** lazy loading of the built-in rules */
+	private static final class DefaultRulesHolder {
+		static final LatinOrthographyRules DEFAULT;
+		static {
+			try {
+				DEFAULT = parse(LatinStemRules.readLines(LatinOrthographyRules.class.getResourceAsStream(DEFAULT_RULES)));
+			} catch (IOException e) {
+				throw new RuntimeException("unable to load " + DEFAULT_RULES, e);
+			}
+		}
+	}
+
+	/**
+	 * @param termLength
+	 * 	length of a word
+	 * @return
+	 * 	the length of the output buffer {@link #rewrite(char[], int, char[])} needs
+	 */
+	public int maxOutputLength(int termLength) {
+		// every match consumes at least one letter
+		return termLength * (1 + maxGrowth);
+	}
+
+	/**
+	 * rewrite a word, matching case insensitive. Replacements are written in lower case.
+	 * @param termBuffer
+	 * 	term buffer containing the word
+	 * @param termLength
+	 * 	length of the word
+	 * @param output
+	 * 	buffer for the rewritten word, at least {@link #maxOutputLength(int)} long
+	 * @return
+	 * 	length of the rewritten word, -1 if the word is unchanged (output undefined)
+	 */
+	public int rewrite(char[] termBuffer, int termLength, char[] output) {
+		boolean changed = false;
+		int outputLength = 0;
+		// position in the symbols START, word, END
+		int pos = 0;
+		while (pos <= termLength + 1) {
+			// longest match starting at pos
+			Node node = root;
+			Node match = null;
+			int matchEnd = pos;
+			for (int i = pos; i <= termLength + 1 && node != null; i++) {
+				node = node.child(symbol(termBuffer, termLength, i));
+				if (node != null && node.replacement != null) {
+					match = node;
+					matchEnd = i;
+				}
+			}
+			if (match != null && match.keep) {
+				// protected: copy the word characters unchanged
+				for (int i = Math.max(pos, 1); i <= Math.min(matchEnd, termLength); i++) {
+					output[outputLength++] = termBuffer[i - 1];
+				}
+				pos = matchEnd + 1;
+			} else if (match != null) {
+				char[] replacement = match.replacement;
+				System.arraycopy(replacement, 0, output, outputLength, replacement.length);
+				outputLength += replacement.length;
+				pos = matchEnd + 1;
+				changed = true;
+			} else {
+				if (pos > 0 && pos <= termLength) {
+					output[outputLength++] = termBuffer[pos - 1];
+				}
+				pos++;
+			}
+		}
+		return changed ? outputLength : -1;
+	}
+
+	/** symbol at a position: START, lower case character of the word, END */
+	private static char symbol(char[] termBuffer, int termLength, int pos) {
+		if (pos == 0) {
+			return START;
+		}
+		return pos > termLength ? END : Character.toLowerCase(termBuffer[pos - 1]);
+	}
+
+	/**
+	 * check the characters of patterns and replacements.
+	 * @param word
+	 * 	word to check
+	 * @return
+	 * 	true if the word only contains lower case letters
+	 */
+	private static boolean isLowerCaseWord(String word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (!Character.isLowerCase(word.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
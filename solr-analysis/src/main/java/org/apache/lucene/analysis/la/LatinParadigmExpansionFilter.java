@@ -0,0 +1,140 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.BytesRefBuilder;
+
+/**
+ * A query time {@link TokenFilter} for fields indexed without stemming: every word is expanded to its
+ * inflected forms ({@link LatinParadigms}), stacked on the word with the type {@link #TYPE_PARADIGM}.
+ * With the terms of the field only the forms occurring in the index are emitted, so the query stays small.
+ * As nothing is stemmed at index time, changed stem rules take effect without a reindex.<br/>
+ * The generated forms are spelled with 'u' and 'i' (see {@link LatinStemFilter}), the index analyzer has to
+ * replace 'v' and 'j' the same way. Tokens marked as keyword are not expanded.
+ * @author Markus Klose
+ */
+public final class LatinParadigmExpansionFilter extends TokenFilter {
+
+	/** token type of the generated forms */
+	public static final String TYPE_PARADIGM = "LATIN_PARADIGM";
+
+	/** default maximum number of forms per word (including the word) */
+	public static final int DEFAULT_MAX_EXPANSIONS = 64;
+
+	/** form generator */
+	private final LatinParadigms paradigms;
+
+	/** terms of the field, null to emit all forms */
+	private final Terms terms;
+	private TermsEnum termsEnum;
+
+	/** maximum number of forms per word */
+	private final int maxExpansions;
+
+	/** attributes */
+	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+	private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+	private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+
+	/** forms of the current word still to emit */
+	private List<String> forms;
+	private int nextForm;
+	private State state;
+
+	/** term lookup buffer */
+	private final BytesRefBuilder bytes = new BytesRefBuilder();
+
+	/**
+	 * default constructor.
+	 * @param input
+	 * 	input token stream
+	 * @param paradigms
+	 * 	form generator
+	 * @param terms
+	 * 	terms of the searched field, null to emit all generated forms
+	 * @param maxExpansions
+	 * 	maximum number of forms per word (including the word)
+	 */
+	public LatinParadigmExpansionFilter(TokenStream input, LatinParadigms paradigms, Terms terms, int maxExpansions) {
+		super(input);
+		this.paradigms = paradigms;
+		this.terms = terms;
+		this.maxExpansions = maxExpansions;
+	}
+
+	@Override
+	public boolean incrementToken() throws IOException {
+		while (forms != null && nextForm < forms.size()) {
+			String form = forms.get(nextForm++);
+			if (exists(form)) {
+				restoreState(state);
+				termAtt.setEmpty().append(form);
+				posIncAtt.setPositionIncrement(0);
+				typeAtt.setType(TYPE_PARADIGM);
+				return true;
+			}
+		}
+		forms = null;
+		state = null;
+
+		if (!input.incrementToken()) {
+			return false;
+		}
+		if (!keywordAttr.isKeyword()) {
+			char[] word = Arrays.copyOf(termAtt.buffer(), termAtt.length());
+			LatinStemFilter.replaceVJ(word, word.length);
+			forms = paradigms.expand(word, word.length, maxExpansions);
+			// the word itself is emitted unchanged, its normalized spelling only if it differs
+			nextForm = termAtt.toString().equals(forms.get(0)) ? 1 : 0;
+			state = captureState();
+		}
+		return true;
+	}
+
+	/** check a form against the terms of the field */
+	private boolean exists(String form) throws IOException {
+		if (terms == null) {
+			return true;
+		}
+		if (termsEnum == null) {
+			termsEnum = terms.iterator(null);
+		}
+		bytes.copyChars(form);
+		return termsEnum.seekExact(bytes.get());
+	}
+
+	@Override
+	public void reset() throws IOException {
+		super.reset();
+		forms = null;
+		state = null;
+	}
+}
@@ -0,0 +1,93 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+/**
+ * Factory for {@link LatinParadigmExpansionFilter}, for the query analyzer of a field indexed without stemming.
+ * <pre class="prettyprint" >
+ * &lt;fieldType name="text_latin_forms" class="solr.TextField" positionIncrementGap="100"&gt;
+ *   &lt;analyzer type="index"&gt;
+ *     &lt;charFilter class="solr.MappingCharFilterFactory" mapping="mapping-latin-vj.txt"/&gt;
+ *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ *     &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ *   &lt;/analyzer&gt;
+ *   &lt;analyzer type="query"&gt;
+ *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ *     &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ *     &lt;filter class="solr.LatinParadigmExpansionFilterFactory" rules="latin-stem-rules.txt" maxExpansions="64"/&gt;
+ *   &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;</pre>
+ *
+ * A filter factory has no access to the index, so all generated forms are emitted. The <code>latinParadigm</code>
+ * query parser ({@code org.apache.solr.search.LatinParadigmQParserPlugin}) replaces this factory by a filter with
+ * the same {@link #getParadigms() paradigms} reading the terms of the searched field, so only the forms occurring
+ * in the index are kept.<br/>
+ * The optional attribute <code>rules</code> names a file with suffix rules replacing the built-in ones
+ * (see {@link LatinStemRules} for the format).
+ */
+public class LatinParadigmExpansionFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+
+	/** rules file, null to use the built-in rules */
+	private final String rulesFile;
+
+	/** maximum number of forms per word */
+	private final int maxExpansions;
+
+	/** form generator */
+	private LatinParadigms paradigms;
+
+	/**
+	 * default constructor.
+	 * @param args
+	 * 	arguments from schema.xml
+	 */
+	public LatinParadigmExpansionFilterFactory(Map<String,String> args) {
+		super(args);
+		this.rulesFile = get(args, "rules");
+		this.maxExpansions = getInt(args, "maxExpansions", LatinParadigmExpansionFilter.DEFAULT_MAX_EXPANSIONS);
+		this.paradigms = rulesFile == null ? new LatinParadigms(new LatinStemmer()) : null;
+	}
+
+	@Override
+	public void inform(ResourceLoader loader) throws IOException {
+		if (rulesFile != null) {
+			paradigms = new LatinParadigms(new LatinStemmer(LatinStemRules.parse(getLines(loader, rulesFile))));
+		}
+	}
+
+	@Override
+	public TokenStream create(TokenStream input) {
+		return new LatinParadigmExpansionFilter(input, paradigms, null, maxExpansions);
+	}
+
+	/**
+	 * @return
+	 * 	form generator of the configured rules
+	 */
+	public LatinParadigms getParadigms() {
+		return paradigms;
+	}
+}
@@ -0,0 +1,114 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the inflected forms of a word from the stems of a {@link LatinStemmer}, e.g. "rosarum" (stem "ros")
+ * to "rosa", "rosae", "rosam", "rosis", ...<br/>
+ * The declension and conjugation tables are the suffix rules of the stemmer applied in reverse: for every rule whose
+ * replacement ends the stem, the replacement is swapped back for the suffix. A candidate is kept if the stemmer maps it
+ * to the same stem again, so the generated forms always follow the current rules (and stem overrides). Which of the
+ * forms really occur is decided by the caller, see {@link LatinParadigmExpansionFilter}.<br/>
+ * The word and the candidates are stemmed without the {@link LatinStemCache} and without counting the rules in the
+ * {@link LatinStemRuleProfile}, so the cache statistics, its hot set and the rule profile only see indexed tokens.
+ * @author Markus Klose
+ */
+public final class LatinParadigms {
+
+	/** stemmer defining the paradigms */
+	private final LatinStemmer stemmer;
+
+	/** rules per word type ({@link LatinStemmer#NOUN}, {@link LatinStemmer#VERB}) */
+	private final LatinStemRules.Rule[][] rulesByType;
+
+	/**
+	 * default constructor.
+	 * @param stemmer
+	 * 	stemmer whose rules define the paradigms
+	 */
+	public LatinParadigms(LatinStemmer stemmer) {
+		this.stemmer = stemmer;
+		LatinStemRules rules = stemmer.getRules();
+		List<LatinStemRules.Rule> nounRules = new ArrayList<LatinStemRules.Rule>();
+		List<LatinStemRules.Rule> verbRules = new ArrayList<LatinStemRules.Rule>();
+		for (int id = 0; id < rules.size(); id++) {
+			LatinStemRules.Rule rule = rules.getRule(id);
+			(LatinStemRules.NOUN.equals(rule.type) ? nounRules : verbRules).add(rule);
+		}
+		this.rulesByType = new LatinStemRules.Rule[][] {
+			nounRules.toArray(new LatinStemRules.Rule[nounRules.size()]),
+			verbRules.toArray(new LatinStemRules.Rule[verbRules.size()])
+		};
+	}
+
+	/**
+	 * generate the forms of a word.
+	 * @param termBuffer
+	 * 	term buffer containing the word ('v'/'j' already replaced)
+	 * @param termLength
+	 * 	length of the word
+	 * @param maxForms
+	 * 	maximum number of forms to return
+	 * @return
+	 * 	the word itself followed by the other forms sharing its noun or its verb stem, noun forms first
+	 */
+	public List<String> expand(char[] termBuffer, int termLength, int maxForms) {
+		Set<String> forms = new LinkedHashSet<String>();
+		forms.add(String.valueOf(termBuffer, 0, termLength));
+		String[] stems = stemmer.stemUnrecorded(termBuffer, termLength);
+		for (int type = LatinStemmer.NOUN; type <= LatinStemmer.VERB && forms.size() < maxForms; type++) {
+			String stem = stems[type];
+			addIfSameStem(forms, stem, type, stem);
+			for (LatinStemRules.Rule rule : rulesByType[type]) {
+				if (forms.size() >= maxForms) {
+					break;
+				}
+				int baseLength = stem.length() - rule.replacement.length;
+				if (baseLength < 0 || baseLength + rule.suffix.length < rule.minLength || !endsWith(stem, rule.replacement)) {
+					continue;
+				}
+				addIfSameStem(forms, stem.substring(0, baseLength) + new String(rule.suffix), type, stem);
+			}
+		}
+		return new ArrayList<String>(forms);
+	}
+
+	/** add a candidate the stemmer maps back to the stem */
+	private void addIfSameStem(Set<String> forms, String candidate, int type, String stem) {
+		if (candidate.length() > 0 && !forms.contains(candidate)
+				&& stem.equals(stemmer.stemUnrecorded(candidate.toCharArray(), candidate.length())[type])) {
+			forms.add(candidate);
+		}
+	}
+
+	/** case insensitive suffix check, like the rule matching */
+	private static boolean endsWith(String stem, char[] suffix) {
+		int offset = stem.length() - suffix.length;
+		for (int i = 0; i < suffix.length; i++) {
+			if (Character.toLowerCase(stem.charAt(offset + i)) != suffix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,486 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.core.SolrConfig;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.IndexSchemaFactory;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.update.DocumentBuilder;
+
+/**
+ * Local tool re-analyzing the stored fields of existing indexes with the current schema, e.g. after the
+ * stem rules or the 'que' exceptions changed, without a full reindex from the sources.<br/>
+ * Every core below the Solr home (core discovery, <code>core.properties</code>) is migrated: its index is opened
+ * read-only, the stored fields of every live document are converted back into a {@link SolrInputDocument} and
+ * indexed with the current schema (analysis chains and copy fields) into <code>&lt;dataDir&gt;/index.latin</code>.
+ * The documents are processed by a {@link ForkJoinPool}, all workers add to one {@link IndexWriter}.<br/>
+ * Documents are written by their unique key, so an interrupted migration can be resumed: the segments already
+ * migrated are recorded in the commit data of the new index and skipped when the tool is started again.
+ * The documents are not sent through the update processor chain of the core (its processors need a running core),
+ * so fields derived by update processors, e.g. the stem sinks of <code>LatinStemFieldsUpdateProcessorFactory</code>,
+ * the stem docValues of <code>LatinStemDocValuesUpdateProcessorFactory</code> or the <code>_tokens</code> and
+ * <code>_hash</code> fields of <code>LatinContentHashUpdateProcessorFactory</code>, are not derived again: stored
+ * values are copied unchanged, values that are not stored are lost. The tool detects the fields of an index that
+ * are neither stored nor copy field targets of a stored field and skips the core unless <code>-allowLoss true</code>
+ * is given; reindex such cores from the sources.
+ * <pre>java -cp ... org.apache.lucene.analysis.la.LatinReindexTool &lt;solrHome&gt; [-threads n] [-core name] [-allowLoss true]</pre>
+ * Replace the <code>index</code> directory with <code>index.latin</code> while the core is unloaded.
+ * @author Markus Klose
+ */
+public class LatinReindexTool {
+
+	/** name of the target index directory, below the data dir of a core */
+	public static final String TARGET_INDEX = "index.latin";
+
+	/** commit data key listing the source segments migrated completely */
+	public static final String DONE_SEGMENTS = "latin.reindex.doneSegments";
+
+	/** documents per fork join leaf task */
+	private static final int BATCH_SIZE = 500;
+
+	/** interval of progress reports in ms */
+	private static final long PROGRESS_INTERVAL = 10000;
+
+	/** command line usage */
+	private static final String USAGE = "Usage: LatinReindexTool <solrHome> [-threads n] [-core name] [-allowLoss true]";
+
+	private final ForkJoinPool pool;
+	private final PrintStream out;
+	private boolean allowLoss;
+
+	/**
+	 * default constructor.
+	 * @param threads
+	 * 	number of worker threads
+	 * @param out
+	 * 	stream for progress reports
+	 */
+	public LatinReindexTool(int threads, PrintStream out) {
+		this.pool = new ForkJoinPool(threads);
+		this.out = out;
+	}
+
+	public static void main(String[] args) throws Exception {
+		// every option needs a value
+		if (args.length < 1 || args.length % 2 == 0) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		String coreName = null;
+		boolean allowLoss = false;
+		for (int i = 1; i < args.length; i += 2) {
+			if ("-threads".equals(args[i])) {
+				threads = Integer.parseInt(args[i + 1]);
+			} else if ("-core".equals(args[i])) {
+				coreName = args[i + 1];
+			} else if ("-allowLoss".equals(args[i])) {
+				allowLoss = Boolean.parseBoolean(args[i + 1]);
+			} else {
+				throw new IllegalArgumentException("unknown option " + args[i]);
+			}
+		}
+		LatinReindexTool tool = new LatinReindexTool(threads, System.out);
+		tool.setAllowLoss(allowLoss);
+		try {
+			tool.migrateCores(new File(args[0]), coreName);
+		} finally {
+			tool.shutdown();
+		}
+	}
+
+	/**
+	 * @param allowLoss
+	 * 	true to migrate cores with fields that can't be migrated, false (default) to skip them
+	 */
+	public void setAllowLoss(boolean allowLoss) {
+		this.allowLoss = allowLoss;
+	}
+
+	/**
+	 * stop the worker threads.
+	 * @throws InterruptedException
+	 * 	if interrupted while waiting for the workers
+	 */
+	public void shutdown() throws InterruptedException {
+		pool.shutdown();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * migrate all cores below a Solr home.
+	 * @param solrHome
+	 * 	Solr home directory
+	 * @param coreName
+	 * 	name of the only core to migrate, null for all cores
+	 */
+	public void migrateCores(File solrHome, String coreName) throws Exception {
+		List<File> coreDirs = new ArrayList<File>();
+		findCores(solrHome, coreDirs);
+		Collections.sort(coreDirs);
+		for (File coreDir : coreDirs) {
+			Properties coreProperties = new Properties();
+			InputStream in = new FileInputStream(new File(coreDir, "core.properties"));
+			try {
+				coreProperties.load(in);
+			} finally {
+				in.close();
+			}
+			String name = coreProperties.getProperty("name", coreDir.getName());
+			if (coreName == null || coreName.equals(name)) {
+				migrateCore(name, coreDir, coreProperties);
+			}
+		}
+	}
+
+	/** core discovery: directories containing core.properties */
+	private static void findCores(File dir, List<File> coreDirs) {
+		if (new File(dir, "core.properties").isFile()) {
+			coreDirs.add(dir);
+			return;
+		}
+		File[] children = dir.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				if (child.isDirectory()) {
+					findCores(child, coreDirs);
+				}
+			}
+		}
+	}
+
+	/**
+	 * migrate the index of one core.
+	 * @param name
+	 * 	name of the core
+	 * @param coreDir
+	 * 	directory containing core.properties
+	 * @param coreProperties
+	 * 	core properties
+	 */
+	private void migrateCore(String name, File coreDir, Properties coreProperties) throws Exception {
+		File instanceDir = resolve(coreDir, coreProperties.getProperty("instanceDir"), coreDir);
+		File dataDir = resolve(instanceDir, coreProperties.getProperty("dataDir"), new File(instanceDir, "data"));
+		File sourceIndex = new File(dataDir, indexDirName(dataDir));
+		File targetIndex = new File(dataDir, TARGET_INDEX);
+
+		SolrResourceLoader loader = new SolrResourceLoader(instanceDir.getPath());
+		SolrConfig config = new SolrConfig(loader, coreProperties.getProperty("config", "solrconfig.xml"), null);
+		String schemaName = coreProperties.getProperty("schema", "schema.xml");
+		if (!new File(loader.getConfigDir(), schemaName).exists() && new File(loader.getConfigDir(), "managed-schema").exists()) {
+			schemaName = "managed-schema";
+		}
+		IndexSchema schema = IndexSchemaFactory.buildIndexSchema(schemaName, config);
+		if (schema.getUniqueKeyField() == null) {
+			out.println(name + ": skipped, a uniqueKey is required to resume");
+			return;
+		}
+
+		Directory source = FSDirectory.open(sourceIndex.toPath());
+		DirectoryReader reader = DirectoryReader.open(source);
+		try {
+			Set<String> lostFields = getLostFields(schema, reader);
+			if (!lostFields.isEmpty()) {
+				if (!allowLoss) {
+					out.println(name + ": skipped, fields that are neither stored nor copied from stored fields would be lost: " + lostFields);
+					return;
+				}
+				out.println(name + ": fields that are neither stored nor copied from stored fields are lost: " + lostFields);
+			}
+			
+			Directory target = FSDirectory.open(targetIndex.toPath());
+			IndexWriterConfig writerConfig = new IndexWriterConfig(schema.getIndexAnalyzer());
+			writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+			writerConfig.setRAMBufferSizeMB(256);
+			IndexWriter writer = new IndexWriter(target, writerConfig);
+			try {
+				Migration migration = new Migration(name, schema, writer, reader);
+				migration.run();
+			} finally {
+				writer.close();
+				target.close();
+			}
+		} finally {
+			reader.close();
+			source.close();
+		}
+	}
+
+	/**
+	 * fields of an index the migration can't restore: neither stored nor copy field target of a stored field,
+	 * e.g. indexed only fields or fields derived by update processors.
+	 * @param schema
+	 * 	current schema
+	 * @param reader
+	 * 	source index
+	 * @return
+	 * 	names of the fields, sorted
+	 */
+	static Set<String> getLostFields(IndexSchema schema, DirectoryReader reader) {
+		Set<String> lostFields = new TreeSet<String>();
+		for (LeafReaderContext leaf : reader.leaves()) {
+			for (FieldInfo fieldInfo : leaf.reader().getFieldInfos()) {
+				SchemaField schemaField = schema.getFieldOrNull(fieldInfo.name);
+				// fields removed from the schema are dropped on purpose
+				if (schemaField == null || schemaField.stored() || lostFields.contains(fieldInfo.name)) {
+					continue;
+				}
+				boolean copied = false;
+				for (String copySource : schema.getCopySources(fieldInfo.name)) {
+					SchemaField sourceField = schema.getFieldOrNull(copySource);
+					copied |= sourceField != null && sourceField.stored();
+				}
+				if (!copied) {
+					lostFields.add(fieldInfo.name);
+				}
+			}
+		}
+		return lostFields;
+	}
+
+	/** resolve a path relative to a base dir */
+	private static File resolve(File base, String path, File defaultFile) {
+		if (path == null) {
+			return defaultFile;
+		}
+		File file = new File(path);
+		return file.isAbsolute() ? file : new File(base, path);
+	}
+
+	/** name of the current index directory (index.properties written by replication) */
+	private static String indexDirName(File dataDir) throws IOException {
+		File indexProperties = new File(dataDir, "index.properties");
+		if (!indexProperties.isFile()) {
+			return "index";
+		}
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(indexProperties);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return properties.getProperty("index", "index");
+	}
+
+	/**
+	 * migration of one index.
+	 */
+	private final class Migration {
+		private final String name;
+		private final IndexSchema schema;
+		private final IndexWriter writer;
+		private final DirectoryReader reader;
+
+		/** progress */
+		private final Set<String> doneSegments = new HashSet<String>();
+		private final AtomicLong migrated = new AtomicLong();
+		private long total;
+		private long start;
+		private volatile long lastReport;
+
+		Migration(String name, IndexSchema schema, IndexWriter writer, DirectoryReader reader) {
+			this.name = name;
+			this.schema = schema;
+			this.writer = writer;
+			this.reader = reader;
+		}
+
+		void run() throws IOException {
+			Map<String, String> commitData = writer.getCommitData();
+			String done = commitData == null ? null : commitData.get(DONE_SEGMENTS);
+			if (done != null && done.length() > 0) {
+				Collections.addAll(doneSegments, done.split(","));
+			}
+
+			List<LeafTask> tasks = new ArrayList<LeafTask>();
+			for (LeafReaderContext leaf : reader.leaves()) {
+				String segment = ((SegmentReader) FilterLeafReader.unwrap(leaf.reader())).getSegmentName();
+				if (doneSegments.contains(segment)) {
+					out.println(name + ": segment " + segment + " already migrated");
+					continue;
+				}
+				total += leaf.reader().numDocs();
+				tasks.add(new LeafTask(segment, leaf.reader(), 0, leaf.reader().maxDoc()));
+			}
+
+			start = System.currentTimeMillis();
+			lastReport = start;
+			out.println(String.format(Locale.ROOT, "%s: migrating %d documents of %d segments", name, total, tasks.size()));
+			for (LeafTask task : tasks) {
+				pool.execute(task);
+			}
+			for (LeafTask task : tasks) {
+				// rethrows the first failure
+				task.join();
+			}
+			commit();
+			report(true);
+		}
+
+		/** all documents of a segment are migrated */
+		private void segmentDone(String segment) throws IOException {
+			synchronized (doneSegments) {
+				doneSegments.add(segment);
+			}
+			commit();
+		}
+
+		private void commit() throws IOException {
+			synchronized (doneSegments) {
+				Map<String, String> commitData = new HashMap<String, String>();
+				StringBuilder done = new StringBuilder();
+				for (String segment : doneSegments) {
+					if (done.length() > 0) {
+						done.append(',');
+					}
+					done.append(segment);
+				}
+				commitData.put(DONE_SEGMENTS, done.toString());
+				writer.setCommitData(commitData);
+				writer.commit();
+			}
+		}
+
+		private void report(boolean finished) {
+			long now = System.currentTimeMillis();
+			if (!finished && now - lastReport < PROGRESS_INTERVAL) {
+				return;
+			}
+			lastReport = now;
+			long docs = migrated.get();
+			double seconds = Math.max(1, now - start) / 1000.0;
+			out.println(String.format(Locale.ROOT, "%s: %s%d/%d documents (%.1f%%), %.0f docs/sec", name, finished ? "finished " : "",
+					docs, total, total == 0 ? 100.0 : docs * 100.0 / total, docs / seconds));
+		}
+
+		/**
+		 * migrates a range of documents of one segment, split until BATCH_SIZE.
+		 */
+		private final class LeafTask extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+
+			private final String segment;
+			private final LeafReader leafReader;
+			private final int from;
+			private final int to;
+
+			LeafTask(String segment, LeafReader leafReader, int from, int to) {
+				this.segment = segment;
+				this.leafReader = leafReader;
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				try {
+					if (to - from <= BATCH_SIZE) {
+						migrate();
+					} else {
+						int middle = (from + to) >>> 1;
+						invokeAll(new LeafTask(segment, leafReader, from, middle), new LeafTask(segment, leafReader, middle, to));
+					}
+					if (from == 0 && to == leafReader.maxDoc()) {
+						segmentDone(segment);
+					}
+				} catch (IOException e) {
+					throw new RuntimeException("unable to migrate segment " + segment, e);
+				}
+			}
+
+			private void migrate() throws IOException {
+				Bits liveDocs = leafReader.getLiveDocs();
+				SchemaField uniqueKey = schema.getUniqueKeyField();
+				BytesRefBuilder id = new BytesRefBuilder();
+				for (int docId = from; docId < to; docId++) {
+					if (liveDocs != null && !liveDocs.get(docId)) {
+						continue;
+					}
+					SolrInputDocument doc = toSolrInputDocument(leafReader.document(docId));
+					Object key = doc.getFieldValue(uniqueKey.getName());
+					if (key == null) {
+						throw new IOException("uniqueKey '" + uniqueKey.getName() + "' is not stored, document " + docId + " of segment " + segment);
+					}
+					uniqueKey.getType().readableToIndexed(key.toString(), id);
+					Document document = DocumentBuilder.toDocument(doc, schema);
+					writer.updateDocument(new Term(uniqueKey.getName(), id.get()), document);
+					migrated.incrementAndGet();
+				}
+				report(false);
+			}
+		}
+
+		/**
+		 * convert the stored fields back into an input document, skipping copy field targets.
+		 * @param stored
+		 * 	stored fields
+		 * @return
+		 * 	input document
+		 */
+		private SolrInputDocument toSolrInputDocument(Document stored) {
+			SolrInputDocument doc = new SolrInputDocument();
+			for (IndexableField field : stored.getFields()) {
+				SchemaField schemaField = schema.getFieldOrNull(field.name());
+				if (schemaField == null || schema.isCopyFieldTarget(schemaField)) {
+					continue;
+				}
+				doc.addField(field.name(), schemaField.getType().toObject(field));
+			}
+			return doc;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+
+/**
+ * A {@link TokenFilter} that marks tokens which are not Latin as keywords, so {@link LatinStemFilter}
+ * and {@link LatinNumberConvertFilter} leave them untouched (e.g. Greek quotations, German commentary).<br/>
+ * step 1 - tokens containing letters of another script than Latin (e.g. Greek) are marked<br/>
+ * step 2 - tokens of at least <code>minLength</code> characters scoring below <code>threshold</code>
+ * in the {@link LatinTrigramModel} are marked<br/>
+ * Roman numerals are never marked.
+ * @author Markus Klose
+ */
+public final class LatinScriptGateFilter extends TokenFilter {
+	/** model, null to check the script only */
+	private final LatinTrigramModel model;
+	private final float threshold;
+	private final int minLength;
+
+	/** attributes */
+	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+
+	/**
+	 * default constructor.
+	 * @param input
+	 * 	input token stream
+	 * @param model
+	 * 	trigram model, null to check the script only
+	 * @param threshold
+	 * 	minimum score of a Latin token
+	 * @param minLength
+	 * 	minimum length of a token to score, shorter tokens are too ambiguous
+	 */
+	public LatinScriptGateFilter(TokenStream input, LatinTrigramModel model, float threshold, int minLength) {
+		super(input);
+		this.model = model;
+		this.threshold = threshold;
+		this.minLength = minLength;
+	}
+
+	@Override
+	public boolean incrementToken() throws IOException {
+		if (!input.incrementToken()) {
+			return false;
+		}
+		if (!keywordAttr.isKeyword() && !isLatin(termAtt.buffer(), termAtt.length())) {
+			keywordAttr.setKeyword(true);
+		}
+		return true;
+	}
+
+	/**
+	 * check a token.
+	 * @param termBuffer
+	 * 	term buffer containing token
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	false if the token is not Latin
+	 */
+	boolean isLatin(char[] termBuffer, int termLength) {
+		int classes = LatinCharClassifier.classify(termBuffer, termLength);
+		if ((classes & LatinCharClassifier.ASCII) == 0) {
+			for (int i = 0; i < termLength; i++) {
+				if (termBuffer[i] >= 0x80 && !isLatinScript(Character.codePointAt(termBuffer, i, termLength))) {
+					return false;
+				}
+			}
+		}
+		if (model == null || (classes & LatinCharClassifier.ROMAN_NUMERAL) != 0 || termLength < minLength) {
+			return true;
+		}
+		return model.score(termBuffer, termLength) >= threshold;
+	}
+
+	/** letters of other scripts are not Latin, everything else (digits, punctuation, marks) is */
+	private static boolean isLatinScript(int codePoint) {
+		if (!Character.isLetter(codePoint)) {
+			return true;
+		}
+		// Roman numerals are letters of the Latin script as well
+		return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.LATIN;
+	}
+}
@@ -0,0 +1,84 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+/**
+ * Factory for {@link LatinScriptGateFilter}.
+ * <pre class="prettyprint" >
+ * &lt;fieldType name="text_latin" class="solr.TextField" positionIncrementGap="100"&gt;
+ *   &lt;analyzer&gt;
+ *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ *     &lt;filter class="solr.LatinScriptGateFilterFactory" model="latin-trigrams.txt" threshold="-3.3" minLength="5"/&gt;
+ *     &lt;filter class="solr.LatinStemFilterFactory"/&gt;
+ *   &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;</pre>
+ *
+ * The optional attribute <code>model</code> names a trigram count file replacing the built-in model
+ * (see {@link LatinTrigramModel} for the format), <code>model="none"</code> checks the script only.
+ * The built-in model is loaded once per JVM.
+ */
+public class LatinScriptGateFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+
+	/** model argument to check the script only */
+	public static final String NO_MODEL = "none";
+
+	/** defaults, tuned to mark German words but (almost) no Latin ones */
+	public static final float DEFAULT_THRESHOLD = -3.3f;
+	public static final int DEFAULT_MIN_LENGTH = 5;
+
+	/** model file, null to use the built-in model */
+	private final String modelFile;
+	private final float threshold;
+	private final int minLength;
+
+	/** trigram model, null to check the script only */
+	private LatinTrigramModel model;
+
+	/**
+	 * default constructor.
+	 * @param args
+	 * 	arguments from schema.xml
+	 */
+	public LatinScriptGateFilterFactory(Map<String,String> args) {
+		super(args);
+		this.modelFile = get(args, "model");
+		this.threshold = getFloat(args, "threshold", DEFAULT_THRESHOLD);
+		this.minLength = getInt(args, "minLength", DEFAULT_MIN_LENGTH);
+		this.model = modelFile == null ? LatinTrigramModel.getDefault() : null;
+	}
+
+	@Override
+	public void inform(ResourceLoader loader) throws IOException {
+		if (modelFile != null && !NO_MODEL.equals(modelFile)) {
+			model = LatinTrigramModel.parse(getLines(loader, modelFile));
+		}
+	}
+
+	@Override
+	public TokenStream create(TokenStream input) {
+		return new LatinScriptGateFilter(input, model, threshold, minLength);
+	}
+}
@@ -0,0 +1,320 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.analysis.util.CharArrayMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared, read-mostly cache of noun and verb stems used by {@link LatinStemmer}.<br/>
+ * The table is filled in one go by {@link #warm(List, LatinStemmer)} (e.g. with the most frequent surface forms)
+ * and replaced as a whole, so lookups need no locking and no allocation. Hits and misses are counted (misses up to 
+ * the capacity of the cache) so that the current hot set can be written to a frequency file for the next warm-up.
+ * Only one in <code>sampling</code> lookups is counted, so the shared counters are rarely written.
+ * @author Markus Klose
+ */
+public class LatinStemCache {
+	private static final Logger log = LoggerFactory.getLogger(LatinStemCache.class);
+	
+	/** cached stems of a surface form */
+	private static final class Entry {
+		final String[] stems;
+		/** approximate number of hits */
+		int hits;
+		
+		Entry(String[] stems, int hits) {
+			this.stems = stems;
+			this.hits = hits;
+		}
+	}
+	
+	/** default number of lookups per counted lookup */
+	public static final int DEFAULT_SAMPLING = 64;
+	
+	/** maximum number of cached and counted forms */
+	private final int capacity;
+	
+	/** one in <code>sampling</code> lookups is counted */
+	private final int sampling;
+	private final int samplingMask;
+	
+	/** immutable table, replaced as a whole */
+	private volatile CharArrayMap<Entry> table = CharArrayMap.emptyMap();
+	
+	/** incremented by {@link #clear()}, a warm-up started before is not published */
+	private int generation;
+	
+	/** surface forms that were not cached -> number of misses */
+	private final ConcurrentMap<String, AtomicInteger> misses = new ConcurrentHashMap<String, AtomicInteger>();
+	
+	/**
+	 * default constructor, counting one in {@link #DEFAULT_SAMPLING} lookups.
+	 * @param capacity
+	 * 	maximum number of cached forms
+	 */
+	public LatinStemCache(int capacity) {
+		this(capacity, DEFAULT_SAMPLING);
+	}
+	
+	/**
+	 * constructor.
+	 * @param capacity
+	 * 	maximum number of cached forms
+	 * @param sampling
+	 * 	one in <code>sampling</code> lookups is counted, a power of two (1 to count every lookup)
+	 */
+	public LatinStemCache(int capacity, int sampling) {
+		if (sampling < 1 || Integer.bitCount(sampling) != 1) {
+			throw new IllegalArgumentException("sampling must be a power of two: " + sampling);
+		}
+		this.capacity = capacity;
+		this.sampling = sampling;
+		this.samplingMask = sampling - 1;
+		LatinAnalysisListener.register(this);
+	}
+	
+	/**
+	 * @return
+	 * 	true if the current lookup is counted
+	 */
+	private boolean sample() {
+		return samplingMask == 0 || (ThreadLocalRandom.current().nextInt() & samplingMask) == 0;
+	}
+	
+	/**
+	 * @param termBuffer
+	 * 	term buffer containing token ('v'/'j' already replaced)
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	cached noun and verb stem, null if the form is not cached
+	 */
+	public String[] get(char[] termBuffer, int termLength) {
+		Entry entry = table.get(termBuffer, 0, termLength);
+		if (entry == null) {
+			return null;
+		}
+		if (sample()) {
+			// racy, but written by one in sampling lookups only
+			entry.hits++;
+		}
+		return entry.stems;
+	}
+	
+	/**
+	 * count a form that was not found in the cache. Only sampled misses of forms not counted yet allocate,
+	 * once <code>capacity</code> forms are counted further misses are ignored.
+	 * @param termBuffer
+	 * 	term buffer containing token ('v'/'j' already replaced)
+	 * @param termLength
+	 * 	length of the token
+	 */
+	public void miss(char[] termBuffer, int termLength) {
+		if (!sample() || misses.size() >= capacity) {
+			return;
+		}
+		String form = String.valueOf(termBuffer, 0, termLength);
+		AtomicInteger count = misses.get(form);
+		if (count == null) {
+			count = misses.putIfAbsent(form, new AtomicInteger(1));
+			if (count == null) {
+				return;
+			}
+		}
+		count.incrementAndGet();
+	}
+	
+	/**
+	 * stem the given forms and replace the table.
+	 * @param forms
+	 * 	surface forms ordered by descending frequency, only the first <code>capacity</code> forms are used
+	 * @param stemmer
+	 * 	the stemmer
+	 */
+	public void warm(List<String> forms, LatinStemmer stemmer) {
+		int size = Math.min(forms.size(), capacity);
+		while (true) {
+			int startGeneration;
+			synchronized (this) {
+				startGeneration = generation;
+			}
+			CharArrayMap<Entry> warmed = new CharArrayMap<Entry>(size, false);
+			for (int i = 0; i < size; i++) {
+				char[] form = forms.get(i).toCharArray();
+				LatinStemFilter.replaceVJ(form, form.length);
+				if (!warmed.containsKey(form, 0, form.length)) {
+					warmed.put(form, new Entry(stemmer.stemUncached(form, form.length), 0));
+				}
+			}
+			synchronized (this) {
+				// publish unless the stemmer changed while warming
+				if (startGeneration == generation) {
+					table = CharArrayMap.unmodifiableMap(warmed);
+					break;
+				}
+			}
+		}
+		log.info("Warmed Latin stem cache with " + size + " forms");
+	}
+	
+	/**
+	 * remove all cached stems.
+	 */
+	public synchronized void clear() {
+		generation++;
+		table = CharArrayMap.emptyMap();
+	}
+	
+	/**
+	 * parse a frequency file.
+	 * @param lines
+	 * 	lines containing <code>form[&lt;whitespace&gt;count]</code>
+	 * @return
+	 * 	forms ordered by descending count (forms without count keep the order of the file)
+	 */
+	public static List<String> parseFrequencyList(List<String> lines) {
+		final Map<String, Long> counts = new HashMap<String, Long>();
+		List<String> forms = new ArrayList<String>(lines.size());
+		for (String line : lines) {
+			String[] parts = line.trim().split("\\s+");
+			if (parts[0].length() == 0 || parts[0].startsWith("#") || counts.containsKey(parts[0])) {
+				continue;
+			}
+			long count = 0;
+			if (parts.length > 1) {
+				try {
+					count = Long.parseLong(parts[1]);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("invalid count in frequency list: '" + line + "'");
+				}
+			}
+			counts.put(parts[0], count);
+			forms.add(parts[0]);
+		}
+		// stable sort
+		Collections.sort(forms, new Comparator<String>() {
+			@Override
+			public int compare(String form1, String form2) {
+				return counts.get(form2).compareTo(counts.get(form1));
+			}
+		});
+		return forms;
+	}
+	
+	/**
+	 * @return
+	 * 	number of cached forms
+	 */
+	public int size() {
+		return table.size();
+	}
+	
+	/**
+	 * @return
+	 * 	approximate number of lookups answered by the current table
+	 */
+	public long getHits() {
+		long hits = 0;
+		for (Entry entry : table.values()) {
+			hits += entry.hits;
+		}
+		return hits * sampling;
+	}
+	
+	/**
+	 * @return
+	 * 	approximate number of misses of the counted forms (at most <code>capacity</code> forms are counted)
+	 */
+	public long getMisses() {
+		long total = 0;
+		for (AtomicInteger count : misses.values()) {
+			total += count.get();
+		}
+		return total * sampling;
+	}
+	
+	/**
+	 * collect the cached and missed forms with the most hits.
+	 * @return
+	 * 	hot set ordered by descending frequency (at most <code>capacity</code> forms), with the approximate frequencies
+	 */
+	public List<Map.Entry<String, Long>> getHotSet() {
+		Map<String, Long> counts = new HashMap<String, Long>();
+		for (Map.Entry<Object, Entry> cached : table.entrySet()) {
+			Object key = cached.getKey();
+			counts.put(key instanceof char[] ? new String((char[]) key) : key.toString(), (long) cached.getValue().hits * sampling);
+		}
+		for (Map.Entry<String, AtomicInteger> missed : misses.entrySet()) {
+			Long hits = counts.get(missed.getKey());
+			counts.put(missed.getKey(), (hits == null ? 0 : hits) + (long) missed.getValue().get() * sampling);
+		}
+		List<Map.Entry<String, Long>> hotSet = new ArrayList<Map.Entry<String, Long>>(counts.entrySet());
+		Collections.sort(hotSet, new Comparator<Map.Entry<String, Long>>() {
+			@Override
+			public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+				return e2.getValue().compareTo(e1.getValue());
+			}
+		});
+		return hotSet.size() > capacity ? hotSet.subList(0, capacity) : hotSet;
+	}
+	
+	/**
+	 * write the hot set as frequency file (<code>form&lt;TAB&gt;count</code>).
+	 * @param file
+	 * 	target file
+	 * @throws IOException
+	 */
+	public void writeHotSet(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8);
+		try {
+			for (Map.Entry<String, Long> form : getHotSet()) {
+				writer.write(form.getKey());
+				writer.write('\t');
+				writer.write(String.valueOf(form.getValue()));
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+		if (!tmp.renameTo(file)) {
+			// rename fails on some platforms if the target exists
+			if (!file.delete() || !tmp.renameTo(file)) {
+				throw new IOException("unable to write " + file);
+			}
+		}
+	}
+}
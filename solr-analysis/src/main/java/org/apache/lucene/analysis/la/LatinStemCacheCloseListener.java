@@ -0,0 +1,97 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.core.AbstractSolrEventListener;
+import org.apache.solr.core.CloseHook;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.schema.FieldType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the hot sets of the stem caches of all {@link LatinStemFilterFactory}s with a <code>hotSetFile</code>
+ * when the core is closed (also on a core reload), see {@link LatinStemFilterFactory#writeHotSet()}.<br/>
+ * Analysis factories cannot register core close hooks themselves, so this listener does it:
+ * <pre class="prettyprint" >
+ * &lt;listener event="firstSearcher" class="org.apache.lucene.analysis.la.LatinStemCacheCloseListener"/&gt;</pre>
+ * The listener only registers the close hook, it does nothing on the searcher event.
+ * @author Markus Klose
+ */
+public class LatinStemCacheCloseListener extends AbstractSolrEventListener {
+	private static final Logger log = LoggerFactory.getLogger(LatinStemCacheCloseListener.class);
+
+	/**
+	 * default constructor.
+	 * @param core
+	 * 	the core to watch
+	 */
+	public LatinStemCacheCloseListener(SolrCore core) {
+		super(core);
+		core.addCloseHook(new CloseHook() {
+			@Override
+			public void preClose(SolrCore core) {
+				writeHotSets(core);
+			}
+
+			@Override
+			public void postClose(SolrCore core) {
+			}
+		});
+	}
+
+	/**
+	 * write the hot sets of all Latin stem filters of the current schema.
+	 * @param core
+	 * 	the core
+	 */
+	static void writeHotSets(SolrCore core) {
+		Set<LatinStemFilterFactory> factories = Collections.newSetFromMap(new IdentityHashMap<LatinStemFilterFactory, Boolean>());
+		for (FieldType type : core.getLatestSchema().getFieldTypes().values()) {
+			collect(type.getIndexAnalyzer(), factories);
+			collect(type.getQueryAnalyzer(), factories);
+		}
+		for (LatinStemFilterFactory factory : factories) {
+			try {
+				factory.writeHotSet();
+			} catch (IOException e) {
+				log.warn("Unable to write Latin stem cache hot set", e);
+			}
+		}
+	}
+
+	/** add the Latin stem filter factories of an analyzer */
+	private static void collect(Analyzer analyzer, Set<LatinStemFilterFactory> factories) {
+		if (!(analyzer instanceof TokenizerChain)) {
+			return;
+		}
+		for (TokenFilterFactory filterFactory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+			if (filterFactory instanceof LatinStemFilterFactory) {
+				factories.add((LatinStemFilterFactory) filterFactory);
+			}
+		}
+	}
+}
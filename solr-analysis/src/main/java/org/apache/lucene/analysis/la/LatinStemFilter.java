@@ -18,22 +18,29 @@ package org.apache.lucene.analysis.la;
  */
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
 import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.BytesRef;
 
 /**
- * A {@link TokenFilter} that applies {@link LatinStemmer} to stem Latin words.
+ * A {@link TokenFilter} that applies {@link LatinStemmer} to stem Latin words.<br/>
+ * Each word is emitted as noun stem and (stacked) verb stem. The origin of a stem is marked in the 
+ * {@link FlagsAttribute} ({@link #FLAG_NOUN}, {@link #FLAG_VERB}) and optionally in a one-byte payload.
+ * With <code>dedupStems</code> a stem that is the same for both readings is emitted only once, carrying both flags.
  * @author Markus Klose
  */
 public final class LatinStemFilter extends TokenFilter {
 	/** stemmer */   
-	private final LatinStemmer stemmer = new LatinStemmer();
+	private final LatinStemmer stemmer;
   
 	/** attributes */
 	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
@@ -41,6 +48,8 @@ public final class LatinStemFilter extends TokenFilter {
 	private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
 	private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
 	private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+	private final FlagsAttribute flagsAtt = addAttribute(FlagsAttribute.class);
+	private final PayloadAttribute payloadAtt;
   
 	/** flag that indicates if input should be incremented */
 	private boolean stemAsNoun = true;
@@ -48,6 +57,25 @@ public final class LatinStemFilter extends TokenFilter {
 	/** token types */
 	public static final String TYPE_NOUN = "LATIN_NOUN";
 	public static final String TYPE_VERB = "LATIN_VERB";
+	public static final String TYPE_NOUN_VERB = "LATIN_NOUN_VERB";
+	
+	/** flag bits marking the origin of a stem (also used as payload) */
+	public static final int FLAG_NOUN = 1;
+	public static final int FLAG_VERB = 2;
+	
+	/** payloads per flag combination, never modified */
+	private static final BytesRef[] PAYLOADS = {
+		null,
+		new BytesRef(new byte[] {FLAG_NOUN}),
+		new BytesRef(new byte[] {FLAG_VERB}),
+		new BytesRef(new byte[] {FLAG_NOUN | FLAG_VERB})
+	};
+	
+	/** emit a stem that is the same for noun and verb only once */
+	private final boolean dedupStems;
+	
+	/** bound for the token length, null if unlimited */
+	private final LatinTokenLengthGuard lengthGuard;
   
 	/** current token information */
 	private char[] currentTokenBuffer;
@@ -55,16 +83,70 @@ public final class LatinStemFilter extends TokenFilter {
 	private int currentTokenStart;
 	private int currentTokenEnd;
 	private int currentTokenPosition;
+	private String[] currentStems;
+	
+	/** monitoring, null if disabled */
+	private final LatinAnalysisListener listener;
+	private long fieldStart;
+	private int fieldTokens;
 
 	/** default constructor */
 	public LatinStemFilter(TokenStream input) {
+		this(input, new LatinStemmer());
+	}
+	
+	/**
+	 * constructor using a (shared) stemmer, e.g. with managed 'que' exceptions and stem overrides.
+	 * @param input
+	 * 	input token stream
+	 * @param stemmer
+	 * 	the stemmer to use
+	 */
+	public LatinStemFilter(TokenStream input, LatinStemmer stemmer) {
+		this(input, stemmer, false, false);
+	}
+	
+	/**
+	 * constructor with output options.
+	 * @param input
+	 * 	input token stream
+	 * @param stemmer
+	 * 	the stemmer to use
+	 * @param dedupStems
+	 * 	emit a stem that is the same for noun and verb only once (flagged as both)
+	 * @param payloads
+	 * 	write the flag bits as one-byte payload
+	 */
+	public LatinStemFilter(TokenStream input, LatinStemmer stemmer, boolean dedupStems, boolean payloads) {
+		this(input, stemmer, dedupStems, payloads, null);
+	}
+	
+	/**
+	 * constructor with output options and a bound for the token length.
+	 * @param input
+	 * 	input token stream
+	 * @param stemmer
+	 * 	the stemmer to use
+	 * @param dedupStems
+	 * 	emit a stem that is the same for noun and verb only once (flagged as both)
+	 * @param payloads
+	 * 	write the flag bits as one-byte payload
+	 * @param lengthGuard
+	 * 	bound for the token length, null if unlimited
+	 */
+	public LatinStemFilter(TokenStream input, LatinStemmer stemmer, boolean dedupStems, boolean payloads, LatinTokenLengthGuard lengthGuard) {
 		super(input);
+		this.stemmer = stemmer;
+		this.dedupStems = dedupStems;
+		this.payloadAtt = payloads ? addAttribute(PayloadAttribute.class) : null;
+		this.lengthGuard = lengthGuard;
+		this.listener = LatinAnalysisListener.get();
 	}
   
 	/**
 	 * Entry point for latin stemming.<br/>
 	 * step 1 - replace 'v' with 'u' and 'j' with 'i'<br/>
-	 * step 2 - check for tokens ending with 'que' <br/>
+	 * step 2 - check for stem overrides and tokens ending with 'que' <br/>
 	 * step 3 - stem nouns or verb 
 	 * 
 	 * @author markus klose
@@ -79,11 +161,18 @@ public final class LatinStemFilter extends TokenFilter {
 			} else {
 				// token is secured by KeywordMarkerFilter -> dont stem
 				if (keywordAttr.isKeyword()) {
+					fieldTokens++;
+					return true;
+				}
+				
+				// token is too long -> dont stem
+				if (lengthGuard != null && !lengthGuard.accept(termAtt)) {
+					fieldTokens++;
 					return true;
 				}
 				
 				// buffer current input
-				currentTokenBuffer = termAtt.buffer().clone();
+				currentTokenBuffer = Arrays.copyOf(termAtt.buffer(), termAtt.length());
 				currentTokenLength = termAtt.length();
 				currentTokenStart = offsetAtt.startOffset();
 		        currentTokenEnd = offsetAtt.endOffset();
@@ -94,36 +183,46 @@ public final class LatinStemFilter extends TokenFilter {
 		// reset token attributes
 		clearAttributes();
 		
-		/** step 1 - replace 'v' and 'j' (case sensitive) */
-		this.replaceVJ(currentTokenBuffer, currentTokenLength);
-
-		String stemmedToken;
-		/** step 2 - check for words to stem ending with 'que' */
-		int termLength = stemmer.stemQUE(currentTokenBuffer, currentTokenLength);
-		if (termLength == -1) {
-			// write original buffer as noun and verb	
-			stemmedToken = String.valueOf(currentTokenBuffer, 0,  currentTokenLength);
-		} else {
-			/** step 3 - stem as noun or verb */
-			if (stemAsNoun) {
-				stemmedToken = stemmer.stemAsNoun(currentTokenBuffer, termLength);
+		if (currentStems == null) {
+			/** step 1 - replace 'v' and 'j' (case sensitive) */
+			replaceVJ(currentTokenBuffer, currentTokenLength);
+			
+			/** step 2 + 3 - check for a fixed stem or words to stem ending with 'que', stem as noun and verb */
+			if (listener == null) {
+				currentStems = stemmer.stem(currentTokenBuffer, currentTokenLength);
 			} else {
-				stemmedToken = stemmer.stemAsVerb(currentTokenBuffer, termLength);
+				long start = System.nanoTime();
+				currentStems = stemmer.stem(currentTokenBuffer, currentTokenLength);
+				long nanos = System.nanoTime() - start;
+				if (nanos >= listener.getSlowTokenNanos()) {
+					listener.slowToken(LatinStemFilter.class.getSimpleName(), currentTokenLength, matchingRules(), nanos);
+				}
 			}
 		}
-    	
+		
 		// switch from noun to verb or vice versa
+		String stemmedToken;
 		String tokenType;
+		int flags;
 		if(stemAsNoun) {
-			stemAsNoun = false;
-			tokenType = TYPE_NOUN;
+			stemmedToken = currentStems[LatinStemmer.NOUN];
 			posIncAtt.setPositionIncrement(currentTokenPosition);
+			if (dedupStems && stemmedToken.equals(currentStems[LatinStemmer.VERB])) {
+				// same stem for noun and verb -> emit once
+				tokenType = TYPE_NOUN_VERB;
+				flags = FLAG_NOUN | FLAG_VERB;
+				this.resetCurrentToken();
+			} else {
+				stemAsNoun = false;
+				tokenType = TYPE_NOUN;
+				flags = FLAG_NOUN;
+			}
 		} else {
+			stemmedToken = currentStems[LatinStemmer.VERB];
 			stemAsNoun = true;
 			tokenType = TYPE_VERB;
-			// reset buffer
-			currentTokenBuffer = null;
-			currentTokenLength = -1;
+			flags = FLAG_VERB;
+			this.resetCurrentToken();
 			posIncAtt.setPositionIncrement(0);
 		}
 		
@@ -132,9 +231,52 @@ public final class LatinStemFilter extends TokenFilter {
 		termAtt.setLength(stemmedToken.length());
 		offsetAtt.setOffset(currentTokenStart, currentTokenEnd);
 		typeAtt.setType(tokenType);
+		flagsAtt.setFlags(flags);
+		if (payloadAtt != null) {
+			payloadAtt.setPayload(PAYLOADS[flags]);
+		}
+		fieldTokens++;
 		
 		return true;
 	}
+	
+	@Override
+	public void reset() throws IOException {
+		super.reset();
+		if (listener != null) {
+			fieldStart = System.nanoTime();
+			fieldTokens = 0;
+		}
+	}
+	
+	@Override
+	public void end() throws IOException {
+		super.end();
+		if (listener != null) {
+			listener.fieldAnalyzed(LatinStemFilter.class.getSimpleName(), fieldTokens, System.nanoTime() - fieldStart);
+		}
+	}
+	
+	/**
+	 * @return
+	 * 	noun and verb rule matching the current token (ignoring stem overrides and 'que'), null if none, for monitoring
+	 */
+	private String matchingRules() {
+		LatinStemRules rules = stemmer.getRules();
+		int noun = rules.match(LatinStemRules.NOUN, currentTokenBuffer, currentTokenLength);
+		int verb = rules.match(LatinStemRules.VERB, currentTokenBuffer, currentTokenLength);
+		if (noun == -1 || verb == -1) {
+			return noun != -1 ? rules.getRule(noun).toString() : verb != -1 ? rules.getRule(verb).toString() : null;
+		}
+		return rules.getRule(noun) + ", " + rules.getRule(verb);
+	}
+	
+	/** reset buffer */
+	private void resetCurrentToken() {
+		currentTokenBuffer = null;
+		currentTokenLength = -1;
+		currentStems = null;
+	}
 
 	/**
 	 * Replace replace 'v' with 'u' and 'j' with 'i' (case sensitive).
@@ -146,7 +288,11 @@ public final class LatinStemFilter extends TokenFilter {
 	 * @param termLength
 	 * 	length of the token
 	 */
-	private void replaceVJ(char termBuffer[], int termLength) {
+	static void replaceVJ(char termBuffer[], int termLength) {
+		// most tokens contain no 'v' or 'j', the classifier finds out without the per character switch
+		if ((LatinCharClassifier.classify(termBuffer, termLength) & LatinCharClassifier.VJ) == 0) {
+			return;
+		}
 		for (int i = 0; i < termLength; i++) {
 			switch(termBuffer[i]) {
 		  		case 'V': termBuffer[i] = 'U'; break;
@@ -156,4 +302,18 @@ public final class LatinStemFilter extends TokenFilter {
 			}
 		}
 	}
+	
+	/**
+	 * Replace replace 'v' with 'u' and 'j' with 'i' (case sensitive).
+	 * 
+	 * @param word
+	 * 	word to normalize
+	 * @return
+	 * 	normalized word
+	 */
+	static String replaceVJ(String word) {
+		char[] termBuffer = word.toCharArray();
+		replaceVJ(termBuffer, termBuffer.length);
+		return new String(termBuffer);
+	}
 }
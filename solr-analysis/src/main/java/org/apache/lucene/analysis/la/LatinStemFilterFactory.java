@@ -17,10 +17,27 @@ package org.apache.lucene.analysis.la;
  * limitations under the License.
  */
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.CharArrayMap;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
 import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.rest.ManagedResource;
+import org.apache.solr.rest.ManagedResourceObserver;
+import org.apache.solr.rest.RestManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Factory for {@link LatinStemFilter}.
@@ -28,12 +45,70 @@ import org.apache.lucene.analysis.util.TokenFilterFactory;
  * &lt;fieldType name="text_latin" class="solr.TextField" positionIncrementGap="100"&gt;
  *   &lt;analyzer&gt;
  *     &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
- *     &lt;filter class="solr.LatinStemFilterFactory"/&gt;
+ *     &lt;filter class="solr.LatinStemFilterFactory" rules="latin-stem-rules.txt" managedQue="latin" managedStems="latin"
+ *             stemCacheFile="latin-forms.txt" stemCacheSize="10000" stemCacheSampling="64" hotSetFile="latin-forms.txt"
+ *             dedupStems="true" payloads="false" profileRules="true" reorderRulesAfter="1000000"/&gt;
  *   &lt;/analyzer&gt;
  * &lt;/fieldType&gt;</pre> 
  *
+ * The optional attributes <code>managedQue</code> and <code>managedStems</code> name REST managed resources
+ * (<code>/schema/analysis/latin/que/&lt;name&gt;</code> and <code>/schema/analysis/latin/stems/&lt;name&gt;</code>)
+ * holding additional words ending with 'que' that should not be stemmed and a map of surface forms to fixed stems.
+ * Changes made through the REST API are applied to new tokens without a core reload.<br/>
+ * The optional attribute <code>rules</code> names a file with suffix rules replacing the built-in ones 
+ * (see {@link LatinStemRules} for the format).<br/>
+ * The optional attribute <code>stemCacheFile</code> names a frequency file (<code>form[&lt;TAB&gt;count]</code>),
+ * the most frequent <code>stemCacheSize</code> forms are stemmed into a shared {@link LatinStemCache} by a background thread. 
+ * The cache counts one in <code>stemCacheSampling</code> lookups (a power of two, default {@link LatinStemCache#DEFAULT_SAMPLING}).<br/>
+ * With <code>hotSetFile</code> the forms used most are written to that file when the core is closed, ready for the next warm-up
+ * (register the {@link LatinStemCacheCloseListener} in solrconfig.xml, or call {@link #writeHotSet()}).<br/>
+ * With <code>dedupStems</code> a stem shared by the noun and verb reading is emitted once, 
+ * with <code>payloads</code> the origin flags ({@link LatinStemFilter#FLAG_NOUN}, {@link LatinStemFilter#FLAG_VERB}) 
+ * are written as one-byte payload.<br/>
+ * The optional attributes <code>maxTokenLength</code> and <code>truncateLongTokens</code> bound the length of the tokens
+ * to process, see {@link LatinTokenLengthGuard}.<br/>
+ * With <code>profileRules</code> the applied suffix rules are counted ({@link #getRuleProfile()}), 
+ * with <code>reorderRulesAfter</code> (implies <code>profileRules</code>) the rule tries are reordered by frequency
+ * after that number of stemmings, see {@link LatinStemRules#reorder(LatinStemRuleProfile)}.
  */
-public class LatinStemFilterFactory extends TokenFilterFactory {
+public class LatinStemFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+	private static final Logger log = LoggerFactory.getLogger(LatinStemFilterFactory.class);
+	
+	/** base endpoints of the managed resources */
+	public static final String QUE_MANAGED_ENDPOINT = "/schema/analysis/latin/que";
+	public static final String STEMS_MANAGED_ENDPOINT = "/schema/analysis/latin/stems";
+	
+	/** suffix rules file, null to use the built-in rules */
+	private final String rulesFile;
+	
+	/** names of the managed resources, null if not used */
+	private final String managedQue;
+	private final String managedStems;
+	
+	/** stem cache configuration, files are null if not used */
+	private final String stemCacheFile;
+	private final String hotSetFile;
+	private final int stemCacheSize;
+	private final int stemCacheSampling;
+	
+	/** output options */
+	private final boolean dedupStems;
+	private final boolean payloads;
+	
+	/** rule profiling: stemmings before reordering, 0 to never reorder, -1 to not count */
+	private final long reorderRulesAfter;
+	
+	/** bound for the token length, shared by all filters of this factory */
+	private final LatinTokenLengthGuard lengthGuard;
+	
+	/** resolved hot set file, null if not used */
+	private File hotSet;
+	
+	/** forms from the frequency file, used again to warm the cache after managed changes */
+	private volatile List<String> warmUpForms = Collections.emptyList();
+	
+	/** stemmer shared by all filters of this factory */
+	private LatinStemmer stemmer = new LatinStemmer();
   
 	/**
 	 * default constructor.
@@ -42,10 +117,162 @@ public class LatinStemFilterFactory extends TokenFilterFactory {
 	 */
 	public LatinStemFilterFactory(Map<String,String> args) {
 		super(args);
+		this.rulesFile = get(args, "rules");
+		this.managedQue = get(args, "managedQue");
+		this.managedStems = get(args, "managedStems");
+		this.stemCacheFile = get(args, "stemCacheFile");
+		this.hotSetFile = get(args, "hotSetFile");
+		this.stemCacheSize = getInt(args, "stemCacheSize", 10000);
+		this.stemCacheSampling = getInt(args, "stemCacheSampling", LatinStemCache.DEFAULT_SAMPLING);
+		this.dedupStems = getBoolean(args, "dedupStems", false);
+		this.payloads = getBoolean(args, "payloads", false);
+		this.lengthGuard = new LatinTokenLengthGuard(getInt(args, LatinTokenLengthGuard.MAX_TOKEN_LENGTH, LatinTokenLengthGuard.UNLIMITED), 
+				getBoolean(args, LatinTokenLengthGuard.TRUNCATE_LONG_TOKENS, false));
+		boolean profileRules = getBoolean(args, "profileRules", false);
+		int reorder = getInt(args, "reorderRulesAfter", 0);
+		if (reorder < 0) {
+			throw new IllegalArgumentException("reorderRulesAfter must not be negative: " + reorder);
+		}
+		this.reorderRulesAfter = reorder > 0 ? reorder : profileRules ? 0 : -1;
+		startRuleProfile();
+	}
+	
+	/** attach the rule profile to the current stemmer */
+	private void startRuleProfile() {
+		if (reorderRulesAfter >= 0) {
+			stemmer.setRuleProfile(new LatinStemRuleProfile(stemmer.getRules(), reorderRulesAfter));
+		}
+	}
+	
+	@Override
+	public void inform(ResourceLoader loader) throws IOException {
+		if (rulesFile != null) {
+			// validate and compile the rules once
+			stemmer = new LatinStemmer(LatinStemRules.parse(getLines(loader, rulesFile)));
+			startRuleProfile();
+		}
+		
+		if (stemCacheFile != null || hotSetFile != null) {
+			stemmer.setStemCache(new LatinStemCache(stemCacheSize, stemCacheSampling));
+			if (hotSetFile != null) {
+				hotSet = new File(hotSetFile);
+				if (!hotSet.isAbsolute() && loader instanceof SolrResourceLoader) {
+					hotSet = new File(((SolrResourceLoader) loader).getConfigDir(), hotSetFile);
+				}
+			}
+			if (stemCacheFile != null) {
+				warmStemCache(loader);
+			}
+		}
+		
+		if (managedQue == null && managedStems == null) {
+			return;
+		}
+		if (!(loader instanceof SolrResourceLoader)) {
+			throw new IllegalArgumentException("managed 'que' exceptions and stem overrides require a SolrResourceLoader");
+		}
+		RestManager.Registry registry = ((SolrResourceLoader) loader).getManagedResourceRegistry();
+		
+		if (managedQue != null) {
+			registry.registerManagedResource(QUE_MANAGED_ENDPOINT + "/" + managedQue, LatinManagedQueResource.class, new ManagedResourceObserver() {
+				@Override
+				public void onManagedResourceInitialized(NamedList<?> args, ManagedResource res) throws SolrException {
+					Set<String> words = ((LatinManagedQueResource) res).getWordSet();
+					// managed words extend the built-in list
+					CharArraySet queExceptions = new CharArraySet(LatinStemmer.getDefaultQueExceptions(), true);
+					for (String word : words) {
+						queExceptions.add(LatinStemFilter.replaceVJ(word));
+					}
+					stemmer.setQueExceptions(queExceptions);
+					warmStemCache(null);
+				}
+			});
+		}
+		
+		if (managedStems != null) {
+			registry.registerManagedResource(STEMS_MANAGED_ENDPOINT + "/" + managedStems, LatinManagedStemResource.class, new ManagedResourceObserver() {
+				@Override
+				public void onManagedResourceInitialized(NamedList<?> args, ManagedResource res) throws SolrException {
+					Map<String, String> overrides = ((LatinManagedStemResource) res).getStemOverrides();
+					CharArrayMap<String> stemOverrides = new CharArrayMap<String>(overrides.size(), true);
+					for (Map.Entry<String, String> override : overrides.entrySet()) {
+						stemOverrides.put(LatinStemFilter.replaceVJ(override.getKey()), override.getValue());
+					}
+					stemmer.setStemOverrides(stemOverrides);
+					warmStemCache(null);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * warm the stem cache in the background, so core startup is not delayed.
+	 * @param loader
+	 * 	loader for the frequency file, null to reuse the forms loaded before
+	 */
+	private void warmStemCache(final ResourceLoader loader) {
+		final LatinStemCache cache = stemmer.getStemCache();
+		if (cache == null || stemCacheFile == null || (loader == null && warmUpForms.isEmpty())) {
+			return;
+		}
+		Thread warmer = new Thread("latinStemCacheWarmer") {
+			@Override
+			public void run() {
+				try {
+					if (loader != null) {
+						warmUpForms = LatinStemCache.parseFrequencyList(getLines(loader, stemCacheFile));
+					}
+					cache.warm(warmUpForms, stemmer);
+				} catch (IOException e) {
+					// e.g. no hot set written yet
+					log.warn("Unable to warm Latin stem cache from " + stemCacheFile + ": " + e.getMessage());
+				} catch (RuntimeException e) {
+					log.error("Unable to warm Latin stem cache from " + stemCacheFile, e);
+				}
+			}
+		};
+		warmer.setDaemon(true);
+		warmer.start();
 	}
 	
 	@Override
 	public TokenStream create(TokenStream input) {
-		return new LatinStemFilter(input);
+		return new LatinStemFilter(input, stemmer, dedupStems, payloads, lengthGuard);
+	}
+	
+	/**
+	 * write the hot set of the stem cache to the <code>hotSetFile</code>, does nothing if no file is configured.
+	 * @throws IOException
+	 */
+	public void writeHotSet() throws IOException {
+		LatinStemCache cache = stemmer.getStemCache();
+		if (hotSet != null && cache != null) {
+			cache.writeHotSet(hotSet);
+		}
+	}
+	
+	/**
+	 * @return
+	 * 	bound for the token length, with the number of long tokens seen by the filters of this factory
+	 */
+	public LatinTokenLengthGuard getTokenLengthGuard() {
+		return lengthGuard;
+	}
+	
+	/**
+	 * @return
+	 * 	stemmer shared by all filters of this factory, with the configured rules and the managed 'que' exceptions
+	 * 	and stem overrides
+	 */
+	public LatinStemmer getStemmer() {
+		return stemmer;
+	}
+	
+	/**
+	 * @return
+	 * 	hit counters of the suffix rules, null unless <code>profileRules</code> or <code>reorderRulesAfter</code> is set
+	 */
+	public LatinStemRuleProfile getRuleProfile() {
+		return stemmer.getRuleProfile();
 	}
 }
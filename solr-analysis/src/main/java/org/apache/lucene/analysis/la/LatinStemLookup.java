@@ -0,0 +1,416 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+
+/**
+ * {@link Lookup} suggesting Latin word forms by the prefix of their stem, e.g. "amic" suggests "amicorum" and "amicitia",
+ * ranked by the frequency of the lemma (all forms of a stem) and then by the frequency of the form.<br/>
+ * The input values (e.g. stored titles) are tokenized with an analyzer (the chain without <code>LatinStemFilterFactory</code>),
+ * every token is stemmed with {@link LatinStemmer} and added under its noun and its verb stem. The inputs are read
+ * in batches, which are analyzed in parallel, and compiled into one {@link FST} mapping
+ * <code>stem SEPARATOR form</code> to its cost, so a lookup walks the prefix and collects the top N paths below it.
+ * @author Markus Klose
+ */
+public class LatinStemLookup extends Lookup {
+
+	/** separates stem and form in the FST keys */
+	private static final byte SEPARATOR = 0x1f;
+
+	/** number of inputs analyzed by one task */
+	private static final int BATCH_SIZE = 1000;
+
+	/** bits of the weight holding the lemma and the form frequency */
+	private static final int LEMMA_BITS = 20;
+	private static final int FORM_BITS = 11;
+	
+	/** cost (FST output) of a form is MAX_WEIGHT minus its weight, so the top N are the cheapest paths */
+	private static final long MAX_WEIGHT = Integer.MAX_VALUE;
+
+	private static final Comparator<Long> COST_ORDER = new Comparator<Long>() {
+		@Override
+		public int compare(Long cost1, Long cost2) {
+			return cost1.compareTo(cost2);
+		}
+	};
+
+	private static final Comparator<Util.Result<Long>> RESULT_ORDER = new Comparator<Util.Result<Long>>() {
+		@Override
+		public int compare(Util.Result<Long> result1, Util.Result<Long> result2) {
+			return result1.output.compareTo(result2.output);
+		}
+	};
+
+	/** analyzer producing the tokens to stem */
+	private final Analyzer analyzer;
+
+	/** number of analysis threads */
+	private final int threads;
+
+	/** stemmer shared by all analysis threads */
+	private final LatinStemmer stemmer;
+
+	/** compiled lookup, null before build or load */
+	private volatile FST<Long> fst;
+	private volatile long count;
+
+	/**
+	 * default constructor.
+	 * @param analyzer
+	 * 	analyzer producing the tokens to stem
+	 * @param stemmer
+	 * 	stemmer to use
+	 * @param threads
+	 * 	number of analysis threads while building
+	 */
+	public LatinStemLookup(Analyzer analyzer, LatinStemmer stemmer, int threads) {
+		this.analyzer = analyzer;
+		this.stemmer = stemmer;
+		this.threads = Math.max(1, threads);
+	}
+
+	@Override
+	public void build(InputIterator iterator) throws IOException {
+		if (iterator.hasPayloads()) {
+			throw new IllegalArgumentException("this suggester doesn't support payloads");
+		}
+		if (iterator.hasContexts()) {
+			throw new IllegalArgumentException("this suggester doesn't support contexts");
+		}
+
+		// stem -> form -> frequency
+		Map<String, Map<String, Long>> stems = new HashMap<String, Map<String, Long>>();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Map<String, Map<String, Long>>>> running = new ArrayList<Future<Map<String, Map<String, Long>>>>();
+			List<String> batch = new ArrayList<String>(BATCH_SIZE);
+			List<Long> weights = new ArrayList<Long>(BATCH_SIZE);
+			BytesRef input;
+			while ((input = iterator.next()) != null) {
+				batch.add(input.utf8ToString());
+				weights.add(Math.max(1, iterator.weight()));
+				if (batch.size() == BATCH_SIZE) {
+					running.add(executor.submit(new AnalyzeTask(batch, weights)));
+					batch = new ArrayList<String>(BATCH_SIZE);
+					weights = new ArrayList<Long>(BATCH_SIZE);
+					// bound the inputs held in memory
+					if (running.size() >= threads * 2) {
+						merge(stems, running.remove(0));
+					}
+				}
+			}
+			if (!batch.isEmpty()) {
+				running.add(executor.submit(new AnalyzeTask(batch, weights)));
+			}
+			for (Future<Map<String, Map<String, Long>>> task : running) {
+				merge(stems, task);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		compile(stems);
+	}
+
+	/**
+	 * merge the result of an analysis task.
+	 * @param stems
+	 * 	stem -> form -> frequency
+	 * @param task
+	 * 	analysis task
+	 */
+	private static void merge(Map<String, Map<String, Long>> stems, Future<Map<String, Map<String, Long>>> task) throws IOException {
+		Map<String, Map<String, Long>> batchStems;
+		try {
+			batchStems = task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while building", e);
+		} catch (ExecutionException e) {
+			throw new IOException("unable to analyze input", e.getCause());
+		}
+		for (Map.Entry<String, Map<String, Long>> stem : batchStems.entrySet()) {
+			Map<String, Long> forms = stems.get(stem.getKey());
+			if (forms == null) {
+				stems.put(stem.getKey(), stem.getValue());
+			} else {
+				for (Map.Entry<String, Long> form : stem.getValue().entrySet()) {
+					add(forms, form.getKey(), form.getValue());
+				}
+			}
+		}
+	}
+
+	private static void add(Map<String, Long> forms, String form, long frequency) {
+		Long previous = forms.get(form);
+		forms.put(form, previous == null ? frequency : previous + frequency);
+	}
+
+	/**
+	 * analyzes a batch of inputs.
+	 */
+	private final class AnalyzeTask implements Callable<Map<String, Map<String, Long>>> {
+		private final List<String> inputs;
+		private final List<Long> weights;
+
+		AnalyzeTask(List<String> inputs, List<Long> weights) {
+			this.inputs = inputs;
+			this.weights = weights;
+		}
+
+		@Override
+		public Map<String, Map<String, Long>> call() throws IOException {
+			Map<String, Map<String, Long>> stems = new HashMap<String, Map<String, Long>>();
+			for (int i = 0; i < inputs.size(); i++) {
+				TokenStream stream = analyzer.tokenStream("", inputs.get(i));
+				CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+				KeywordAttribute keywordAtt = stream.addAttribute(KeywordAttribute.class);
+				try {
+					stream.reset();
+					while (stream.incrementToken()) {
+						String form = termAtt.toString().toLowerCase(Locale.ROOT);
+						if (keywordAtt.isKeyword()) {
+							addForm(stems, form, form, weights.get(i));
+							continue;
+						}
+						char[] buffer = form.toCharArray();
+						LatinStemFilter.replaceVJ(buffer, buffer.length);
+						String[] formStems = stemmer.stem(buffer, buffer.length);
+						addForm(stems, formStems[LatinStemmer.NOUN], form, weights.get(i));
+						if (!formStems[LatinStemmer.VERB].equals(formStems[LatinStemmer.NOUN])) {
+							addForm(stems, formStems[LatinStemmer.VERB], form, weights.get(i));
+						}
+					}
+					stream.end();
+				} finally {
+					stream.close();
+				}
+			}
+			return stems;
+		}
+
+		private void addForm(Map<String, Map<String, Long>> stems, String stem, String form, long frequency) {
+			if (stem.length() == 0) {
+				return;
+			}
+			Map<String, Long> forms = stems.get(stem);
+			if (forms == null) {
+				forms = new HashMap<String, Long>();
+				stems.put(stem, forms);
+			}
+			add(forms, form, frequency);
+		}
+	}
+
+	/**
+	 * compile the FST.
+	 * @param stems
+	 * 	stem -> form -> frequency
+	 */
+	private void compile(Map<String, Map<String, Long>> stems) throws IOException {
+		// keys in byte order, with their weights
+		List<BytesRef> keys = new ArrayList<BytesRef>();
+		final Map<BytesRef, Long> weights = new HashMap<BytesRef, Long>();
+		for (Map.Entry<String, Map<String, Long>> stem : stems.entrySet()) {
+			long lemmaFrequency = 0;
+			for (Long frequency : stem.getValue().values()) {
+				lemmaFrequency += frequency;
+			}
+			for (Map.Entry<String, Long> form : stem.getValue().entrySet()) {
+				BytesRef key = key(stem.getKey(), form.getKey());
+				keys.add(key);
+				weights.put(key, weight(lemmaFrequency, form.getValue()));
+			}
+		}
+		BytesRef[] sorted = keys.toArray(new BytesRef[keys.size()]);
+		Arrays.sort(sorted);
+
+		PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+		Builder<Long> builder = new Builder<Long>(FST.INPUT_TYPE.BYTE1, outputs);
+		IntsRefBuilder scratchInts = new IntsRefBuilder();
+		for (BytesRef key : sorted) {
+			builder.add(Util.toIntsRef(key, scratchInts), MAX_WEIGHT - weights.get(key));
+		}
+		this.fst = builder.finish();
+		this.count = sorted.length;
+	}
+
+	/** stem SEPARATOR form as UTF-8 */
+	private static BytesRef key(String stem, String form) {
+		BytesRefBuilder key = new BytesRefBuilder();
+		key.copyChars(stem);
+		key.append(SEPARATOR);
+		BytesRef formBytes = new BytesRef(form);
+		key.append(formBytes.bytes, formBytes.offset, formBytes.length);
+		return key.get();
+	}
+
+	/** 
+	 * lemma frequency first (saturated to 20 bits), then the frequency of the form (saturated to 11 bits). 
+	 * The weight fits into 31 bits, so the costs of the FST stay small vLongs.
+	 */
+	static long weight(long lemmaFrequency, long formFrequency) {
+		return (Math.min(lemmaFrequency, (1L << LEMMA_BITS) - 1) << FORM_BITS) | Math.min(formFrequency, (1L << FORM_BITS) - 1);
+	}
+
+	@Override
+	public List<LookupResult> lookup(CharSequence key, Set<BytesRef> contexts, boolean onlyMorePopular, int num) {
+		if (contexts != null) {
+			throw new IllegalArgumentException("this suggester doesn't support contexts");
+		}
+		FST<Long> fst = this.fst;
+		if (fst == null || num <= 0) {
+			return Collections.emptyList();
+		}
+
+		// the typed prefix, and the stem if a complete form was typed
+		char[] prefix = key.toString().toLowerCase(Locale.ROOT).toCharArray();
+		LatinStemFilter.replaceVJ(prefix, prefix.length);
+		String typed = new String(prefix);
+		String stem = stemmer.stem(prefix, prefix.length)[LatinStemmer.NOUN];
+
+		Set<String> forms = new LinkedHashSet<String>();
+		List<LookupResult> results = new ArrayList<LookupResult>(num);
+		try {
+			List<Util.Result<Long>> completions = new ArrayList<Util.Result<Long>>();
+			collect(fst, typed, num, completions);
+			if (stem.length() > 0 && !stem.equals(typed)) {
+				collect(fst, stem, num, completions);
+			}
+			// merge the completions of both prefixes by cost
+			Collections.sort(completions, RESULT_ORDER);
+			
+			BytesRefBuilder suffix = new BytesRefBuilder();
+			for (Util.Result<Long> completion : completions) {
+				// remaining bytes of the key: rest of the stem, SEPARATOR, form
+				BytesRef suffixBytes = Util.toBytesRef(completion.input, suffix);
+				int separator = 0;
+				while (suffixBytes.bytes[suffixBytes.offset + separator] != SEPARATOR) {
+					separator++;
+				}
+				String form = new BytesRef(suffixBytes.bytes, suffixBytes.offset + separator + 1, suffixBytes.length - separator - 1).utf8ToString();
+				if (forms.add(form)) {
+					long weight = MAX_WEIGHT - completion.output;
+					results.add(new LookupResult(form, weight >>> FORM_BITS));
+					if (results.size() == num) {
+						break;
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return results;
+	}
+
+	/**
+	 * collect the top completions below a prefix.
+	 * @param fst
+	 * 	compiled lookup
+	 * @param prefix
+	 * 	prefix of the stem
+	 * @param num
+	 * 	number of completions
+	 * @param completions
+	 * 	list to add the completions to
+	 */
+	private static void collect(FST<Long> fst, String prefix, int num, List<Util.Result<Long>> completions) throws IOException {
+		BytesRef prefixBytes = new BytesRef(prefix);
+		FST.Arc<Long> arc = fst.getFirstArc(new FST.Arc<Long>());
+		FST.BytesReader reader = fst.getBytesReader();
+		Long prefixOutput = fst.outputs.getNoOutput();
+		for (int i = 0; i < prefixBytes.length; i++) {
+			if (fst.findTargetArc(prefixBytes.bytes[prefixBytes.offset + i] & 0xff, arc, arc, reader) == null) {
+				return;
+			}
+			prefixOutput = fst.outputs.add(prefixOutput, arc.output);
+		}
+		// forms are listed under their noun and verb stem, so collect some more for deduplication
+		for (Util.Result<Long> completion : Util.shortestPaths(fst, arc, prefixOutput, COST_ORDER, num * 2, true)) {
+			completions.add(completion);
+		}
+	}
+
+	@Override
+	public boolean store(DataOutput output) throws IOException {
+		FST<Long> fst = this.fst;
+		if (fst == null) {
+			return false;
+		}
+		output.writeVLong(count);
+		fst.save(output);
+		return true;
+	}
+
+	@Override
+	public boolean load(DataInput input) throws IOException {
+		count = input.readVLong();
+		fst = new FST<Long>(input, PositiveIntOutputs.getSingleton());
+		return true;
+	}
+
+	@Override
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public long ramBytesUsed() {
+		FST<Long> fst = this.fst;
+		return fst == null ? 0 : fst.ramBytesUsed();
+	}
+
+	@Override
+	public Collection<Accountable> getChildResources() {
+		return Collections.emptyList();
+	}
+}
@@ -0,0 +1,104 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.spelling.suggest.LookupFactory;
+
+/**
+ * Factory for {@link LatinStemLookup}.
+ * <pre class="prettyprint" >
+ * &lt;searchComponent name="suggest" class="solr.SuggestComponent"&gt;
+ *   &lt;lst name="suggester"&gt;
+ *     &lt;str name="name"&gt;latinTitles&lt;/str&gt;
+ *     &lt;str name="lookupImpl"&gt;org.apache.lucene.analysis.la.LatinStemLookupFactory&lt;/str&gt;
+ *     &lt;str name="dictionaryImpl"&gt;DocumentDictionaryFactory&lt;/str&gt;
+ *     &lt;str name="field"&gt;title&lt;/str&gt;
+ *     &lt;str name="suggestAnalyzerFieldType"&gt;text_la_tokens&lt;/str&gt;
+ *     &lt;str name="stemFieldType"&gt;text_la&lt;/str&gt;
+ *     &lt;int name="buildThreads"&gt;4&lt;/int&gt;
+ *   &lt;/lst&gt;
+ * &lt;/searchComponent&gt;</pre>
+ * <code>suggestAnalyzerFieldType</code> names the field type whose index analyzer produces the tokens to stem
+ * (the chain without <code>LatinStemFilterFactory</code>), <code>buildThreads</code> defaults to the number of processors.
+ * The stemmer is the one of the {@link LatinStemFilterFactory} in the field type <code>stemFieldType</code> (rules file, 
+ * managed 'que' exceptions and stem overrides), the built-in rules are used if no <code>stemFieldType</code> is configured.
+ */
+public class LatinStemLookupFactory extends LookupFactory {
+
+	/** parameter names */
+	public static final String QUERY_ANALYZER = "suggestAnalyzerFieldType";
+	public static final String BUILD_THREADS = "buildThreads";
+	public static final String STEM_FIELD_TYPE = "stemFieldType";
+
+	/** file name of the stored lookup */
+	private static final String FILENAME = "latinstem.bin";
+
+	@Override
+	public Lookup create(@SuppressWarnings("rawtypes") NamedList params, SolrCore core) {
+		Object fieldTypeName = params.get(QUERY_ANALYZER);
+		if (fieldTypeName == null) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "'" + QUERY_ANALYZER + "' must be configured");
+		}
+		FieldType fieldType = core.getLatestSchema().getFieldTypeByName(fieldTypeName.toString());
+		if (fieldType == null) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "Unknown fieldType '" + fieldTypeName + "'");
+		}
+		Object stemFieldType = params.get(STEM_FIELD_TYPE);
+		LatinStemmer stemmer = stemFieldType != null ? getStemmer(core, stemFieldType.toString()) : new LatinStemmer();
+		Object threads = params.get(BUILD_THREADS);
+		return new LatinStemLookup(fieldType.getIndexAnalyzer(), stemmer,
+				threads != null ? Integer.parseInt(threads.toString()) : Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * find the stemmer of a field type.
+	 * @param core
+	 * 	the core
+	 * @param stemFieldType
+	 * 	name of the field type
+	 * @return
+	 * 	stemmer of the {@link LatinStemFilterFactory} in the index analyzer of the field type
+	 */
+	private static LatinStemmer getStemmer(SolrCore core, String stemFieldType) {
+		FieldType fieldType = core.getLatestSchema().getFieldTypeByName(stemFieldType);
+		Analyzer analyzer = fieldType != null ? fieldType.getIndexAnalyzer() : null;
+		if (analyzer instanceof TokenizerChain) {
+			for (TokenFilterFactory filterFactory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+				if (filterFactory instanceof LatinStemFilterFactory) {
+					return ((LatinStemFilterFactory) filterFactory).getStemmer();
+				}
+			}
+		}
+		throw new SolrException(ErrorCode.SERVER_ERROR, "Field type '" + stemFieldType + "' (" + STEM_FIELD_TYPE
+				+ ") does not exist or has no LatinStemFilterFactory");
+	}
+
+	@Override
+	public String storeFileName() {
+		return FILENAME;
+	}
+}
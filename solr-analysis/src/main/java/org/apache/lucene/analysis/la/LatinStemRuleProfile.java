@@ -0,0 +1,185 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hit counters of the suffix rules applied by a {@link LatinStemmer} (see {@link LatinStemmer#setRuleProfile(LatinStemRuleProfile)}).<br/>
+ * Every noun and verb stemming counts the rule applied, or a miss if no rule matches. Stems served by the
+ * {@link LatinStemCache} are not counted. With a warm-up window the stemmer replaces its rules once by
+ * {@link LatinStemRules#reorder(LatinStemRuleProfile)} after that number of stemmings, later stemmings are not counted.<br/>
+ * The counters are striped by thread, so concurrent stemmings don't contend for the same cache lines.
+ * @author Markus Klose
+ */
+public final class LatinStemRuleProfile {
+
+	/** rules counted */
+	private final LatinStemRules rules;
+
+	/** number of counter stripes, a power of two */
+	private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+	/** per stripe: hits per rule id, followed by the noun and the verb misses, padded to separate cache lines */
+	private final AtomicLongArray hits;
+
+	/** counters per stripe, including the padding */
+	private final int stride;
+
+	/** stemmings before the rules are reordered, 0 to never reorder */
+	private final long warmUp;
+
+	/** number of stemmings of the warm-up window */
+	private final AtomicLong warmUpCount = new AtomicLong();
+
+	/** true when the warm-up window has ended */
+	private volatile boolean reordered;
+
+	/**
+	 * default constructor.
+	 * @param rules
+	 * 	rules to count
+	 * @param warmUp
+	 * 	number of stemmings before the rules are reordered by frequency, 0 to only count
+	 */
+	public LatinStemRuleProfile(LatinStemRules rules, long warmUp) {
+		this.rules = rules;
+		// at least 8 longs (a cache line) of padding between the stripes
+		this.stride = (rules.size() + 2 + 15) & ~7;
+		this.hits = new AtomicLongArray(STRIPES * stride);
+		this.warmUp = warmUp;
+	}
+
+	/**
+	 * count a stemming.
+	 * @param type
+	 * 	{@link LatinStemRules#NOUN} or {@link LatinStemRules#VERB}
+	 * @param ruleId
+	 * 	rule applied, -1 if no rule matched
+	 * @return
+	 * 	true exactly once, when the warm-up window ends
+	 */
+	boolean record(String type, int ruleId) {
+		if (reordered) {
+			return false;
+		}
+		int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+		hits.incrementAndGet(stripe * stride + (ruleId != -1 ? ruleId : missId(type)));
+		if (warmUp > 0 && warmUpCount.incrementAndGet() == warmUp) {
+			reordered = true;
+			return true;
+		}
+		return false;
+	}
+
+	/** counter of the misses of a type */
+	private int missId(String type) {
+		return rules.size() + (LatinStemRules.NOUN.equals(type) ? 0 : 1);
+	}
+
+	/** sum of a counter over all stripes */
+	private long sum(int id) {
+		long sum = 0;
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			sum += hits.get(stripe * stride + id);
+		}
+		return sum;
+	}
+
+	/**
+	 * @param ruleId
+	 * 	id of a rule
+	 * @return
+	 * 	number of times the rule was applied
+	 */
+	public long getHits(int ruleId) {
+		return sum(ruleId);
+	}
+
+	/**
+	 * @param type
+	 * 	{@link LatinStemRules#NOUN} or {@link LatinStemRules#VERB}
+	 * @return
+	 * 	number of tokens no rule of the type matched
+	 */
+	public long getMisses(String type) {
+		return sum(missId(type));
+	}
+
+	/**
+	 * @return
+	 * 	number of stemmings counted
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (int id = 0; id < rules.size() + 2; id++) {
+			total += sum(id);
+		}
+		return total;
+	}
+
+	/**
+	 * @return
+	 * 	true if the warm-up window has ended and the stemmer uses reordered rules
+	 */
+	public boolean isReordered() {
+		return reordered;
+	}
+
+	/**
+	 * @return
+	 * 	the rules counted
+	 */
+	public LatinStemRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return
+	 * 	rules (see {@link LatinStemRules.Rule#toString()}) with at least one hit mapped to their hits, most frequent first
+	 */
+	public Map<String, Long> getRuleHits() {
+		List<Integer> ids = new ArrayList<Integer>();
+		final long[] snapshot = new long[rules.size()];
+		for (int id = 0; id < rules.size(); id++) {
+			snapshot[id] = sum(id);
+			if (snapshot[id] > 0) {
+				ids.add(id);
+			}
+		}
+		Collections.sort(ids, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer id1, Integer id2) {
+				int cmp = Long.compare(snapshot[id2], snapshot[id1]);
+				return cmp != 0 ? cmp : id1.compareTo(id2);
+			}
+		});
+		Map<String, Long> ruleHits = new LinkedHashMap<String, Long>();
+		for (int id : ids) {
+			ruleHits.put(rules.getRule(id).toString(), snapshot[id]);
+		}
+		return ruleHits;
+	}
+}
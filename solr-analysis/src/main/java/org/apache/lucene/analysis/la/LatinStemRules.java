@@ -0,0 +1,483 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiled suffix rules of the {@link LatinStemmer}.<br/>
+ * Each line of a rules file contains <code>&lt;noun|verb&gt; &lt;suffix&gt; &lt;minLength&gt; [&lt;replacement&gt;]</code>,
+ * lines starting with '#' are comments. The first rule (in file order) whose suffix matches and whose
+ * minLength is reached by the token length is applied. The rules are compiled into one reversed suffix trie per 
+ * word type, so matching costs at most one step per character of the longest suffix, independent of the number of rules.
+ * Matching stops as soon as no longer suffix can belong to a rule of higher priority than the one found.
+ * @author Markus Klose
+ */
+public final class LatinStemRules {
+	
+	/** name of the built-in rules file (classpath resource next to this class) */
+	public static final String DEFAULT_RULES = "latin-stem-rules.txt";
+	
+	/** name of the built-in rules file of the {@link LatinLightStemFilter} */
+	public static final String LIGHT_RULES = "latin-light-stem-rules.txt";
+	
+	/** word types */
+	public static final String NOUN = "noun";
+	public static final String VERB = "verb";
+	
+	/** all rules in file order, the index is the priority */
+	private final Rule[] rules;
+	
+	/** reversed suffix tries */
+	private final Node nounTrie;
+	private final Node verbTrie;
+	
+	/**
+	 * single rule.
+	 */
+	public static final class Rule {
+		final String type;
+		final char[] suffix;
+		final int minLength;
+		final char[] replacement;
+		/** true if the suffix is replaced with itself (stopper), the token is kept unchanged */
+		final boolean keep;
+		
+		Rule(String type, String suffix, int minLength, String replacement) {
+			this.type = type;
+			this.suffix = suffix.toCharArray();
+			this.minLength = minLength;
+			this.replacement = replacement.toCharArray();
+			this.keep = suffix.equals(replacement);
+		}
+		
+		@Override
+		public String toString() {
+			return type + " " + new String(suffix) + " " + minLength + (replacement.length == 0 ? "" : " " + new String(replacement));
+		}
+	}
+	
+	/**
+	 * node of a reversed suffix trie.
+	 */
+	private static final class Node {
+		/** labels of the children, sorted or in frequency order */
+		final char[] labels;
+		final Node[] children;
+		/** true if the labels are in frequency order and searched linearly */
+		final boolean byFrequency;
+		/** rules with the suffix ending at this node (ascending priority) */
+		final int[] ruleIds;
+		/** lowest rule id below this node, Integer.MAX_VALUE for a leaf */
+		final int minChildRuleId;
+		
+		Node(char[] labels, Node[] children, boolean byFrequency, int[] ruleIds) {
+			this.labels = labels;
+			this.children = children;
+			this.byFrequency = byFrequency;
+			this.ruleIds = ruleIds;
+			int min = Integer.MAX_VALUE;
+			for (Node child : children) {
+				min = Math.min(min, child.minRuleId());
+			}
+			this.minChildRuleId = min;
+		}
+		
+		/** lowest rule id at or below this node */
+		int minRuleId() {
+			return ruleIds.length > 0 ? Math.min(ruleIds[0], minChildRuleId) : minChildRuleId;
+		}
+		
+		Node child(char label) {
+			if (byFrequency) {
+				for (int i = 0; i < labels.length; i++) {
+					if (labels[i] == label) {
+						return children[i];
+					}
+				}
+				return null;
+			}
+			int pos = Arrays.binarySearch(labels, label);
+			return pos < 0 ? null : children[pos];
+		}
+	}
+	
+	/**
+	 * mutable node, only used while compiling.
+	 */
+	private static final class BuildNode {
+		final TreeMap<Character, BuildNode> children = new TreeMap<Character, BuildNode>();
+		final List<Integer> ruleIds = new ArrayList<Integer>();
+		
+		Node compile() {
+			char[] labels = new char[children.size()];
+			Node[] compiled = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, BuildNode> child : children.entrySet()) {
+				labels[i] = child.getKey();
+				compiled[i++] = child.getValue().compile();
+			}
+			int[] ids = new int[ruleIds.size()];
+			for (int j = 0; j < ids.length; j++) {
+				ids[j] = ruleIds.get(j);
+			}
+			return new Node(labels, compiled, false, ids);
+		}
+	}
+	
+	/**
+	 * rules with compiled tries.
+	 * @param rules
+	 * 	rules in file order
+	 * @param nounTrie
+	 * 	reversed suffix trie of the noun rules
+	 * @param verbTrie
+	 * 	reversed suffix trie of the verb rules
+	 */
+	private LatinStemRules(Rule[] rules, Node nounTrie, Node verbTrie) {
+		this.rules = rules;
+		this.nounTrie = nounTrie;
+		this.verbTrie = verbTrie;
+	}
+	
+	/**
+	 * compile the rules.
+	 * @param rules
+	 * 	rules in file order
+	 */
+	private LatinStemRules(List<Rule> rules) {
+		this.rules = rules.toArray(new Rule[rules.size()]);
+		BuildNode noun = new BuildNode();
+		BuildNode verb = new BuildNode();
+		for (int id = 0; id < this.rules.length; id++) {
+			Rule rule = this.rules[id];
+			BuildNode node = NOUN.equals(rule.type) ? noun : verb;
+			for (int i = rule.suffix.length - 1; i >= 0; i--) {
+				BuildNode child = node.children.get(rule.suffix[i]);
+				if (child == null) {
+					child = new BuildNode();
+					node.children.put(rule.suffix[i], child);
+				}
+				node = child;
+			}
+			node.ruleIds.add(id);
+		}
+		this.nounTrie = noun.compile();
+		this.verbTrie = verb.compile();
+	}
+	
+	/**
+	 * parse and compile rules.
+	 * @param lines
+	 * 	lines of a rules file
+	 * @return
+	 * 	compiled rules
+	 * @throws IllegalArgumentException
+	 * 	if a line is not a valid rule
+	 */
+	public static LatinStemRules parse(List<String> lines) {
+		List<Rule> rules = new ArrayList<Rule>();
+		int lineNumber = 0;
+		for (String line : lines) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			String[] parts = line.split("\\s+");
+			if (parts.length < 3 || parts.length > 4) {
+				throw new IllegalArgumentException("invalid stem rule in line " + lineNumber + ": '" + line + "'");
+			}
+			if (!NOUN.equals(parts[0]) && !VERB.equals(parts[0])) {
+				throw new IllegalArgumentException("unknown word type '" + parts[0] + "' in line " + lineNumber + ", expected '" + NOUN + "' or '" + VERB + "'");
+			}
+			int minLength;
+			try {
+				minLength = Integer.parseInt(parts[2]);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid minLength '" + parts[2] + "' in line " + lineNumber);
+			}
+			String replacement = parts.length == 4 ? parts[3] : "";
+			if (!isLowerCaseWord(parts[1]) || !isLowerCaseWord(replacement) || minLength < 0) {
+				throw new IllegalArgumentException("invalid stem rule in line " + lineNumber + ": '" + line + "'");
+			}
+			rules.add(new Rule(parts[0], parts[1], minLength, replacement));
+		}
+		return new LatinStemRules(rules);
+	}
+	
+	/**
+	 * @return
+	 * 	the built-in rules
+	 */
+	public static LatinStemRules getDefault() {
+		return DefaultRulesHolder.DEFAULT;
+	}
+	
+	/** lazy loading of the built-in rules */
+	private static final class DefaultRulesHolder {
+		static final LatinStemRules DEFAULT;
+		static {
+			try {
+				DEFAULT = parse(readLines(LatinStemRules.class.getResourceAsStream(DEFAULT_RULES)));
+			} catch (IOException e) {
+				throw new RuntimeException("unable to load " + DEFAULT_RULES, e);
+			}
+		}
+	}
+	
+	/**
+	 * @return
+	 * 	the built-in rules of the {@link LatinLightStemFilter}
+	 */
+	public static LatinStemRules getLight() {
+		return LightRulesHolder.LIGHT;
+	}
+	
+	/** lazy loading of the built-in light rules */
+	private static final class LightRulesHolder {
+		static final LatinStemRules LIGHT;
+		static {
+			try {
+				LIGHT = parse(readLines(LatinStemRules.class.getResourceAsStream(LIGHT_RULES)));
+			} catch (IOException e) {
+				throw new RuntimeException("unable to load " + LIGHT_RULES, e);
+			}
+		}
+	}
+	
+	/**
+	 * read all lines of an UTF-8 stream.
+	 * @param stream
+	 * 	stream to read, will be closed
+	 * @return
+	 * 	all lines
+	 * @throws IOException
+	 */
+	static List<String> readLines(InputStream stream) throws IOException {
+		if (stream == null) {
+			throw new IOException("resource not found");
+		}
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+	
+	/**
+	 * find the rule to apply.
+	 * @param type
+	 * 	{@link #NOUN} or {@link #VERB}
+	 * @param termBuffer
+	 * 	term buffer containing token
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	id of the first matching rule, -1 if no rule matches
+	 */
+	public int match(String type, char[] termBuffer, int termLength) {
+		Node node = NOUN.equals(type) ? nounTrie : verbTrie;
+		int best = -1;
+		for (int i = termLength - 1; i >= 0; i--) {
+			node = node.child(Character.toLowerCase(termBuffer[i]));
+			if (node == null) {
+				break;
+			}
+			for (int id : node.ruleIds) {
+				if (termLength >= rules[id].minLength) {
+					if (best == -1 || id < best) {
+						best = id;
+					}
+					break;
+				}
+			}
+			if (best != -1 && best < node.minChildRuleId) {
+				// longer suffixes only belong to rules of lower priority
+				break;
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * reorder the children of the trie nodes by the rule hits of a profile, the most frequent first.<br/>
+	 * The children of a node have different labels, so their order never changes the rule matched; 
+	 * it only changes the comparisons needed to find the child of the next character 
+	 * (a linear scan in frequency order instead of a binary search).
+	 * @param profile
+	 * 	hits of these rules
+	 * @return
+	 * 	rules matching the same rule ids as these rules
+	 */
+	public LatinStemRules reorder(LatinStemRuleProfile profile) {
+		if (profile.getRules() != this) {
+			throw new IllegalArgumentException("profile of other rules");
+		}
+		long[] hits = new long[rules.length];
+		for (int id = 0; id < hits.length; id++) {
+			hits[id] = profile.getHits(id);
+		}
+		return new LatinStemRules(rules, reorder(nounTrie, hits), reorder(verbTrie, hits));
+	}
+	
+	/** copy of a node with the children reordered by their hits */
+	private static Node reorder(Node node, long[] hits) {
+		final long[] childHits = new long[node.children.length];
+		Integer[] order = new Integer[node.children.length];
+		for (int i = 0; i < order.length; i++) {
+			childHits[i] = hits(node.children[i], hits);
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Long.compare(childHits[i2], childHits[i1]);
+			}
+		});
+		char[] labels = new char[order.length];
+		Node[] children = new Node[order.length];
+		for (int i = 0; i < order.length; i++) {
+			labels[i] = node.labels[order[i]];
+			children[i] = reorder(node.children[order[i]], hits);
+		}
+		return new Node(labels, children, true, node.ruleIds);
+	}
+	
+	/** hits of all rules at or below a node */
+	private static long hits(Node node, long[] hits) {
+		long sum = 0;
+		for (int id : node.ruleIds) {
+			sum += hits[id];
+		}
+		for (Node child : node.children) {
+			sum += hits(child, hits);
+		}
+		return sum;
+	}
+	
+	/**
+	 * apply a rule.
+	 * @param ruleId
+	 * 	id returned by {@link #match(String, char[], int)}
+	 * @param termBuffer
+	 * 	term buffer containing token
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	stemmed token (the unchanged token for a stopper rule, keeping its case)
+	 */
+	public String apply(int ruleId, char[] termBuffer, int termLength) {
+		if (ruleId == -1 || rules[ruleId].keep) {
+			return String.valueOf(termBuffer, 0, termLength);
+		}
+		Rule rule = rules[ruleId];
+		int stemLength = termLength - rule.suffix.length;
+		char[] stem = new char[stemLength + rule.replacement.length];
+		System.arraycopy(termBuffer, 0, stem, 0, stemLength);
+		System.arraycopy(rule.replacement, 0, stem, stemLength, rule.replacement.length);
+		return new String(stem);
+	}
+	
+	/**
+	 * @param ruleId
+	 * 	id returned by {@link #match(String, char[], int)}
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	length of the stem the rule produces
+	 */
+	public int stemLength(int ruleId, int termLength) {
+		if (ruleId == -1) {
+			return termLength;
+		}
+		Rule rule = rules[ruleId];
+		return termLength - rule.suffix.length + rule.replacement.length;
+	}
+	
+	/**
+	 * apply a rule in place, without creating a string.
+	 * @param ruleId
+	 * 	id returned by {@link #match(String, char[], int)}
+	 * @param termBuffer
+	 * 	term buffer containing token, at least {@link #stemLength(int, int)} long
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	length of the stem in the term buffer
+	 */
+	public int applyInPlace(int ruleId, char[] termBuffer, int termLength) {
+		if (ruleId == -1 || rules[ruleId].keep) {
+			return termLength;
+		}
+		Rule rule = rules[ruleId];
+		int stemLength = termLength - rule.suffix.length;
+		System.arraycopy(rule.replacement, 0, termBuffer, stemLength, rule.replacement.length);
+		return stemLength + rule.replacement.length;
+	}
+	
+	/**
+	 * @return
+	 * 	number of rules
+	 */
+	public int size() {
+		return rules.length;
+	}
+	
+	/**
+	 * @param ruleId
+	 * 	id of a rule
+	 * @return
+	 * 	the rule
+	 */
+	public Rule getRule(int ruleId) {
+		return rules[ruleId];
+	}
+	
+	/**
+	 * check the characters of suffixes and replacements.
+	 * @param word
+	 * 	word to check
+	 * @return
+	 * 	true if the word only contains lower case letters
+	 */
+	private static boolean isLowerCaseWord(String word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (!Character.isLowerCase(word.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
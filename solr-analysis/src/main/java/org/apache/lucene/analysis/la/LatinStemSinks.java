@@ -0,0 +1,144 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.sinks.TeeSinkTokenFilter;
+import org.apache.lucene.analysis.sinks.TeeSinkTokenFilter.SinkFilter;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * Sink-style variant of {@link LatinStemFilter}: a single analysis pass sends the noun stems and the verb stems
+ * to two separate sinks (built on {@link TeeSinkTokenFilter}), e.g. to index them into two fields.<br/>
+ * Both sinks contain one token per input token with the original position increment; tokens marked as keyword
+ * are sent to both sinks. Usage:
+ * <pre class="prettyprint" >
+ * LatinStemSinks sinks = new LatinStemSinks(analyzer.tokenStream(field, text), stemmer);
+ * sinks.consumeAllTokens();
+ * TokenStream nouns = sinks.getNounSink();
+ * TokenStream verbs = sinks.getVerbSink();</pre>
+ * @author Markus Klose
+ */
+public final class LatinStemSinks {
+	
+	/** tee over the stemmed tokens */
+	private final TeeSinkTokenFilter tee;
+	
+	/** sinks */
+	private final TokenStream nounSink;
+	private final TokenStream verbSink;
+	
+	/**
+	 * default constructor.
+	 * @param input
+	 * 	input token stream (not stemmed yet)
+	 * @param stemmer
+	 * 	the stemmer to use
+	 */
+	public LatinStemSinks(TokenStream input, LatinStemmer stemmer) {
+		this.tee = new TeeSinkTokenFilter(new UnstackFilter(new LatinStemFilter(input, stemmer)));
+		this.nounSink = tee.newSinkTokenStream(new ExcludeTypeSinkFilter(LatinStemFilter.TYPE_VERB));
+		this.verbSink = tee.newSinkTokenStream(new ExcludeTypeSinkFilter(LatinStemFilter.TYPE_NOUN));
+	}
+	
+	/**
+	 * run the analysis and fill the sinks. The input stream is closed afterwards.
+	 * @throws IOException
+	 */
+	public void consumeAllTokens() throws IOException {
+		try {
+			tee.reset();
+			tee.consumeAllTokens();
+			tee.end();
+		} finally {
+			tee.close();
+		}
+	}
+	
+	/**
+	 * @return
+	 * 	sink containing the noun stems (and keywords), available after {@link #consumeAllTokens()}
+	 */
+	public TokenStream getNounSink() {
+		return nounSink;
+	}
+	
+	/**
+	 * @return
+	 * 	sink containing the verb stems (and keywords), available after {@link #consumeAllTokens()}
+	 */
+	public TokenStream getVerbSink() {
+		return verbSink;
+	}
+	
+	/**
+	 * accepts all tokens except the given type.
+	 */
+	private static final class ExcludeTypeSinkFilter extends SinkFilter {
+		private final String excludedType;
+		
+		ExcludeTypeSinkFilter(String excludedType) {
+			this.excludedType = excludedType;
+		}
+		
+		@Override
+		public boolean accept(AttributeSource source) {
+			return !excludedType.equals(source.getAttribute(TypeAttribute.class).type());
+		}
+	}
+	
+	/**
+	 * gives the verb stem the position increment of the noun stem, so the verb stems are not stacked
+	 * on a missing token when they are separated from the noun stems.
+	 */
+	private static final class UnstackFilter extends TokenFilter {
+		private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+		private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+		
+		/** position increment of the last noun stem */
+		private int nounPosition = 1;
+		
+		UnstackFilter(TokenStream input) {
+			super(input);
+		}
+		
+		@Override
+		public boolean incrementToken() throws IOException {
+			if (!input.incrementToken()) {
+				return false;
+			}
+			if (LatinStemFilter.TYPE_NOUN.equals(typeAtt.type())) {
+				nounPosition = posIncAtt.getPositionIncrement();
+			} else if (LatinStemFilter.TYPE_VERB.equals(typeAtt.type())) {
+				posIncAtt.setPositionIncrement(nounPosition);
+			}
+			return true;
+		}
+		
+		@Override
+		public void reset() throws IOException {
+			super.reset();
+			nounPosition = 1;
+		}
+	}
+}
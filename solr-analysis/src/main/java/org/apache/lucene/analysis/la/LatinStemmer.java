@@ -18,8 +18,9 @@ package org.apache.lucene.analysis.la;
  */
 
 import java.util.Arrays;
-import java.util.List;
-import java.util.Locale;
+
+import org.apache.lucene.analysis.util.CharArrayMap;
+import org.apache.lucene.analysis.util.CharArraySet;
 
 /**
  * Latin Stemmer.
@@ -27,13 +28,44 @@ import java.util.Locale;
  * @author Markus Klose
  */
 public class LatinStemmer {
-	//TODO queList as txt file an property in schema.xml ???
 	
-	/** latin locale - no country specified */
-	private static Locale locale = new Locale("la");
+	/** index of the noun and verb stem in the result of {@link #stem(char[], int)} */
+	public static final int NOUN = 0;
+	public static final int VERB = 1;
+	
+	/** compiled suffix rules, replaced once by the reordered rules if the profile has a warm-up window */
+	private volatile LatinStemRules rules;
+	
+	/** default list of words ending with 'que' that should not be stemmed */
+	private static final CharArraySet DEFAULT_QUE_EXCEPTIONS = CharArraySet.unmodifiableSet(new CharArraySet(Arrays.asList(
+			"atque", "quoque", "neque", "itaque", "absque", "apsque", "abusque", "adaeque", "adusque", "denique",
+			"deque", "susque", "oblique", "peraeque", "plenisque", "quandoque", "quisque", "quaeque",
+			"cuiusque", "cuique", "quemque", "quamque", "quaque", "quique", "quorumque", "quarumque",
+			"quibusque", "quosque", "quasque", "quotusquisque", "quousque", "ubique", "undique", "usque",
+			"uterque", "utique", "utroque", "utribique", "torque", "coque", "concoque", "contorque",
+			"detorque", "decoque", "excoque", "extorque", "obtorque", "optorque", "retorque", "recoque",
+			"attorque", "incoque", "intorque", "praetorque"), true));
+	
+	/** empty stem override map */
+	private static final CharArrayMap<String> NO_STEM_OVERRIDES = CharArrayMap.emptyMap();
+	
+	/** 
+	 * set contains words ending with 'que' that should not be stemmed.<br/>
+	 * the set is never modified, updates replace the whole set. 
+	 */
+	private volatile CharArraySet queExceptions;
+	
+	/** 
+	 * map of surface forms to stems that bypass the stemming rules.<br/>
+	 * the map is never modified, updates replace the whole map. 
+	 */
+	private volatile CharArrayMap<String> stemOverrides;
+	
+	/** optional cache of stems, shared by all filters using this stemmer */
+	private volatile LatinStemCache stemCache;
 	
-	/** list contains words ending with 'que' that should not be stemmed */
-	private List<String> queList;
+	/** optional hit counters of the suffix rules */
+	private volatile LatinStemRuleProfile ruleProfile;
 	
 	/**
 	 *	default constructor.
@@ -41,14 +73,222 @@ public class LatinStemmer {
 	 *	@author mk 
 	 */
 	public LatinStemmer() {
-		// initialize the queList
-		queList = Arrays.asList("atque", "quoque", "neque", "itaque", "absque", "apsque", "abusque", "adaeque", "adusque", "denique",
-				"deque", "susque", "oblique", "peraeque", "plenisque", "quandoque", "quisque", "quaeque",
-				"cuiusque", "cuique", "quemque", "quamque", "quaque", "quique", "quorumque", "quarumque",
-				"quibusque", "quosque", "quasque", "quotusquisque", "quousque", "ubique", "undique", "usque",
-				"uterque", "utique", "utroque", "utribique", "torque", "coque", "concoque", "contorque",
-				"detorque", "decoque", "excoque", "extorque", "obtorque", "optorque", "retorque", "recoque",
-				"attorque", "incoque", "intorque", "praetorque");
+		this(LatinStemRules.getDefault(), DEFAULT_QUE_EXCEPTIONS, NO_STEM_OVERRIDES);
+	}
+	
+	/**
+	 * constructor with custom suffix rules.
+	 * 
+	 * @param rules
+	 * 	compiled suffix rules
+	 */
+	public LatinStemmer(LatinStemRules rules) {
+		this(rules, DEFAULT_QUE_EXCEPTIONS, NO_STEM_OVERRIDES);
+	}
+	
+	/**
+	 * constructor with custom 'que' exceptions and stem overrides.
+	 * 
+	 * @param queExceptions
+	 * 	words ending with 'que' that should not be stemmed
+	 * @param stemOverrides
+	 * 	surface forms (lower case, 'v'/'j' replaced) mapped to their stem
+	 */
+	public LatinStemmer(CharArraySet queExceptions, CharArrayMap<String> stemOverrides) {
+		this(LatinStemRules.getDefault(), queExceptions, stemOverrides);
+	}
+	
+	/**
+	 * constructor with custom suffix rules, 'que' exceptions and stem overrides.
+	 * 
+	 * @param rules
+	 * 	compiled suffix rules
+	 * @param queExceptions
+	 * 	words ending with 'que' that should not be stemmed
+	 * @param stemOverrides
+	 * 	surface forms (lower case, 'v'/'j' replaced) mapped to their stem
+	 */
+	public LatinStemmer(LatinStemRules rules, CharArraySet queExceptions, CharArrayMap<String> stemOverrides) {
+		this.rules = rules;
+		this.queExceptions = queExceptions;
+		this.stemOverrides = stemOverrides;
+	}
+	
+	/**
+	 * @return
+	 * 	the built-in list of words ending with 'que' that should not be stemmed
+	 */
+	public static CharArraySet getDefaultQueExceptions() {
+		return DEFAULT_QUE_EXCEPTIONS;
+	}
+	
+	/**
+	 * replaces the 'que' exceptions. The given set must not be modified afterwards.
+	 * 
+	 * @param queExceptions
+	 * 	case insensitive set of words ending with 'que' that should not be stemmed
+	 */
+	public void setQueExceptions(CharArraySet queExceptions) {
+		this.queExceptions = CharArraySet.unmodifiableSet(queExceptions);
+		clearStemCache();
+	}
+	
+	/**
+	 * replaces the stem overrides. The given map must not be modified afterwards.
+	 * 
+	 * @param stemOverrides
+	 * 	case insensitive map of surface forms ('v'/'j' replaced) to stems
+	 */
+	public void setStemOverrides(CharArrayMap<String> stemOverrides) {
+		this.stemOverrides = CharArrayMap.unmodifiableMap(stemOverrides);
+		clearStemCache();
+	}
+	
+	/**
+	 * sets the cache used by {@link #stem(char[], int)}.
+	 * 
+	 * @param stemCache
+	 * 	the cache, null to disable caching
+	 */
+	public void setStemCache(LatinStemCache stemCache) {
+		this.stemCache = stemCache;
+	}
+	
+	/**
+	 * @return
+	 * 	the cache used by {@link #stem(char[], int)}, null if caching is disabled
+	 */
+	public LatinStemCache getStemCache() {
+		return stemCache;
+	}
+	
+	/**
+	 * sets the hit counters of the suffix rules. With a warm-up window, the rules are reordered 
+	 * by {@link LatinStemRules#reorder(LatinStemRuleProfile)} when the window ends; the stems do not change.
+	 * 
+	 * @param ruleProfile
+	 * 	hit counters for the rules of this stemmer, null to disable counting
+	 */
+	public void setRuleProfile(LatinStemRuleProfile ruleProfile) {
+		if (ruleProfile != null && ruleProfile.getRules() != rules) {
+			throw new IllegalArgumentException("profile of other rules");
+		}
+		this.ruleProfile = ruleProfile;
+	}
+	
+	/**
+	 * @return
+	 * 	the hit counters of the suffix rules, null if counting is disabled
+	 */
+	public LatinStemRuleProfile getRuleProfile() {
+		return ruleProfile;
+	}
+	
+	/**
+	 * @return
+	 * 	the suffix rules
+	 */
+	public LatinStemRules getRules() {
+		LatinStemRuleProfile profile = ruleProfile;
+		// the profile refers to the rules before a reordering
+		return profile != null ? profile.getRules() : rules;
+	}
+	
+	/** cached stems are stale after changing the stemmer */
+	private void clearStemCache() {
+		LatinStemCache cache = stemCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+	
+	/**
+	 * stem a token as noun and as verb, using the stem cache if available.<br/>
+	 * step 1 - check for a fixed stem (stem override)<br/>
+	 * step 2 - check for tokens ending with 'que'<br/>
+	 * step 3 - stem as noun and as verb
+	 * 
+	 * @param termBuffer
+	 * 	term buffer containing token ('v'/'j' already replaced)
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	noun stem (index {@link #NOUN}) and verb stem (index {@link #VERB}), must not be modified
+	 */
+	public String[] stem(char[] termBuffer, int termLength) {
+		LatinStemCache cache = stemCache;
+		if (cache == null) {
+			return stemUncached(termBuffer, termLength);
+		}
+		String[] stems = cache.get(termBuffer, termLength);
+		if (stems == null) {
+			stems = stemUncached(termBuffer, termLength);
+			cache.miss(termBuffer, termLength);
+		}
+		return stems;
+	}
+	
+	/**
+	 * stem a token as noun and as verb without using the cache.
+	 * 
+	 * @param termBuffer
+	 * 	term buffer containing token ('v'/'j' already replaced)
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	noun stem (index {@link #NOUN}) and verb stem (index {@link #VERB})
+	 */
+	String[] stemUncached(char[] termBuffer, int termLength) {
+		return stemUncached(termBuffer, termLength, true);
+	}
+	
+	/**
+	 * stem a token as noun and as verb without using the cache and without counting the rules in the
+	 * rule profile, for words that are no tokens of the analyzed text (e.g. generated by {@link LatinParadigms}).
+	 * 
+	 * @param termBuffer
+	 * 	term buffer containing token ('v'/'j' already replaced)
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	noun stem (index {@link #NOUN}) and verb stem (index {@link #VERB})
+	 */
+	String[] stemUnrecorded(char[] termBuffer, int termLength) {
+		return stemUncached(termBuffer, termLength, false);
+	}
+	
+	private String[] stemUncached(char[] termBuffer, int termLength, boolean record) {
+		String stemOverride = stemOverride(termBuffer, termLength);
+		if (stemOverride != null) {
+			// fixed stem as noun and verb
+			return new String[] {stemOverride, stemOverride};
+		}
+		int stemLength = stemQUE(termBuffer, termLength);
+		if (stemLength == -1) {
+			// original token as noun and verb
+			String token = String.valueOf(termBuffer, 0, termLength);
+			return new String[] {token, token};
+		}
+		return new String[] {applyRules(LatinStemRules.NOUN, termBuffer, stemLength, record), 
+				applyRules(LatinStemRules.VERB, termBuffer, stemLength, record)};
+	}
+	
+	/**
+	 * check if there is a fixed stem for the token.
+	 * 
+	 * @param termBuffer
+	 * 	term buffer containing token
+	 * @param termLength
+	 * 	length of the token
+	 * @return
+	 * 	the overriding stem or null if the token should be stemmed by the rules
+	 */
+	public String stemOverride(char[] termBuffer, int termLength) {
+		CharArrayMap<String> overrides = stemOverrides;
+		if (overrides.isEmpty()) {
+			return null;
+		}
+		return overrides.get(termBuffer, 0, termLength);
 	}
 	
 	/**
@@ -63,17 +303,17 @@ public class LatinStemmer {
 	 * 	current termLength  (termLength - 3' if token ends with 'que'),<br/> if token should not be stemmed return -1
 	 */
 	public int stemQUE(char[] termBuffer, int termLength) {
-		// buffer to token
-		String currentToken = String.valueOf(termBuffer, 0, termLength).toLowerCase(locale);
-
 		// check if token should be stemmed
-		if (queList.contains(currentToken)) {
+		if (queExceptions.contains(termBuffer, 0, termLength)) {
 			// dont stem the token
 			return -1;
 		}
 		
 		// chekc if token ends with 'que'
-		if (currentToken.endsWith("que")) {
+		if (termLength >= 3 
+				&& Character.toLowerCase(termBuffer[termLength - 3]) == 'q'
+				&& Character.toLowerCase(termBuffer[termLength - 2]) == 'u'
+				&& Character.toLowerCase(termBuffer[termLength - 1]) == 'e') {
 			// cut of 'que'
 			return termLength - 3;
 		}
@@ -82,7 +322,7 @@ public class LatinStemmer {
 
 
 	/**
-	 * removing known noun suffixe.<br/>
+	 * removing known noun suffixe (see {@link LatinStemRules}).<br/>
 	 * changes to the snowball - additional suffixe: arum, erum, orum, ebus, uum, ium, ei, ui, im
 	 * @author mk
 	 * 
@@ -91,32 +331,14 @@ public class LatinStemmer {
 	 * @param termLength
 	 * 	length of the token
 	 * @return
-	 * 	termLength after stemming
+	 * 	stemmed noun
 	 */
 	public String stemAsNoun(char termBuffer[], int termLength) {
-		// buffer to string
-		String noun = String.valueOf(termBuffer, 0, termLength).toLowerCase(locale);
-
-		// check longest suffix
-        if ((noun.endsWith("ibus") || noun.endsWith("arum") || noun.endsWith("erum") || noun.endsWith("orum") || noun.endsWith("ebus")) && noun.length() >= 6) {
-        	return String.valueOf(termBuffer, 0, termLength - 4);
-        } else  if ((noun.endsWith("ius") || noun.endsWith("uum") || noun.endsWith("ium")) && noun.length() >= 5) {
-        	return String.valueOf(termBuffer, 0, termLength - 3);
-        } else  if ((noun.endsWith("ae") || noun.endsWith("am") || noun.endsWith("as") || noun.endsWith("em") || noun.endsWith("es")
-        		|| noun.endsWith("ia") || noun.endsWith("is") || noun.endsWith("nt") || noun.endsWith("os") || noun.endsWith("ud")
-        		|| noun.endsWith("um") || noun.endsWith("us") || noun.endsWith("ei") || noun.endsWith("ui") || noun.endsWith("im")) 
-        		&& noun.length() >= 4) {
-        	return String.valueOf(termBuffer, 0, termLength - 2);
-        } else  if ((noun.endsWith("a") || noun.endsWith("e") || noun.endsWith("i") || noun.endsWith("o") || noun.endsWith("u")) && noun.length() >= 3) {
-        	return String.valueOf(termBuffer, 0, termLength - 1);
-        }
-
-		// stem nothing
-		return  String.valueOf(termBuffer, 0, termLength);
+		return applyRules(LatinStemRules.NOUN, termBuffer, termLength, true);
 	}
 
 	/**
-	 * removing / changing known verb suffixe.<br/>
+	 * removing / changing known verb suffixe (see {@link LatinStemRules}).<br/>
 	 * @author mk
 	 * 
 	 * @param termBuffer
@@ -124,39 +346,22 @@ public class LatinStemmer {
 	 * @param termLength
 	 * 	length of the token
 	 * @return
-	 * 	termLength after stemming
+	 * 	stemmed verb
 	 */
 	public String stemAsVerb(char termBuffer[], int termLength) {
-		// buffer to string
-		String verb = String.valueOf(termBuffer, 0, termLength).toLowerCase(locale);
-		
-		// check suffixe
-		if (verb.endsWith("iuntur") || verb.endsWith("erunt") || verb.endsWith("untur") || verb.endsWith("iunt") || verb.endsWith("unt")) {
-			// 'iuntur' 'erunt' 'untur' 'iunt' 'unt' -> 'i'
-			return this.verbSuffixToI(termBuffer, termLength);
-	    } else  if (verb.endsWith("beris") || verb.endsWith("bor") || verb.endsWith("bo")) {
-	    	// 'beris' 'bor' 'bo' -> 'bi'
-	    	return this.verbSuffixToBI(termBuffer, termLength);
-	    } else  if (verb.endsWith("ero") && termLength >= 5) {
-	    	// 'ero' -> 'eri'
-	    	termBuffer[termLength -1] = 'i';
-	    	return String.valueOf(termBuffer, 0, termLength);
-	    } else  if ((verb.endsWith("mini") || verb.endsWith("ntur") || verb.endsWith("stis")) && termLength >= 6) {
-	    	// 'mini' 'ntur' 'stis' -> delete
-	    	return String.valueOf(termBuffer, 0, termLength  - 4);
-	    } else  if ((verb.endsWith("mus") || verb.endsWith("mur") || verb.endsWith("ris") || verb.endsWith("sti") || verb.endsWith("tis") || verb.endsWith("tur")) && termLength >= 5) {
-	    	// 'mus' 'ris' 'sti' 'tis' 'tur' -> delete
-	    	return String.valueOf(termBuffer, 0, termLength  - 3);
-	    } else  if ((verb.endsWith("ns") || verb.endsWith("nt") || verb.endsWith("ri")) && termLength >= 4) {
-	    	// 'ns' 'nt' 'ri' -> delete
-	    	return String.valueOf(termBuffer, 0, termLength  - 2);
-	    } else  if ((verb.endsWith("m") || verb.endsWith("r") || verb.endsWith("s") || verb.endsWith("t")) && termLength >= 3) {
-	    	// 'm' 'r' 's' 't' -> delete
-	    	return String.valueOf(termBuffer, 0, termLength  - 1);
-	    }
-		
-		// stem nothing
-		return String.valueOf(termBuffer, 0, termLength);
+		return applyRules(LatinStemRules.VERB, termBuffer, termLength, true);
+	}
+	
+	/** match and apply the first rule of the type, counting the hit if profiling and record is set */
+	private String applyRules(String type, char termBuffer[], int termLength, boolean record) {
+		LatinStemRules current = rules;
+		int ruleId = current.match(type, termBuffer, termLength);
+		LatinStemRuleProfile profile = record ? ruleProfile : null;
+		if (profile != null && profile.record(type, ruleId)) {
+			// end of the warm-up window
+			rules = profile.getRules().reorder(profile);
+		}
+		return current.apply(ruleId, termBuffer, termLength);
 	}	
 	/**
 	 * general verb suffixe
@@ -175,56 +380,4 @@ public class LatinStemmer {
 	 * plusquamperfekt indikativ aktiv -> eram,eras,erat,eramus,eratis,erant
 	 * plusquamperfekt konjunktiv aktiv -> issem,isses,isset,issemus,issetis,issent
 	 */
-	
-	// helper methods
-	/**
-	 * replacing suffix with 'i'
-	 * @param termBuffer
-	 * 	term buffer containing token
-	 * @param termLength
-	 * 	length of the token
-	 * @return
-	 * 	stemmed verb
-	 */
-	private String verbSuffixToI(char termBuffer[], int termLength) {
-		String verb = String.valueOf(termBuffer, 0, termLength).toLowerCase(locale);
-		// 'iuntur' 'erunt' 'untur' 'iunt' 'unt' -> 'i'
-		if (verb.endsWith("iuntur") && termLength >= 8) {
-			return String.valueOf(termBuffer, 0, termLength - 5);
-		} else if ((verb.endsWith("erunt") || verb.endsWith("untur")) && termLength >= 7) {
-			termBuffer[termLength - 5] = 'i';
-			return String.valueOf(termBuffer, 0, termLength - 4);
-		} else if (verb.endsWith("iunt") && termLength >= 6) {;
-			return String.valueOf(termBuffer, 0, termLength - 3);
-		} else if (verb.endsWith("unt") && termLength >= 5) {
-			termBuffer[termLength - 3] = 'i';
-			return String.valueOf(termBuffer, 0, termLength - 2);
-		} 
-		return String.valueOf(termBuffer, 0, termLength);
-	}
-	
-	/**
-	 * replacing suffix with 'bi'
-	 * @param termBuffer
-	 * 	term buffer containing token
-	 * @param termLength
-	 * 	length of the token
-	 * @return
-	 * 	stemmed verb
-	 */
-	private String verbSuffixToBI(char termBuffer[], int termLength) {
-		String verb = String.valueOf(termBuffer, 0, termLength).toLowerCase(locale);
-		// 'beris' 'bor' 'bo' -> 'bi'
-		if (verb.endsWith("beris") && termLength >= 7) {
-			termBuffer[termLength - 4] = 'i';
-			return String.valueOf(termBuffer, 0, termLength - 3);
-		} else if (verb.endsWith("bor") && termLength >= 5) {
-			termBuffer[termLength - 2] = 'i';
-			return String.valueOf(termBuffer, 0, termLength - 1);
-		} else if (verb.endsWith("bo") && termLength >= 4) {;
-			termBuffer[termLength - 1] = 'i';
-			return String.valueOf(termBuffer, 0, termLength);
-		}
-		return String.valueOf(termBuffer, 0, termLength);
-	}
 }
@@ -0,0 +1,102 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Upper bound for the length of tokens processed by the Latin filters.<br/>
+ * Tokens longer than <code>maxTokenLength</code> (e.g. OCR garbage) either pass through untouched
+ * or are truncated to <code>maxTokenLength</code> before processing.
+ * The number of long tokens is counted, one guard is shared by all filters of a factory.
+ * <pre class="prettyprint" >
+ * &lt;filter class="solr.LatinStemFilterFactory" maxTokenLength="64" truncateLongTokens="false"/&gt;</pre>
+ * @author Markus Klose
+ */
+public final class LatinTokenLengthGuard {
+
+	/** factory arguments */
+	public static final String MAX_TOKEN_LENGTH = "maxTokenLength";
+	public static final String TRUNCATE_LONG_TOKENS = "truncateLongTokens";
+
+	/** default: no limit */
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private final int maxTokenLength;
+	private final boolean truncate;
+
+	/** number of tokens longer than maxTokenLength */
+	private final AtomicLong longTokens = new AtomicLong();
+
+	/**
+	 * default constructor.
+	 * @param maxTokenLength
+	 * 	maximum length of a token to process
+	 * @param truncate
+	 * 	truncate long tokens instead of passing them through untouched
+	 */
+	public LatinTokenLengthGuard(int maxTokenLength, boolean truncate) {
+		if (maxTokenLength < 1) {
+			throw new IllegalArgumentException(MAX_TOKEN_LENGTH + " must be greater than zero: " + maxTokenLength);
+		}
+		this.maxTokenLength = maxTokenLength;
+		this.truncate = truncate;
+	}
+
+	/**
+	 * check the length of the current token, truncating it if configured.
+	 * @param termAtt
+	 * 	term of the current token
+	 * @return
+	 * 	true if the token should be processed, false if it should pass through untouched
+	 */
+	public boolean accept(CharTermAttribute termAtt) {
+		if (termAtt.length() <= maxTokenLength) {
+			return true;
+		}
+		longTokens.incrementAndGet();
+		if (!truncate) {
+			return false;
+		}
+		// do not split a surrogate pair
+		int length = maxTokenLength;
+		if (Character.isHighSurrogate(termAtt.charAt(length - 1)) && length > 1) {
+			length--;
+		}
+		termAtt.setLength(length);
+		return true;
+	}
+
+	/**
+	 * @return
+	 * 	number of tokens longer than maxTokenLength seen so far
+	 */
+	public long getLongTokenCount() {
+		return longTokens.get();
+	}
+
+	public int getMaxTokenLength() {
+		return maxTokenLength;
+	}
+
+	public boolean isTruncate() {
+		return truncate;
+	}
+}
@@ -0,0 +1,231 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact character trigram model of Latin word forms.<br/>
+ * Each line of a model file contains <code>&lt;trigram&gt;&lt;TAB&gt;&lt;count&gt;</code>, '^' marks the start
+ * and '$' the end of a word, lines starting with '#' are comments. Characters are lower cased, 'v' and 'j' are
+ * read as 'u' and 'i'. A word is scored with the average log probability of its trigrams given the two preceding
+ * characters; the lower the score, the less the word looks like Latin.<br/>
+ * The probabilities are kept in two open addressing tables (trigram, two character context) keyed by the packed
+ * characters, so scoring costs one or two array probes per character and allocates nothing.
+ * @author Markus Klose
+ */
+public final class LatinTrigramModel {
+
+	/** name of the built-in model (classpath resource next to this class) */
+	public static final String DEFAULT_MODEL = "latin-trigrams.txt";
+
+	/** word boundaries */
+	static final char START = '^';
+	static final char END = '$';
+
+	/** additive smoothing: ALPHA for every one of ALPHABET_SIZE possible next characters */
+	private static final double ALPHA = 0.1;
+	private static final int ALPHABET_SIZE = 30;
+
+	/** log probability of a trigram with a context never seen */
+	private static final float UNSEEN_CONTEXT = (float) Math.log(1.0 / ALPHABET_SIZE);
+
+	/** log probabilities of the trigrams seen */
+	private final Table trigrams;
+
+	/** log probabilities of an unseen trigram, per context */
+	private final Table contexts;
+
+	/**
+	 * build the model.
+	 * @param counts
+	 * 	trigram counts
+	 */
+	private LatinTrigramModel(Map<String, Integer> counts) {
+		Map<Long, Integer> contextCounts = new HashMap<Long, Integer>();
+		for (Map.Entry<String, Integer> count : counts.entrySet()) {
+			String trigram = count.getKey();
+			Long context = pack(trigram.charAt(0), trigram.charAt(1), (char) 0);
+			Integer contextCount = contextCounts.get(context);
+			contextCounts.put(context, (contextCount == null ? 0 : contextCount) + count.getValue());
+		}
+
+		this.contexts = new Table(contextCounts.size());
+		for (Map.Entry<Long, Integer> contextCount : contextCounts.entrySet()) {
+			contexts.put(contextCount.getKey(), (float) Math.log(ALPHA / (contextCount.getValue() + ALPHA * ALPHABET_SIZE)));
+		}
+		this.trigrams = new Table(counts.size());
+		for (Map.Entry<String, Integer> count : counts.entrySet()) {
+			String trigram = count.getKey();
+			int contextCount = contextCounts.get(pack(trigram.charAt(0), trigram.charAt(1), (char) 0));
+			trigrams.put(pack(trigram.charAt(0), trigram.charAt(1), trigram.charAt(2)),
+					(float) Math.log((count.getValue() + ALPHA) / (contextCount + ALPHA * ALPHABET_SIZE)));
+		}
+	}
+
+	/**
+	 * parse a model file.
+	 * @param lines
+	 * 	lines of a model file
+	 * @return
+	 * 	the model
+	 * @throws IllegalArgumentException
+	 * 	if a line is not a valid trigram count
+	 */
+	public static LatinTrigramModel parse(List<String> lines) {
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		int lineNumber = 0;
+		for (String line : lines) {
+			lineNumber++;
+			if (line.trim().length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			int tab = line.indexOf('\t');
+			if (tab != 3) {
+				throw new IllegalArgumentException("invalid trigram in line " + lineNumber + ": '" + line + "'");
+			}
+			int count;
+			try {
+				count = Integer.parseInt(line.substring(tab + 1).trim());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid count in line " + lineNumber + ": '" + line + "'");
+			}
+			char[] trigram = line.substring(0, 3).toCharArray();
+			for (int i = 0; i < trigram.length; i++) {
+				trigram[i] = normalize(trigram[i]);
+			}
+			String key = new String(trigram);
+			Integer previous = counts.get(key);
+			counts.put(key, (previous == null ? 0 : previous) + count);
+		}
+		return new LatinTrigramModel(counts);
+	}
+
+	/**
+	 * @return
+	 * 	the built-in model, loaded once per JVM
+	 */
+	public static LatinTrigramModel getDefault() {
+		return DefaultModelHolder.DEFAULT;
+	}
+
+	/** lazy loading of the built-in model */
+	private static final class DefaultModelHolder {
+		static final LatinTrigramModel DEFAULT;
+		static {
+			try {
+				DEFAULT = parse(LatinStemRules.readLines(LatinTrigramModel.class.getResourceAsStream(DEFAULT_MODEL)));
+			} catch (IOException e) {
+				throw new RuntimeException("unable to load " + DEFAULT_MODEL, e);
+			}
+		}
+	}
+
+	/**
+	 * score a word.
+	 * @param termBuffer
+	 * 	term buffer containing the word
+	 * @param termLength
+	 * 	length of the word
+	 * @return
+	 * 	average log probability of the trigrams of the word (&lt;= 0)
+	 */
+	public float score(char[] termBuffer, int termLength) {
+		char c1 = START;
+		char c2 = termLength > 0 ? normalize(termBuffer[0]) : END;
+		float sum = 0;
+		for (int i = 1; i <= termLength; i++) {
+			char c3 = i < termLength ? normalize(termBuffer[i]) : END;
+			sum += logProbability(c1, c2, c3);
+			c1 = c2;
+			c2 = c3;
+		}
+		return sum / Math.max(termLength, 1);
+	}
+
+	/** log probability of c3 following c1 c2 */
+	private float logProbability(char c1, char c2, char c3) {
+		float logProbability = trigrams.get(pack(c1, c2, c3));
+		if (!Float.isNaN(logProbability)) {
+			return logProbability;
+		}
+		logProbability = contexts.get(pack(c1, c2, (char) 0));
+		return Float.isNaN(logProbability) ? UNSEEN_CONTEXT : logProbability;
+	}
+
+	/** lower case, 'v' -> 'u', 'j' -> 'i' */
+	static char normalize(char c) {
+		c = Character.toLowerCase(c);
+		if (c == 'v') {
+			return 'u';
+		}
+		if (c == 'j') {
+			return 'i';
+		}
+		return c;
+	}
+
+	/** three characters as key (never 0, as START and END are no null characters) */
+	private static long pack(char c1, char c2, char c3) {
+		return ((long) c1 << 32) | ((long) c2 << 16) | c3;
+	}
+
+	/**
+	 * open addressing hash table long -> float, NaN if absent.
+	 */
+	private static final class Table {
+		private final long[] keys;
+		private final float[] values;
+		private final int mask;
+
+		Table(int size) {
+			int capacity = Integer.highestOneBit(Math.max(size, 1) * 2) * 2;
+			this.keys = new long[capacity];
+			this.values = new float[capacity];
+			this.mask = capacity - 1;
+		}
+
+		void put(long key, float value) {
+			int slot = slot(key);
+			while (keys[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			values[slot] = value;
+		}
+
+		float get(long key) {
+			int slot = slot(key);
+			while (keys[slot] != 0) {
+				if (keys[slot] == key) {
+					return values[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			return Float.NaN;
+		}
+
+		private int slot(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash >>> 40) & mask;
+		}
+	}
+}
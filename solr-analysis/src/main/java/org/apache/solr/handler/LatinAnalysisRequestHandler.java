@@ -0,0 +1,235 @@
+package org.apache.solr.handler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ContentStream;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+
+/**
+ * Bulk analysis of Latin strings with the analyzer of a field type, e.g. for services that need the stems
+ * and converted numerals of many strings without indexing them.<br/>
+ * The strings are the values of the <code>text</code> parameter followed by the lines of the request body
+ * (content streams, one string per line). The response contains one list of tokens per string
+ * (<code>text</code>, <code>type</code>, <code>start</code>, <code>end</code>, <code>position</code>, 
+ * <code>flags</code> if set), in the order of the input. The strings are read and analyzed lazily while the response 
+ * is written, so memory use does not grow with the size of the batch. The analyzer of the field type reuses its
+ * token streams per thread.
+ * <pre class="prettyprint" >
+ * &lt;requestHandler name="/analysis/latin" class="org.apache.solr.handler.LatinAnalysisRequestHandler"&gt;
+ *   &lt;lst name="defaults"&gt;
+ *     &lt;str name="fieldType"&gt;text_la&lt;/str&gt;
+ *   &lt;/lst&gt;
+ * &lt;/requestHandler&gt;
+ *
+ * curl 'http://localhost:8983/solr/collection1/analysis/latin?wt=json' -H 'Content-Type: text/plain' --data-binary @words.txt</pre>
+ * Parameters: <code>fieldType</code> (required), <code>analyzer</code> (<code>index</code> or <code>query</code>, 
+ * default <code>index</code>), <code>text</code> (optional, multi-valued).
+ * @author Markus Klose
+ */
+public class LatinAnalysisRequestHandler extends RequestHandlerBase {
+
+	/** request parameters */
+	public static final String FIELD_TYPE = "fieldType";
+	public static final String ANALYZER = "analyzer";
+	public static final String TEXT = "text";
+
+	@Override
+	public void handleRequestBody(SolrQueryRequest req, SolrQueryResponse rsp) throws Exception {
+		SolrParams params = req.getParams();
+		String typeName = params.required().get(FIELD_TYPE);
+		FieldType type = req.getSchema().getFieldTypeByName(typeName);
+		if (type == null) {
+			throw new SolrException(ErrorCode.BAD_REQUEST, "Unknown fieldType '" + typeName + "'");
+		}
+		String analyzerName = params.get(ANALYZER, "index");
+		Analyzer analyzer;
+		if ("index".equals(analyzerName)) {
+			analyzer = type.getIndexAnalyzer();
+		} else if ("query".equals(analyzerName)) {
+			analyzer = type.getQueryAnalyzer();
+		} else {
+			throw new SolrException(ErrorCode.BAD_REQUEST, "Unknown analyzer '" + analyzerName + "', expected index or query");
+		}
+
+		String[] texts = params.getParams(TEXT);
+		Iterable<ContentStream> streams = req.getContentStreams();
+		rsp.add("analysis", new AnalysisIterator(analyzer, typeName,
+				texts == null ? Collections.<String>emptyList() : Arrays.asList(texts),
+				streams == null ? Collections.<ContentStream>emptyList() : streams));
+	}
+
+	/**
+	 * analyzes the strings one by one while the response writer iterates.
+	 */
+	private static final class AnalysisIterator implements Iterator<List<NamedList<Object>>>, Closeable {
+		private final Analyzer analyzer;
+		private final String fieldName;
+		private final Iterator<String> texts;
+		private final Iterator<ContentStream> streams;
+
+		/** lines of the current content stream, null if none is open */
+		private BufferedReader lines;
+
+		/** next string to analyze, null if not read yet */
+		private String next;
+
+		AnalysisIterator(Analyzer analyzer, String fieldName, List<String> texts, Iterable<ContentStream> streams) {
+			this.analyzer = analyzer;
+			this.fieldName = fieldName;
+			this.texts = texts.iterator();
+			this.streams = streams.iterator();
+			// close an unfinished stream with the request (e.g. the client went away)
+			SolrRequestInfo requestInfo = SolrRequestInfo.getRequestInfo();
+			if (requestInfo != null) {
+				requestInfo.addCloseHook(this);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next != null) {
+				return true;
+			}
+			try {
+				if (texts.hasNext()) {
+					next = texts.next();
+					return true;
+				}
+				while (true) {
+					if (lines == null) {
+						if (!streams.hasNext()) {
+							return false;
+						}
+						Reader reader = streams.next().getReader();
+						lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+					}
+					next = lines.readLine();
+					if (next != null) {
+						return true;
+					}
+					close();
+				}
+			} catch (IOException e) {
+				throw new SolrException(ErrorCode.BAD_REQUEST, "Unable to read the request body", e);
+			}
+		}
+
+		@Override
+		public List<NamedList<Object>> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String text = next;
+			next = null;
+			try {
+				return analyze(text);
+			} catch (IOException e) {
+				throw new SolrException(ErrorCode.SERVER_ERROR, "Unable to analyze '" + text + "'", e);
+			}
+		}
+
+		/**
+		 * @param text
+		 * 	string to analyze
+		 * @return
+		 * 	the tokens of the string
+		 */
+		private List<NamedList<Object>> analyze(String text) throws IOException {
+			List<NamedList<Object>> tokens = new ArrayList<NamedList<Object>>();
+			TokenStream tokenStream = analyzer.tokenStream(fieldName, text);
+			try {
+				CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
+				TypeAttribute typeAtt = tokenStream.addAttribute(TypeAttribute.class);
+				OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
+				PositionIncrementAttribute posIncAtt = tokenStream.addAttribute(PositionIncrementAttribute.class);
+				FlagsAttribute flagsAtt = tokenStream.hasAttribute(FlagsAttribute.class) ? tokenStream.getAttribute(FlagsAttribute.class) : null;
+				int position = 0;
+				tokenStream.reset();
+				while (tokenStream.incrementToken()) {
+					position += posIncAtt.getPositionIncrement();
+					NamedList<Object> token = new SimpleOrderedMap<Object>();
+					token.add("text", termAtt.toString());
+					token.add("type", typeAtt.type());
+					token.add("start", offsetAtt.startOffset());
+					token.add("end", offsetAtt.endOffset());
+					token.add("position", position);
+					if (flagsAtt != null && flagsAtt.getFlags() != 0) {
+						token.add("flags", flagsAtt.getFlags());
+					}
+					tokens.add(token);
+				}
+				tokenStream.end();
+			} finally {
+				tokenStream.close();
+			}
+			return tokens;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (lines != null) {
+				try {
+					lines.close();
+				} finally {
+					lines = null;
+				}
+			}
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "Bulk analysis of Latin strings with the analyzer of a field type";
+	}
+
+	@Override
+	public String getSource() {
+		return null;
+	}
+}
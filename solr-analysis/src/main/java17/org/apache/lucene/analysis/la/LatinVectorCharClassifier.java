@@ -0,0 +1,67 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of {@link LatinCharClassifier#classify(char[], int)}, loaded by
+ * {@link LatinCharClassifier} from <code>META-INF/versions/17</code> of the multi-release jar.<br/>
+ * The ASCII characters of a vector are classified by lane-wise compares of the lower cased characters
+ * (<code>c | 0x20</code>, exact for the letters compared); a vector with any other character falls back to
+ * the scalar classifier for the whole token, the characters behind the last full vector are classified scalar.
+ * @author Markus Klose
+ */
+final class LatinVectorCharClassifier implements LatinCharClassifier.Classifier {
+
+	private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+	/** characters above ASCII */
+	private static final short NON_ASCII = (short) 0xff80;
+
+	@Override
+	public int minLength() {
+		return SPECIES.length();
+	}
+
+	@Override
+	public int classify(char[] termBuffer, int termLength) {
+		VectorMask<Short> notRoman = SPECIES.maskAll(false);
+		VectorMask<Short> vj = SPECIES.maskAll(false);
+		int bound = SPECIES.loopBound(termLength);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			ShortVector chars = ShortVector.fromCharArray(SPECIES, termBuffer, i);
+			if (chars.and(NON_ASCII).compare(VectorOperators.NE, 0).anyTrue()) {
+				return LatinCharClassifier.classifyScalar(termBuffer, 0, termLength);
+			}
+			ShortVector lower = chars.or((short) 0x20);
+			VectorMask<Short> v = lower.eq((short) 'v');
+			vj = vj.or(v).or(lower.eq((short) 'j'));
+			VectorMask<Short> roman = v.or(lower.eq((short) 'i')).or(lower.eq((short) 'x')).or(lower.eq((short) 'l'))
+					.or(lower.eq((short) 'c')).or(lower.eq((short) 'd')).or(lower.eq((short) 'm'));
+			notRoman = notRoman.or(roman.not());
+		}
+		int classes = LatinCharClassifier.ASCII | (notRoman.anyTrue() ? 0 : LatinCharClassifier.ROMAN_NUMERAL)
+				| (vj.anyTrue() ? LatinCharClassifier.VJ : 0);
+		return i == termLength ? classes : LatinCharClassifier.combine(classes, LatinCharClassifier.classifyScalar(termBuffer, i, termLength));
+	}
+}
@@ -0,0 +1,158 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.util.CharArraySet;
+
+/**
+ * Tests for {@link LatinAnalysisListener}
+ */
+public class TestLatinAnalysisListener extends BaseTokenStreamTestCase {
+
+	/** records all events, every token is slow */
+	private static class RecordingListener extends LatinAnalysisListener {
+		final List<String> events = new ArrayList<String>();
+
+		@Override
+		public long getSlowTokenNanos() {
+			return 0;
+		}
+
+		@Override
+		public long getCacheStatisticsMillis() {
+			return 0;
+		}
+
+		@Override
+		public synchronized void fieldAnalyzed(String filter, int tokens, long nanos) {
+			events.add("field " + filter + " " + tokens);
+		}
+
+		@Override
+		public synchronized void slowToken(String filter, int tokenLength, String rule, long nanos) {
+			events.add("slow " + filter + " " + tokenLength + " " + rule);
+		}
+
+		@Override
+		public synchronized void cacheStatistics(LatinStemCache cache, int size, long hits, long misses) {
+			events.add("cache " + size + " " + hits + " " + misses);
+		}
+	}
+
+	private RecordingListener listener;
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		listener = new RecordingListener();
+		LatinAnalysisListener.install(listener);
+	}
+
+	@Override
+	public void tearDown() throws Exception {
+		LatinAnalysisListener.install(null);
+		super.tearDown();
+	}
+
+	public void testStemFilterEvents() throws IOException {
+		consume(new LatinStemFilter(tokenizer("rosarum filius")));
+		assertEquals(Arrays.asList(
+				"slow LatinStemFilter 7 noun arum 6, verb m 3",
+				"slow LatinStemFilter 6 noun ius 5, verb s 3",
+				"field LatinStemFilter 4"), listener.events);
+	}
+
+	/** keywords and tokens over the length guard are emitted unstemmed, but counted */
+	public void testStemFilterUnstemmedTokens() throws IOException {
+		CharArraySet keywords = new CharArraySet(Arrays.asList("rosarum"), false);
+		consume(new LatinStemFilter(new SetKeywordMarkerFilter(tokenizer("rosarum filius rosa"), keywords), new LatinStemmer(),
+				false, false, new LatinTokenLengthGuard(5, false)));
+		assertEquals(Arrays.asList(
+				"slow LatinStemFilter 4 noun a 3",
+				"field LatinStemFilter 4"), listener.events);
+	}
+
+	public void testNumberNormalizationFilterEvents() throws IOException {
+		consume(new LatinNumberNormalizationFilter(tokenizer("XIV rosa")));
+		assertEquals(Arrays.asList(
+				"slow LatinNumberNormalizationFilter 3 null",
+				"slow LatinNumberNormalizationFilter 4 null",
+				"field LatinNumberNormalizationFilter 2"), listener.events);
+	}
+
+	public void testCacheStatistics() throws IOException {
+		LatinStemmer stemmer = new LatinStemmer();
+		LatinStemCache cache = new LatinStemCache(10, 1);
+		stemmer.setStemCache(cache);
+		cache.warm(Arrays.asList("rosarum"), stemmer);
+		consume(new LatinStemFilter(tokenizer("rosarum rosarum filius"), stemmer));
+		listener.events.clear();
+		LatinAnalysisListener.reportCacheStatistics();
+		assertTrue(listener.events.toString(), listener.events.contains("cache 1 2 1"));
+	}
+
+	/** the statistics thread belongs to the installed listener */
+	public void testStatisticsReporter() {
+		assertFalse(LatinAnalysisListener.isReportingStatistics());
+		LatinAnalysisListener.install(new LatinAnalysisListener() {
+		});
+		assertTrue(LatinAnalysisListener.isReportingStatistics());
+		LatinAnalysisListener.install(listener);
+		assertFalse(LatinAnalysisListener.isReportingStatistics());
+		LatinAnalysisListener.install(new LatinAnalysisListener() {
+		});
+		LatinAnalysisListener.install(null);
+		assertFalse(LatinAnalysisListener.isReportingStatistics());
+	}
+
+	/** filters created without a listener are not monitored */
+	public void testDisabled() throws IOException {
+		LatinAnalysisListener.install(null);
+		assertNull(LatinAnalysisListener.get());
+		TokenStream stream = new LatinStemFilter(tokenizer("rosarum"));
+		LatinAnalysisListener.install(listener);
+		consume(stream);
+		assertTrue(listener.events.isEmpty());
+	}
+
+	private static Tokenizer tokenizer(String text) throws IOException {
+		Tokenizer tokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		tokenizer.setReader(new StringReader(text));
+		return tokenizer;
+	}
+
+	private static void consume(TokenStream stream) throws IOException {
+		stream.reset();
+		while (stream.incrementToken()) {
+			// only the events are checked
+		}
+		stream.end();
+		stream.close();
+	}
+}
@@ -0,0 +1,141 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link LatinCharClassifier}, against a per character reference.<br/>
+ * Built with Java 17 or later, the tests run with <code>--add-modules jdk.incubator.vector</code> and the
+ * Vector API classifier on the class path. The benchmark is disabled by default, run with:
+ * <pre>mvn test -Dtest=TestLatinCharClassifier -Dtests.latin.benchmark=true</pre>
+ */
+public class TestLatinCharClassifier extends LuceneTestCase {
+	private static final Logger log = LoggerFactory.getLogger(TestLatinCharClassifier.class);
+
+	/** characters of the random tokens: Latin, numerals, number forms, other scripts */
+	private static final String CHARS = "abcdeijlmnoqrsuvxyzIJVXLCDM\u0130\u00e6\u03b1\u2160\u2169\u2170\u2181\u2183\u2188\u2189";
+
+	public void testClasses() {
+		assertEquals(LatinCharClassifier.ROMAN_NUMERAL | LatinCharClassifier.ASCII | LatinCharClassifier.VJ, classify("XIV"));
+		assertEquals(LatinCharClassifier.ROMAN_NUMERAL | LatinCharClassifier.NUMBER_FORMS, classify("\u2169\u2160"));
+		assertEquals(LatinCharClassifier.ASCII, classify("rosa"));
+		assertEquals(LatinCharClassifier.ASCII | LatinCharClassifier.VJ, classify("iuventus"));
+		assertEquals(0, classify("\u03bb\u03cc\u03b3\u03bf\u03c2"));
+		assertEquals(LatinCharClassifier.ROMAN_NUMERAL | LatinCharClassifier.ASCII, classify(""));
+		// longer than a vector
+		assertEquals(LatinCharClassifier.ROMAN_NUMERAL | LatinCharClassifier.ASCII | LatinCharClassifier.VJ, classify("mmmdccclxxxviiimmmdccclxxxviiiMMMDCCCLXXXVIII"));
+		assertEquals(LatinCharClassifier.ROMAN_NUMERAL | LatinCharClassifier.ASCII, classify("MMMDCCCLXXXIIIMMMDCCCLXXXIIIMMMDCCCLXXXIII"));
+		assertEquals(LatinCharClassifier.ASCII | LatinCharClassifier.VJ, classify("honorificabilitudinitatibusque iuventus"));
+		assertEquals(LatinCharClassifier.ROMAN_NUMERAL | LatinCharClassifier.NUMBER_FORMS, classify("MMMDCCCLXXXIIIMMMDCCCLXXXIII\u2169"));
+	}
+
+	public void testRandomTokens() {
+		Random random = random();
+		for (int i = 0; i < 10000; i++) {
+			String token = randomToken(random, 12);
+			assertEquals(token, reference(token), classify(token));
+		}
+	}
+
+	/** long tokens, classified by the Vector API if available */
+	public void testRandomLongTokens() {
+		Random random = random();
+		for (int i = 0; i < 10000; i++) {
+			String token = randomToken(random, 100);
+			assertEquals(token, reference(token), classify(token));
+			char[] chars = token.toCharArray();
+			assertEquals(token, reference(token), LatinCharClassifier.classifyScalar(chars, 0, chars.length));
+			int split = random.nextInt(chars.length + 1);
+			assertEquals(token, reference(token), LatinCharClassifier.combine(LatinCharClassifier.classifyScalar(chars, 0, split),
+					LatinCharClassifier.classifyScalar(chars, split, chars.length)));
+		}
+	}
+
+	/** compares the classifier (vectorized if available) with the scalar classifier and the per character checks it replaced */
+	public void testBenchmark() {
+		assumeTrue("Latin benchmarks are disabled, enable with -Dtests.latin.benchmark=true", Boolean.getBoolean("tests.latin.benchmark"));
+		log.info("Vector API classifier: " + LatinCharClassifier.isVectorized());
+		Random random = new Random(random().nextLong());
+		for (int maxLength : new int[] {12, 100}) {
+			char[][] tokens = new char[100000][];
+			for (int i = 0; i < tokens.length; i++) {
+				tokens[i] = randomToken(random, maxLength).toCharArray();
+			}
+			long sink = 0;
+			for (int round = 0; round < 5; round++) {
+				long start = System.nanoTime();
+				for (char[] token : tokens) {
+					sink += LatinCharClassifier.classify(token, token.length);
+				}
+				long classifier = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (char[] token : tokens) {
+					sink += LatinCharClassifier.classifyScalar(token, 0, token.length);
+				}
+				long scalar = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (char[] token : tokens) {
+					sink += reference(new String(token));
+				}
+				long reference = System.nanoTime() - start;
+				log.info(String.format(Locale.ROOT, "tokens < %d chars, round %d: classifier %.1f ns/token, scalar %.1f ns/token, per character checks %.1f ns/token",
+						maxLength, round, (double) classifier / tokens.length, (double) scalar / tokens.length, (double) reference / tokens.length));
+			}
+			assertTrue(sink != 0);
+		}
+	}
+
+	private static int classify(String token) {
+		return LatinCharClassifier.classify(token.toCharArray(), token.length());
+	}
+
+	private static String randomToken(Random random, int maxLength) {
+		StringBuilder token = new StringBuilder();
+		int length = random.nextInt(maxLength);
+		// mostly one kind of characters, like real tokens
+		int range = random.nextBoolean() ? 10 : CHARS.length();
+		for (int i = 0; i < length; i++) {
+			token.append(CHARS.charAt(random.nextInt(range)));
+		}
+		return token.toString();
+	}
+
+	/** one check per class and character */
+	private static int reference(String token) {
+		boolean roman = true;
+		boolean numberForms = false;
+		boolean ascii = true;
+		boolean vj = false;
+		for (int i = 0; i < token.length(); i++) {
+			char c = token.charAt(i);
+			boolean numberForm = c >= '\u2160' && c <= '\u2188';
+			numberForms |= numberForm;
+			ascii &= c < 0x80;
+			vj |= c == 'v' || c == 'V' || c == 'j' || c == 'J';
+			roman &= numberForm || "ivxlcdm".indexOf(Character.toLowerCase(c)) >= 0;
+		}
+		return (roman ? LatinCharClassifier.ROMAN_NUMERAL : 0) | (numberForms ? LatinCharClassifier.NUMBER_FORMS : 0)
+				| (ascii ? LatinCharClassifier.ASCII : 0) | (vj ? LatinCharClassifier.VJ : 0);
+	}
+}
@@ -0,0 +1,88 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+/**
+ * Simple tests for {@link LatinCorpusAnalyzer}
+ */
+public class TestLatinCorpusAnalyzer extends LuceneTestCase {
+
+	/** Test the exact counts */
+	public void testReport() throws Exception {
+		LatinCorpusAnalyzer analyzer = new LatinCorpusAnalyzer(new LatinStemmer(), 2, LatinCorpusAnalyzer.DEFAULT_MAX_FORMS);
+		LatinCorpusAnalyzer.Report report = analyzer.analyze(new StringReader("Rosa rosam, atque rosa.\nrosas\n"));
+		assertEquals(2, report.getDocs());
+		assertEquals(5, report.getTokens());
+		// atque is a 'que' exception: noun = verb stem
+		assertEquals(1, report.getEqualTokens());
+		assertEquals(4, report.getDistinctForms());
+		assertFalse(report.isTruncated());
+	}
+
+	/** Test the stemmer of the options -rules and -queExceptions */
+	public void testCreateStemmer() throws Exception {
+		Path dir = createTempDir();
+		Path rules = Files.write(dir.resolve("rules.txt"), "# first declension only\nnoun a 3\n".getBytes(StandardCharsets.UTF_8));
+		Path queExceptions = Files.write(dir.resolve("que.txt"), "# no enclitic\nrosaque\n".getBytes(StandardCharsets.UTF_8));
+		
+		LatinStemmer stemmer = LatinCorpusAnalyzer.createStemmer(rules.toString(), queExceptions.toString());
+		assertEquals("ros", stem(stemmer, "rosa"));
+		assertEquals("rosis", stem(stemmer, "rosis"));
+		assertEquals("rosaque", stem(stemmer, "rosaque"));
+		// built-in exceptions are kept
+		assertEquals("atque", stem(stemmer, "atque"));
+		
+		LatinStemmer defaultStemmer = LatinCorpusAnalyzer.createStemmer(null, null);
+		assertEquals("ros", stem(defaultStemmer, "rosis"));
+		assertEquals("ros", stem(defaultStemmer, "rosaque"));
+		
+		try {
+			LatinCorpusAnalyzer.createStemmer(queExceptions.toString(), null);
+			fail("invalid rules file accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+	
+	private static String stem(LatinStemmer stemmer, String word) {
+		return stemmer.stem(word.toCharArray(), word.length())[LatinStemmer.NOUN];
+	}
+
+	/** Test the cardinality estimation beyond the bound */
+	public void testEstimation() throws Exception {
+		StringBuilder corpus = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			// distinct words without 'v' and 'j'
+			corpus.append("form");
+			for (int n = i; n > 0; n /= 20) {
+				corpus.append("abcdefghiklmnopqrstu".charAt(n % 20));
+			}
+			corpus.append('\n');
+		}
+		LatinCorpusAnalyzer analyzer = new LatinCorpusAnalyzer(new LatinStemmer(), 3, 1000);
+		LatinCorpusAnalyzer.Report report = analyzer.analyze(new StringReader(corpus.toString()));
+		assertTrue(report.isTruncated());
+		assertEquals(20000, report.getDistinctForms(), 20000 * 0.05);
+	}
+}
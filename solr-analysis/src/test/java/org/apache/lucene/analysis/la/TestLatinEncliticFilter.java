@@ -0,0 +1,75 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.Tokenizer;
+
+/**
+ * Simple tests for {@link LatinEncliticFilter}
+ */
+public class TestLatinEncliticFilter extends BaseTokenStreamTestCase {
+	
+	private Analyzer createAnalyzer(final int enclitics, final boolean emitEnclitic) {
+		return new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, 
+						new LatinEncliticFilter(source, LatinStemmer.getDefaultQueExceptions(), enclitics, emitEnclitic));
+			}
+		};
+	}
+	
+	/** Test dropping '-que' */
+	public void testDropQue() throws IOException {
+		assertAnalyzesTo(createAnalyzer(LatinEncliticFilter.QUE, false), "senatus populusque atque que estne", 
+				new String[]{"senatus", "populus", "atque", "que", "estne"},
+				new int[]{0, 8, 19, 25, 29},
+				new int[]{7, 18, 24, 28, 34},
+				new int[]{1, 1, 1, 1, 1});
+	}
+	
+	/** Test emitting all enclitics as own tokens */
+	public void testEmitEnclitics() throws IOException {
+		assertAnalyzesTo(createAnalyzer(LatinEncliticFilter.QUE | LatinEncliticFilter.NE | LatinEncliticFilter.VE, true), 
+				"Romaque estne bene plusve grave", 
+				new String[]{"Roma", "que", "est", "ne", "bene", "plus", "ve", "grave"},
+				new int[]{0, 4, 8, 11, 14, 19, 23, 26},
+				new int[]{4, 7, 11, 13, 18, 23, 25, 31},
+				new String[]{"word", LatinEncliticFilter.TYPE_ENCLITIC, "word", LatinEncliticFilter.TYPE_ENCLITIC, "word", "word", LatinEncliticFilter.TYPE_ENCLITIC, "word"},
+				new int[]{1, 1, 1, 1, 1, 1, 1, 1});
+	}
+	
+	/** Test that the enclitic is not stemmed, but the host is */
+	public void testBeforeStemFilter() throws IOException {
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinStemFilter(
+						new LatinEncliticFilter(source, LatinStemmer.getDefaultQueExceptions(), LatinEncliticFilter.QUE, true)));
+			}
+		};
+		assertAnalyzesTo(a, "senatusque senatus", new String[]{"senat", "senatu", "que", "senat", "senatu"});
+	}
+}
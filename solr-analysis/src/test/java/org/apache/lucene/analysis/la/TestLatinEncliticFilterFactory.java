@@ -0,0 +1,82 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+
+/**
+ * Simple tests to ensure the Latin enclitic factory is working.
+ */
+public class TestLatinEncliticFilterFactory extends BaseTokenStreamTestCase {
+ 
+	public void testLatinEncliticFilterFactory() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("senatusque atque estne"));
+		LatinEncliticFilterFactory factory = new LatinEncliticFilterFactory(new HashMap<String, String>());
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"senatus", "atque", "estne"});
+	}
+	
+	public void testEncliticsAndExceptions() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("senatusque namque estne"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("enclitics", "que,ne");
+		args.put("emitEnclitic", "true");
+		args.put("exceptions", "exceptions.txt");
+		LatinEncliticFilterFactory factory = new LatinEncliticFilterFactory(args);
+		factory.inform(new ResourceLoader() {
+			@Override
+			public InputStream openResource(String resource) {
+				return new ByteArrayInputStream("namque\n".getBytes(StandardCharsets.UTF_8));
+			}
+			
+			@Override
+			public <T> Class<? extends T> findClass(String cname, Class<T> expectedType) {
+				throw new UnsupportedOperationException();
+			}
+			
+			@Override
+			public <T> T newInstance(String cname, Class<T> expectedType) {
+				throw new UnsupportedOperationException();
+			}
+		});
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"senatus", "que", "namque", "est", "ne"});
+	}
+	
+	public void testUnknownEnclitic() throws Exception {
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("enclitics", "que,ce");
+		try {
+			new LatinEncliticFilterFactory(args);
+			fail("unknown enclitic accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
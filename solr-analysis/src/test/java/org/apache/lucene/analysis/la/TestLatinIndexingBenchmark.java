@@ -0,0 +1,237 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.Terms;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * End-to-end indexing benchmark for the Latin field types, running the complete update path
+ * (tokenization, postings, flushes and merges) of an {@link EmbeddedSolrServer}.<br/>
+ * Disabled by default, run with:
+ * <pre>mvn test -Dtest=TestLatinIndexingBenchmark -Dtests.latin.benchmark=true [-Dtests.latin.docs=20000] [-Dtests.latin.threads=4]</pre>
+ * For every field type configuration the same generated corpus is indexed from several threads,
+ * docs/sec, tokens/sec, index size and heap use are written to the log.
+ */
+public class TestLatinIndexingBenchmark extends SolrTestCaseJ4 {
+	private static final Logger log = LoggerFactory.getLogger(TestLatinIndexingBenchmark.class);
+
+	/** benchmarked fields (see solr-latin/collection1/conf/schema.xml) */
+	private static final String[] FIELDS = {"latinNumber", "latinText", "latinTextDedup", "latinTextLight"};
+
+	/** words of the generated corpus, all declensions and conjugations */
+	private static final String[] WORDS = {
+		"rosa", "rosae", "rosam", "rosarum", "rosis", "filius", "filii", "filio", "filium", "filiorum",
+		"templum", "templi", "templa", "templorum", "rex", "regis", "regem", "regibus", "corpus", "corporis",
+		"manus", "manum", "manibus", "res", "rei", "rerum", "amo", "amas", "amat", "amamus", "amant", "amabat",
+		"moneo", "monet", "monebant", "lego", "legit", "legunt", "legerunt", "audio", "audit", "audiunt",
+		"atque", "namque", "populusque", "senatus", "urbs", "urbis", "bellum", "belli", "virtus", "virtutis"
+	};
+
+	private static final int BATCH_SIZE = 100;
+
+	private static SolrClient server;
+
+	/** corpus, generated once for all configurations */
+	private static List<String> corpus;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		assumeTrue("Latin indexing benchmark is disabled, enable with -Dtests.latin.benchmark=true", Boolean.getBoolean("tests.latin.benchmark"));
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+		server = new EmbeddedSolrServer(h.getCoreContainer(), "collection1");
+		corpus = generateCorpus(new Random(random().nextLong()), Integer.getInteger("tests.latin.docs", 20000));
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		// closing the server would shut down the core container owned by the test harness
+		server = null;
+		corpus = null;
+	}
+
+	public void testIndexingThroughput() throws Exception {
+		int threads = Integer.getInteger("tests.latin.threads", 4);
+		for (String field : FIELDS) {
+			// warm up the JIT, then measure
+			indexCorpus(field, threads);
+			long start = System.nanoTime();
+			indexCorpus(field, threads);
+			long elapsed = System.nanoTime() - start;
+			report(field, threads, elapsed);
+		}
+	}
+
+	/**
+	 * index the corpus into an empty index, only the given field is filled.
+	 * @param field
+	 * 	field to index the text into
+	 * @param threads
+	 * 	number of indexing threads
+	 */
+	private void indexCorpus(final String field, int threads) throws Exception {
+		server.deleteByQuery("*:*");
+		server.commit();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			int sliceSize = (corpus.size() + threads - 1) / threads;
+			for (int t = 0; t < threads; t++) {
+				final int from = Math.min(t * sliceSize, corpus.size());
+				final int to = Math.min(from + sliceSize, corpus.size());
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						List<SolrInputDocument> batch = new ArrayList<SolrInputDocument>(BATCH_SIZE);
+						for (int i = from; i < to; i++) {
+							SolrInputDocument doc = new SolrInputDocument();
+							doc.addField("id", Integer.toString(i));
+							doc.addField(field, corpus.get(i));
+							batch.add(doc);
+							if (batch.size() == BATCH_SIZE) {
+								server.add(batch);
+								batch = new ArrayList<SolrInputDocument>(BATCH_SIZE);
+							}
+						}
+						if (!batch.isEmpty()) {
+							server.add(batch);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		server.commit();
+	}
+
+	/**
+	 * log the results of one configuration.
+	 * @param field
+	 * 	indexed field
+	 * @param threads
+	 * 	number of indexing threads
+	 * @param elapsed
+	 * 	indexing time in nanoseconds, including the commit
+	 */
+	private void report(String field, int threads, long elapsed) throws Exception {
+		long tokens = 0;
+		long indexSize = 0;
+		int numDocs;
+		RefCounted<SolrIndexSearcher> searcher = h.getCore().getSearcher();
+		try {
+			numDocs = searcher.get().getIndexReader().numDocs();
+			Terms terms = MultiFields.getTerms(searcher.get().getIndexReader(), field);
+			if (terms != null) {
+				tokens = terms.getSumTotalTermFreq();
+			}
+			for (LeafReaderContext leaf : searcher.get().getIndexReader().leaves()) {
+				// the searcher wraps the segment readers
+				indexSize += ((SegmentReader) FilterLeafReader.unwrap(leaf.reader())).getSegmentInfo().sizeInBytes();
+			}
+		} finally {
+			searcher.decref();
+		}
+		assertEquals(corpus.size(), numDocs);
+
+		Runtime runtime = Runtime.getRuntime();
+		long heapUsed = runtime.totalMemory() - runtime.freeMemory();
+		System.gc();
+		long heapRetained = runtime.totalMemory() - runtime.freeMemory();
+
+		double seconds = elapsed / 1e9;
+		log.info(String.format(Locale.ROOT,
+				"%-15s threads=%d docs=%d time=%.2fs docs/sec=%.0f tokens/sec=%.0f tokens=%d indexSize=%.1fMB heapUsed=%.1fMB heapRetained=%.1fMB",
+				field, threads, numDocs, seconds, numDocs / seconds, tokens / seconds, tokens,
+				indexSize / 1048576.0, heapUsed / 1048576.0, heapRetained / 1048576.0));
+	}
+
+	/**
+	 * generate documents of Latin words mixed with Roman numerals.
+	 * @param random
+	 * 	source of randomness
+	 * @param numDocs
+	 * 	number of documents
+	 * @return
+	 * 	text of each document
+	 */
+	private static List<String> generateCorpus(Random random, int numDocs) {
+		List<String> docs = new ArrayList<String>(numDocs);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < numDocs; i++) {
+			text.setLength(0);
+			int length = 50 + random.nextInt(100);
+			for (int w = 0; w < length; w++) {
+				if (w > 0) {
+					text.append(' ');
+				}
+				if (random.nextInt(10) == 0) {
+					text.append(toRoman(1 + random.nextInt(3999)));
+				} else {
+					text.append(WORDS[random.nextInt(WORDS.length)]);
+				}
+			}
+			docs.add(text.toString());
+		}
+		return docs;
+	}
+
+	private static final int[] ROMAN_VALUES = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+	private static final String[] ROMAN_NUMERALS = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
+
+	/** strict Roman numeral of a number between 1 and 3999 */
+	private static String toRoman(int number) {
+		StringBuilder roman = new StringBuilder();
+		for (int i = 0; i < ROMAN_VALUES.length; i++) {
+			while (number >= ROMAN_VALUES[i]) {
+				roman.append(ROMAN_NUMERALS[i]);
+				number -= ROMAN_VALUES[i];
+			}
+		}
+		return roman.toString();
+	}
+}
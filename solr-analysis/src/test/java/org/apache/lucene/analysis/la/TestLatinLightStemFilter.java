@@ -0,0 +1,204 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simple tests for {@link LatinLightStemFilter}.<br/>
+ * The comparison with {@link LatinStemFilter} is disabled by default, run with:
+ * <pre>mvn test -Dtest=TestLatinLightStemFilter -Dtests.latin.benchmark=true</pre>
+ */
+public class TestLatinLightStemFilter extends BaseTokenStreamTestCase {
+	private static final Logger log = LoggerFactory.getLogger(TestLatinLightStemFilter.class);
+
+	/** inflected forms per lemma, for the recall of the benchmark */
+	private static final String[][] PARADIGMS = {
+		{"rosa", "rosae", "rosam", "rosarum", "rosis", "rosas"},
+		{"dominus", "domini", "domino", "dominum", "domine", "dominorum", "dominis", "dominos"},
+		{"templum", "templi", "templo", "templa", "templorum", "templis"},
+		{"rex", "regis", "regi", "regem", "rege", "reges", "regum", "regibus"},
+		{"corpus", "corporis", "corpori", "corpore", "corpora", "corporum", "corporibus"},
+		{"manus", "manum", "manu", "manuum", "manibus"},
+		{"res", "rei", "rem", "re", "rerum", "rebus"},
+		{"urbs", "urbis", "urbi", "urbem", "urbe", "urbes", "urbium", "urbibus"},
+		{"amo", "amas", "amat", "amamus", "amatis", "amant", "amabam", "amabat", "amaui", "amauit"},
+		{"moneo", "mones", "monet", "monemus", "monent", "monebat", "monui"},
+		{"lego", "legis", "legit", "legimus", "legunt", "legebat", "legerunt"},
+		{"audio", "audis", "audit", "audimus", "audiunt", "audiebat", "audiuit"}
+	};
+
+	private static final Analyzer LIGHT = new Analyzer() {
+		@Override
+		protected TokenStreamComponents createComponents(String fieldName) {
+			Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+			return new TokenStreamComponents(source, new LatinLightStemFilter(source));
+		}
+	};
+
+	private static final Analyzer SCHINKE = new Analyzer() {
+		@Override
+		protected TokenStreamComponents createComponents(String fieldName) {
+			Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+			return new TokenStreamComponents(source, new LatinStemFilter(source));
+		}
+	};
+
+	/** Test the built-in light rules, one token per word */
+	public void testLightRules() throws IOException {
+		assertAnalyzesTo(LIGHT, "rosae rosarum rosas filius filiorum filios regibus consilium",
+				new String[]{"ros", "ros", "rosas", "fili", "fili", "fili", "reg", "consili"});
+		// short words and endings left alone by the light rules
+		assertAnalyzesTo(LIGHT, "in rex est amant",
+				new String[]{"in", "rex", "est", "amant"});
+		// ambiguous endings, also verb endings, are kept
+		assertAnalyzesTo(LIGHT, "rosa rosis filii amo amas regis regam amem amamus legimus",
+				new String[]{"rosa", "rosis", "filii", "amo", "amas", "regis", "regam", "amem", "amamus", "legimus"});
+	}
+
+	/** Test the replacement of 'v' and 'j' */
+	public void testVJ() throws IOException {
+		assertAnalyzesTo(LIGHT, "Juventus iuuenis servus", new String[]{"Iuuent", "iuuenis", "seru"});
+	}
+
+	/** Test that keywords are not changed */
+	public void testKeywords() throws IOException {
+		final CharArraySet keywords = new CharArraySet(Arrays.asList("rosarum"), false);
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinLightStemFilter(new SetKeywordMarkerFilter(source, keywords)));
+			}
+		};
+		assertAnalyzesTo(a, "rosarum rosae", new String[]{"rosarum", "ros"});
+	}
+
+	/** Test custom rules, including a replacement longer than the suffix */
+	public void testCustomRules() throws IOException {
+		final LatinStemRules rules = LatinStemRules.parse(Arrays.asList("verb bo 4 bimus", "noun o 3"));
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinLightStemFilter(source, rules, null));
+			}
+		};
+		assertAnalyzesTo(a, "amabo lego bo", new String[]{"amabimus", "leg", "bo"});
+	}
+
+	/** Test random input */
+	public void testRandomStrings() throws IOException {
+		checkRandomData(random(), LIGHT, 1000 * RANDOM_MULTIPLIER);
+	}
+
+	/** compares throughput, tokens, terms and recall with the LatinStemFilter */
+	public void testBenchmark() throws IOException {
+		assumeTrue("Latin benchmarks are disabled, enable with -Dtests.latin.benchmark=true", Boolean.getBoolean("tests.latin.benchmark"));
+		Random random = new Random(random().nextLong());
+		List<String> forms = new ArrayList<String>();
+		for (String[] paradigm : PARADIGMS) {
+			forms.addAll(Arrays.asList(paradigm));
+		}
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			text.append(forms.get(random.nextInt(forms.size()))).append(' ');
+		}
+		String corpus = text.toString();
+
+		for (int round = 0; round < 5; round++) {
+			for (Analyzer analyzer : new Analyzer[] {SCHINKE, LIGHT}) {
+				Set<String> terms = new HashSet<String>();
+				long start = System.nanoTime();
+				long tokens = analyze(analyzer, corpus, terms);
+				long elapsed = System.nanoTime() - start;
+				log.info(String.format(Locale.ROOT, "round %d %-7s: %.1f ns/word, tokens=%d, terms=%d, recall=%.3f",
+						round, analyzer == LIGHT ? "light" : "schinke", (double) elapsed / 100000, tokens, terms.size(), recall(analyzer)));
+			}
+		}
+	}
+
+	/**
+	 * analyze a text.
+	 * @param analyzer
+	 * 	analyzer to use
+	 * @param text
+	 * 	text to analyze
+	 * @param terms
+	 * 	collects the distinct terms
+	 * @return
+	 * 	number of tokens
+	 */
+	private static long analyze(Analyzer analyzer, String text, Set<String> terms) throws IOException {
+		long tokens = 0;
+		TokenStream stream = analyzer.tokenStream("field", text);
+		try {
+			CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+			stream.reset();
+			while (stream.incrementToken()) {
+				tokens++;
+				if (terms != null) {
+					terms.add(termAtt.toString());
+				}
+			}
+			stream.end();
+		} finally {
+			stream.close();
+		}
+		return tokens;
+	}
+
+	/**
+	 * @return
+	 * 	share of the inflected forms sharing a term with the first form of their paradigm
+	 */
+	private static double recall(Analyzer analyzer) throws IOException {
+		int found = 0;
+		int total = 0;
+		for (String[] paradigm : PARADIGMS) {
+			Set<String> lemmaTerms = new HashSet<String>();
+			analyze(analyzer, paradigm[0], lemmaTerms);
+			for (int i = 1; i < paradigm.length; i++) {
+				Set<String> formTerms = new HashSet<String>();
+				analyze(analyzer, paradigm[i], formTerms);
+				formTerms.retainAll(lemmaTerms);
+				found += formTerms.isEmpty() ? 0 : 1;
+				total++;
+			}
+		}
+		return (double) found / total;
+	}
+}
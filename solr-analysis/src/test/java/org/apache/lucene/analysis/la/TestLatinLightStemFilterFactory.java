@@ -0,0 +1,64 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ClasspathResourceLoader;
+
+/**
+ * Simple tests to ensure the Latin light stem factory is working.
+ */
+public class TestLatinLightStemFilterFactory extends BaseTokenStreamTestCase {
+
+	public void testLatinLightStemFilterFactory() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("rosarum filius amant"));
+		LatinLightStemFilterFactory factory = new LatinLightStemFilterFactory(new HashMap<String, String>());
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"ros", "fili", "amant"});
+	}
+
+	public void testRulesFile() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("rosarum filius amant"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("rules", LatinStemRules.DEFAULT_RULES);
+		LatinLightStemFilterFactory factory = new LatinLightStemFilterFactory(args);
+		factory.inform(new ClasspathResourceLoader(LatinStemRules.class));
+		TokenStream stream = factory.create(mockTokenizer);
+		// first matching rule of the Schinke rules, one token per word
+		assertTokenStreamContents(stream, new String[] {"ros", "fil", "ama"});
+	}
+
+	public void testMaxTokenLength() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("rosarum rosae"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put(LatinTokenLengthGuard.MAX_TOKEN_LENGTH, "5");
+		LatinLightStemFilterFactory factory = new LatinLightStemFilterFactory(args);
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"rosarum", "ros"});
+		assertEquals(1, factory.getTokenLengthGuard().getLongTokenCount());
+	}
+}
@@ -0,0 +1,107 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.util.RestTestBase;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.restlet.ext.servlet.ServerServlet;
+
+/**
+ * Tests for {@link LatinManagedQueResource} and {@link LatinManagedStemResource}
+ */
+public class TestLatinManagedResources extends RestTestBase {
+	private static final String QUE_ENDPOINT = LatinStemFilterFactory.QUE_MANAGED_ENDPOINT + "/latin";
+	private static final String STEMS_ENDPOINT = LatinStemFilterFactory.STEMS_MANAGED_ENDPOINT + "/latin";
+
+	private File tmpSolrHome;
+
+	@Before
+	public void before() throws Exception {
+		// the managed data is stored in the conf directory
+		tmpSolrHome = createTempDir().toFile();
+		FileUtils.copyDirectory(getFile("solr-latin"), tmpSolrHome);
+		// jetty discovers the core
+		FileUtils.write(new File(tmpSolrHome, "solr.xml"), "<solr/>", "UTF-8");
+		FileUtils.write(new File(tmpSolrHome, "collection1/core.properties"), 
+				"name=collection1\nconfig=solrconfig.xml\nschema=schema-managed.xml\n", "UTF-8");
+
+		final SortedMap<ServletHolder, String> extraServlets = new TreeMap<ServletHolder, String>();
+		final ServletHolder solrRestApi = new ServletHolder("SolrSchemaRestApi", ServerServlet.class);
+		solrRestApi.setInitParameter("org.restlet.application", "org.apache.solr.rest.SolrSchemaRestApi");
+		extraServlets.put(solrRestApi, "/schema/*");
+
+		createJettyAndHarness(tmpSolrHome.getAbsolutePath(), "solrconfig.xml", "schema-managed.xml", "/solr", true, extraServlets);
+	}
+
+	@After
+	public void after() throws Exception {
+		jetty.stop();
+		jetty = null;
+		FileUtils.deleteDirectory(tmpSolrHome);
+	}
+
+	public void testQue() throws Exception {
+		assertJQ(QUE_ENDPOINT, "/wordSet/managedList==[]");
+		assertU(adoc("id", "1", "latinManaged", "rosaque"));
+		assertU(commit());
+		assertQ("/select?q=%7B!term+f%3DlatinManaged%7Drosaque", "//result[@numFound='0']");
+
+		assertJPut(QUE_ENDPOINT, "[\"rosaque\"]", "/responseHeader/status==0");
+		assertJQ(QUE_ENDPOINT, "/wordSet/managedList==['rosaque']");
+		// applied without a reload
+		assertU(adoc("id", "2", "latinManaged", "rosaque"));
+		assertU(commit());
+		assertQ("/select?q=%7B!term+f%3DlatinManaged%7Drosaque", "//result[@numFound='1']", "//str[@name='id'][.='2']");
+
+		assertJDelete(QUE_ENDPOINT + "/rosaque", "/responseHeader/status==0");
+		assertJQ(QUE_ENDPOINT, "/wordSet/managedList==[]");
+		assertU(adoc("id", "3", "latinManaged", "rosaque"));
+		assertU(commit());
+		assertQ("/select?q=%7B!term+f%3DlatinManaged%7Drosaque", "//result[@numFound='1']", "//str[@name='id'][.='2']");
+	}
+
+	public void testStems() throws Exception {
+		assertJQ(STEMS_ENDPOINT, "/stemMap=={}");
+
+		assertJPut(STEMS_ENDPOINT, "{\"filius\":\"puer\"}", "/responseHeader/status==0");
+		assertJQ(STEMS_ENDPOINT, "/stemMap/filius=='puer'");
+		assertJQ(STEMS_ENDPOINT + "/filius", "/filius=='puer'");
+		// applied without a reload
+		assertU(adoc("id", "1", "latinManaged", "filius"));
+		assertU(commit());
+		assertQ("/select?q=%7B!term+f%3DlatinManaged%7Dpuer", "//result[@numFound='1']");
+
+		// no entry of a bad update is applied
+		assertJPut(STEMS_ENDPOINT, "{\"rosa\":\"rosa\",\"rex\":1}", "/error/code==400");
+		assertJQ(STEMS_ENDPOINT, "/stemMap=={'filius':'puer'}");
+
+		assertJDelete(STEMS_ENDPOINT + "/filius", "/responseHeader/status==0");
+		assertJQ(STEMS_ENDPOINT, "/stemMap=={}");
+		assertJDelete(STEMS_ENDPOINT + "/filius", "/error/code==404");
+		assertU(adoc("id", "2", "latinManaged", "filius"));
+		assertU(commit());
+		assertQ("/select?q=%7B!term+f%3DlatinManaged%7Dpuer", "//result[@numFound='1']", "//str[@name='id'][.='1']");
+	}
+}
@@ -22,8 +22,13 @@ import java.io.IOException;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.BaseTokenStreamTestCase;
 import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.NumericTokenStream;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.la.LatinNumberConvertFilter;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.NumericUtils;
 
 
 import static org.apache.lucene.analysis.VocabularyAssert.*;
@@ -57,4 +62,64 @@ public class TestLatinNumberConvertFilter extends BaseTokenStreamTestCase {
 	public void testVocabularyStrictFalse() throws IOException {
 		assertVocabulary(analyzerStrictFalse, super.getDataPath("latinNumberTestData.zip"), "latinNumberTestDataStrictFalse.txt");
 	}
+	
+	/** numerals are replaced by the trie terms of NumericTokenStream */
+	public void testTrieTerms() throws IOException {
+		Analyzer analyzer = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinNumberConvertFilter(source, true, null, 16));
+			}
+		};
+		assertAnalyzesTo(analyzer, "anno MDCCXIV rosa",
+				new String[] { "anno", trieTerm(1714, 0), trieTerm(1714, 16), trieTerm(1714, 32), trieTerm(1714, 48), "rosa" },
+				new int[] { 0, 5, 5, 5, 5, 13 },
+				new int[] { 4, 12, 12, 12, 12, 17 },
+				new String[] { "word", NumericTokenStream.TOKEN_TYPE_FULL_PREC, NumericTokenStream.TOKEN_TYPE_LOWER_PREC,
+						NumericTokenStream.TOKEN_TYPE_LOWER_PREC, NumericTokenStream.TOKEN_TYPE_LOWER_PREC, "word" },
+				new int[] { 1, 1, 0, 0, 0, 1 });
+		
+		// a precision step of 64 only writes the full precision term
+		analyzer = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinNumberConvertFilter(source, true, null, 64));
+			}
+		};
+		assertAnalyzesTo(analyzer, "XIV IC", new String[] { trieTerm(14, 0), "IC" });
+	}
+	
+	/** trie terms are marked as keywords, other tokens are left alone */
+	public void testTrieTermsAreKeywords() throws IOException {
+		Analyzer analyzer = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinNumberConvertFilter(source, true, null, 16));
+			}
+		};
+		TokenStream stream = analyzer.tokenStream("field", "anno XIV rosa");
+		KeywordAttribute keywordAtt = stream.addAttribute(KeywordAttribute.class);
+		stream.reset();
+		assertTrue(stream.incrementToken());
+		assertFalse(keywordAtt.isKeyword());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(stream.incrementToken());
+			assertTrue(keywordAtt.isKeyword());
+		}
+		assertTrue(stream.incrementToken());
+		assertFalse(keywordAtt.isKeyword());
+		assertFalse(stream.incrementToken());
+		stream.end();
+		stream.close();
+	}
+	
+	/** prefix coded term as written into the index */
+	private static String trieTerm(long value, int shift) {
+		BytesRefBuilder bytes = new BytesRefBuilder();
+		NumericUtils.longToPrefixCoded(value, shift, bytes);
+		return bytes.get().utf8ToString();
+	}
 }
@@ -0,0 +1,98 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.util.CharArraySet;
+
+/**
+ * Simple tests for {@link LatinOrthographyFilter}
+ */
+public class TestLatinOrthographyFilter extends BaseTokenStreamTestCase {
+	
+	private Analyzer createAnalyzer(final LatinOrthographyRules rules) {
+		return new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinOrthographyFilter(source, rules));
+			}
+		};
+	}
+	
+	/** Test the built-in rules */
+	public void testDefaultRules() throws IOException {
+		Analyzer a = createAnalyzer(LatinOrthographyRules.getDefault());
+		assertAnalyzesTo(a, "michi nichilominus gracia oracionem coelum caelum", 
+				new String[]{"mihi", "nihilominus", "gratia", "orationem", "celum", "celum"});
+		// protected words keep their case
+		assertAnalyzesTo(a, "facio conficio aer Israel poeta poena", 
+				new String[]{"facio", "conficio", "aer", "Israel", "poeta", "pena"});
+	}
+	
+	/** Test that keywords are not changed */
+	public void testKeywords() throws IOException {
+		final CharArraySet keywords = new CharArraySet(Arrays.asList("michi"), false);
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinOrthographyFilter(new SetKeywordMarkerFilter(source, keywords)));
+			}
+		};
+		assertAnalyzesTo(a, "michi nichil", new String[]{"michi", "nihil"});
+	}
+	
+	/** Test custom rules, longest match first and growing words */
+	public void testCustomRules() throws IOException {
+		LatinOrthographyRules rules = LatinOrthographyRules.parse(Arrays.asList(
+				"# test", 
+				"y i", 
+				"ph f", 
+				"^phy phy", 
+				"x$ ks"));
+		assertAnalyzesTo(createAnalyzer(rules), "nympha physica rex xx", 
+				new String[]{"nimfa", "physica", "reks", "xks"});
+	}
+	
+	/** Test invalid rules */
+	public void testInvalidRules() {
+		try {
+			LatinOrthographyRules.parse(Arrays.asList("^$ e"));
+			fail("pattern without letters accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			LatinOrthographyRules.parse(Arrays.asList("ae e", "ae ai"));
+			fail("duplicate pattern accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			LatinOrthographyRules.parse(Arrays.asList("ae"));
+			fail("rule without replacement accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
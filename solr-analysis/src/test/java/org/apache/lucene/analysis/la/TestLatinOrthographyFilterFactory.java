@@ -0,0 +1,52 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ClasspathResourceLoader;
+
+/**
+ * Simple tests to ensure the Latin orthography factory is working.
+ */
+public class TestLatinOrthographyFilterFactory extends BaseTokenStreamTestCase {
+ 
+	public void testLatinOrthographyFilterFactory() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("michi filius gracia"));
+		LatinOrthographyFilterFactory factory = new LatinOrthographyFilterFactory(new HashMap<String, String>());
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"mihi", "filius", "gratia"});
+	}
+	
+	public void testRulesFile() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("michi filius gracia"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("rules", LatinOrthographyRules.DEFAULT_RULES);
+		LatinOrthographyFilterFactory factory = new LatinOrthographyFilterFactory(args);
+		factory.inform(new ClasspathResourceLoader(LatinOrthographyRules.class));
+		TokenStream stream = new LatinStemFilter(factory.create(mockTokenizer));
+		assertTokenStreamContents(stream, new String[] {"mih", "mihi", "fil", "filiu", "grat", "gratia"});
+	}
+}
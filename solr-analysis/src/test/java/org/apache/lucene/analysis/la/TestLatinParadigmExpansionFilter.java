@@ -0,0 +1,124 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.store.Directory;
+
+/**
+ * Simple tests for {@link LatinParadigmExpansionFilter} and {@link LatinParadigms}
+ */
+public class TestLatinParadigmExpansionFilter extends BaseTokenStreamTestCase {
+
+	private static final LatinParadigms PARADIGMS = new LatinParadigms(new LatinStemmer());
+
+	private Analyzer createAnalyzer(final Terms terms, final CharArraySet keywords) {
+		return new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, 
+						new LatinParadigmExpansionFilter(new SetKeywordMarkerFilter(source, keywords), PARADIGMS, terms, 64));
+			}
+		};
+	}
+
+	/** Test generated forms */
+	public void testParadigms() {
+		assertTrue(PARADIGMS.expand("rosarum".toCharArray(), 7, 64).containsAll(Arrays.asList("rosarum", "rosa", "rosae", "rosis")));
+		assertTrue(PARADIGMS.expand("legunt".toCharArray(), 6, 64).containsAll(Arrays.asList("legunt", "legit", "legimus", "legerunt")));
+		assertEquals(Arrays.asList("rosarum", "ros"), PARADIGMS.expand("rosarum".toCharArray(), 7, 2));
+	}
+
+	/** Test that the expansion is neither counted by the stem cache nor by the rule profile */
+	public void testUnrecorded() {
+		LatinStemmer stemmer = new LatinStemmer();
+		LatinStemCache cache = new LatinStemCache(100, 1);
+		stemmer.setStemCache(cache);
+		LatinStemRuleProfile profile = new LatinStemRuleProfile(stemmer.getRules(), 0);
+		stemmer.setRuleProfile(profile);
+		
+		assertTrue(new LatinParadigms(stemmer).expand("rosarum".toCharArray(), 7, 64).contains("rosis"));
+		assertEquals(0, cache.getMisses());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, profile.getTotal());
+	}
+
+	/** Test that only forms of the index are emitted, stacked on the word */
+	public void testIndexedForms() throws IOException {
+		Directory dir = newDirectory();
+		RandomIndexWriter writer = new RandomIndexWriter(random(), dir, new MockAnalyzer(random()));
+		Document doc = new Document();
+		doc.add(new TextField("text", "rosa rosae rosis amat amamus regem", Field.Store.NO));
+		writer.addDocument(doc);
+		IndexReader reader = writer.getReader();
+		writer.close();
+		try {
+			Analyzer a = createAnalyzer(MultiFields.getTerms(reader, "text"), CharArraySet.EMPTY_SET);
+			assertAnalyzesTo(a, "rosarum amant rex",
+					new String[]{"rosarum", "rosae", "rosis", "rosa", "amant", "amamus", "amat", "rex"},
+					new int[]{0, 0, 0, 0, 8, 8, 8, 14},
+					new int[]{7, 7, 7, 7, 13, 13, 13, 17},
+					new String[]{"word", LatinParadigmExpansionFilter.TYPE_PARADIGM, LatinParadigmExpansionFilter.TYPE_PARADIGM,
+							LatinParadigmExpansionFilter.TYPE_PARADIGM, "word", LatinParadigmExpansionFilter.TYPE_PARADIGM,
+							LatinParadigmExpansionFilter.TYPE_PARADIGM, "word"},
+					new int[]{1, 0, 0, 0, 1, 0, 0, 1});
+			
+			// keywords are not expanded
+			a = createAnalyzer(MultiFields.getTerms(reader, "text"), new CharArraySet(Arrays.asList("rosarum"), false));
+			assertAnalyzesTo(a, "rosarum amant", new String[]{"rosarum", "amant", "amamus", "amat"});
+		} finally {
+			reader.close();
+			dir.close();
+		}
+	}
+
+	/** Test that the normalized spelling of a word is emitted as form */
+	public void testVJ() throws IOException {
+		Directory dir = newDirectory();
+		RandomIndexWriter writer = new RandomIndexWriter(random(), dir, new MockAnalyzer(random()));
+		Document doc = new Document();
+		doc.add(new TextField("text", "seruus seruo", Field.Store.NO));
+		writer.addDocument(doc);
+		IndexReader reader = writer.getReader();
+		writer.close();
+		try {
+			assertAnalyzesTo(createAnalyzer(MultiFields.getTerms(reader, "text"), CharArraySet.EMPTY_SET), "servus",
+					new String[]{"servus", "seruus", "seruo"});
+		} finally {
+			reader.close();
+			dir.close();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+
+/**
+ * Simple tests to ensure the Latin paradigm expansion factory is working.
+ */
+public class TestLatinParadigmExpansionFilterFactory extends BaseTokenStreamTestCase {
+
+	public void testMaxExpansions() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("rosarum"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("maxExpansions", "1");
+		LatinParadigmExpansionFilterFactory factory = new LatinParadigmExpansionFilterFactory(args);
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"rosarum"});
+	}
+
+	public void testRulesFile() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("rosarum"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("rules", "rules.txt");
+		LatinParadigmExpansionFilterFactory factory = new LatinParadigmExpansionFilterFactory(args);
+		factory.inform(new ResourceLoader() {
+			@Override
+			public InputStream openResource(String resource) {
+				return new ByteArrayInputStream("noun arum 6\nnoun ae 4\nnoun a 3\n".getBytes(StandardCharsets.UTF_8));
+			}
+
+			@Override
+			public <T> Class<? extends T> findClass(String cname, Class<T> expectedType) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public <T> T newInstance(String cname, Class<T> expectedType) {
+				throw new UnsupportedOperationException();
+			}
+		});
+		TokenStream stream = factory.create(mockTokenizer);
+		// without index all forms of the stem "ros" are emitted
+		assertTokenStreamContents(stream, new String[] {"rosarum", "ros", "rosae", "rosa"}, new int[] {1, 0, 0, 0});
+	}
+}
@@ -0,0 +1,208 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.solr.SolrTestCaseJ4;
+
+/**
+ * Tests for {@link LatinReindexTool}
+ */
+public class TestLatinReindexTool extends SolrTestCaseJ4 {
+
+	private File coreDir;
+	private List<String> sourceSegments;
+
+	/**
+	 * core 'collection1' with the test schema and an unstemmed source index of two segments,
+	 * document 2 deleted.
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		File solrHome = createTempDir().toFile();
+		coreDir = new File(solrHome, "collection1");
+		FileUtils.copyDirectory(getFile("solr-latin/collection1/conf"), new File(coreDir, "conf"));
+		Files.write(new File(coreDir, "core.properties").toPath(), "name=collection1\n".getBytes(StandardCharsets.UTF_8));
+
+		Directory source = FSDirectory.open(new File(coreDir, "data/index").toPath());
+		IndexWriterConfig config = new IndexWriterConfig(new MockAnalyzer(random()));
+		config.setMergePolicy(NoMergePolicy.INSTANCE);
+		IndexWriter writer = new IndexWriter(source, config);
+		writer.addDocument(doc("1", "rosarum"));
+		writer.addDocument(doc("2", "filius"));
+		writer.commit();
+		writer.addDocument(doc("3", "rosa"));
+		writer.deleteDocuments(new Term("id", "2"));
+		writer.close();
+
+		sourceSegments = new ArrayList<String>();
+		DirectoryReader reader = DirectoryReader.open(source);
+		for (LeafReaderContext leaf : reader.leaves()) {
+			sourceSegments.add(((SegmentReader) leaf.reader()).getSegmentName());
+		}
+		reader.close();
+		source.close();
+		assertEquals(2, sourceSegments.size());
+	}
+
+	private static Document doc(String id, String text) {
+		Document doc = new Document();
+		doc.add(new StringField("id", id, Field.Store.YES));
+		doc.add(new TextField("latinText", text, Field.Store.YES));
+		return doc;
+	}
+
+	public void testMigration() throws Exception {
+		migrate();
+		Directory target = FSDirectory.open(new File(coreDir, "data/" + LatinReindexTool.TARGET_INDEX).toPath());
+		DirectoryReader reader = DirectoryReader.open(target);
+		try {
+			assertEquals(2, reader.numDocs());
+			assertEquals(1, reader.docFreq(new Term("id", "1")));
+			assertEquals(0, reader.docFreq(new Term("id", "2")));
+			assertEquals(1, reader.docFreq(new Term("id", "3")));
+			// stored text analyzed again with the schema
+			assertEquals(2, reader.docFreq(new Term("latinText", "ros")));
+			assertEquals(1, reader.docFreq(new Term("latinText", "rosaru")));
+			assertEquals(0, reader.docFreq(new Term("latinText", "rosarum")));
+			assertEquals(0, reader.docFreq(new Term("latinText", "fil")));
+			assertEquals(sorted(sourceSegments), doneSegments(reader));
+		} finally {
+			reader.close();
+			target.close();
+		}
+
+		// nothing left to migrate
+		String output = migrate();
+		for (String segment : sourceSegments) {
+			assertTrue(output, output.contains("segment " + segment + " already migrated"));
+		}
+		target = FSDirectory.open(new File(coreDir, "data/" + LatinReindexTool.TARGET_INDEX).toPath());
+		reader = DirectoryReader.open(target);
+		try {
+			assertEquals(2, reader.numDocs());
+		} finally {
+			reader.close();
+			target.close();
+		}
+	}
+
+	/** a migration interrupted after the first segment */
+	public void testResume() throws Exception {
+		Directory target = FSDirectory.open(new File(coreDir, "data/" + LatinReindexTool.TARGET_INDEX).toPath());
+		IndexWriter writer = new IndexWriter(target, new IndexWriterConfig(new MockAnalyzer(random())));
+		writer.setCommitData(Collections.singletonMap(LatinReindexTool.DONE_SEGMENTS, sourceSegments.get(0)));
+		writer.commit();
+		writer.close();
+
+		String output = migrate();
+		assertTrue(output, output.contains("segment " + sourceSegments.get(0) + " already migrated"));
+		assertTrue(output, output.contains("migrating 1 documents of 1 segments"));
+
+		DirectoryReader reader = DirectoryReader.open(target);
+		try {
+			// only the second segment is migrated
+			assertEquals(1, reader.numDocs());
+			assertEquals("3", reader.document(0).get("id"));
+			assertEquals(sorted(sourceSegments), doneSegments(reader));
+		} finally {
+			reader.close();
+			target.close();
+		}
+	}
+
+	/** a field that is neither stored nor a copy field target */
+	public void testLostFields() throws Exception {
+		Directory source = FSDirectory.open(new File(coreDir, "data/index").toPath());
+		IndexWriter writer = new IndexWriter(source, new IndexWriterConfig(new MockAnalyzer(random())));
+		Document doc = doc("4", "rosis");
+		doc.add(new TextField("latinStems", "ros", Field.Store.NO));
+		writer.addDocument(doc);
+		writer.close();
+		source.close();
+
+		String output = migrate();
+		assertTrue(output, output.contains("collection1: skipped, fields that are neither stored nor copied from stored fields would be lost: [latinStems]"));
+		assertFalse(new File(coreDir, "data/" + LatinReindexTool.TARGET_INDEX).exists());
+
+		output = migrate(true);
+		assertTrue(output, output.contains("collection1: fields that are neither stored nor copied from stored fields are lost: [latinStems]"));
+		Directory target = FSDirectory.open(new File(coreDir, "data/" + LatinReindexTool.TARGET_INDEX).toPath());
+		DirectoryReader reader = DirectoryReader.open(target);
+		try {
+			assertEquals(3, reader.numDocs());
+			assertEquals(0, reader.docFreq(new Term("latinStems", "ros")));
+		} finally {
+			reader.close();
+			target.close();
+		}
+	}
+
+	/** run the tool on all cores, returns the progress output */
+	private String migrate() throws Exception {
+		return migrate(false);
+	}
+
+	private String migrate(boolean allowLoss) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		LatinReindexTool tool = new LatinReindexTool(2, new PrintStream(bytes, true, "UTF-8"));
+		tool.setAllowLoss(allowLoss);
+		try {
+			tool.migrateCores(coreDir.getParentFile(), null);
+		} finally {
+			tool.shutdown();
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static List<String> doneSegments(DirectoryReader reader) throws Exception {
+		List<String> segments = new ArrayList<String>();
+		Collections.addAll(segments, reader.getIndexCommit().getUserData().get(LatinReindexTool.DONE_SEGMENTS).split(","));
+		return sorted(segments);
+	}
+
+	private static List<String> sorted(List<String> segments) {
+		List<String> sorted = new ArrayList<String>(segments);
+		Collections.sort(sorted);
+		return sorted;
+	}
+}
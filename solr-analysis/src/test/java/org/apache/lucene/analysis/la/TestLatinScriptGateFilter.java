@@ -0,0 +1,66 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.Tokenizer;
+
+/**
+ * Simple tests for {@link LatinScriptGateFilter}
+ */
+public class TestLatinScriptGateFilter extends BaseTokenStreamTestCase {
+	
+	private Analyzer createAnalyzer(final LatinTrigramModel model) {
+		return new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinStemFilter(new LatinScriptGateFilter(source, model, 
+						LatinScriptGateFilterFactory.DEFAULT_THRESHOLD, LatinScriptGateFilterFactory.DEFAULT_MIN_LENGTH)));
+			}
+		};
+	}
+	
+	/** Test that Greek tokens are not stemmed */
+	public void testScript() throws IOException {
+		assertAnalyzesTo(createAnalyzer(null), "filius λόγος Handschrift", 
+				new String[]{"fil", "filiu", "λόγος", "Handschrift", "Handschrif"});
+	}
+	
+	/** Test that German tokens are not stemmed, but Latin words and numerals are */
+	public void testModel() throws IOException {
+		assertAnalyzesTo(createAnalyzer(LatinTrigramModel.getDefault()), "filius Handschrift deutlich Belgae MDCCXII", 
+				new String[]{"fil", "filiu", "Handschrift", "deutlich", "Belg", "Belgae", "MDCCXI", "MDCCXII"});
+	}
+	
+	/** Test a custom model */
+	public void testCustomModel() throws IOException {
+		LatinTrigramModel model = LatinTrigramModel.parse(Arrays.asList("# test", "^fi\t10", "fil\t10", "ili\t10", "liu\t10", "ius\t10", "us$\t10"));
+		assertTrue(model.score("filius".toCharArray(), 6) > model.score("deutlich".toCharArray(), 8));
+		try {
+			LatinTrigramModel.parse(Arrays.asList("fili\t10"));
+			fail("invalid trigram accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
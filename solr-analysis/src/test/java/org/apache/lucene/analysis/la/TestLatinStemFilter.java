@@ -22,13 +22,19 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.zip.ZipFile;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.BaseTokenStreamTestCase;
 import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.la.LatinStemFilter;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.util.CharArrayMap;
+import org.apache.lucene.analysis.util.CharArraySet;
 
 /**
  * Simple tests for {@link LatinStemFilter}
@@ -52,6 +58,142 @@ public class TestLatinStemFilter extends BaseTokenStreamTestCase {
 		assertLatinVocabulary(analyzer, super.getDataPath("latinTestData.zip").toFile(), "latinTestData_complete.txt");
 	}
   
+	/** Test additional 'que' exceptions and stem overrides, replaced while the analyzer is in use */
+	public void testQueExceptionsAndStemOverrides() throws IOException {
+		CharArraySet queExceptions = new CharArraySet(LatinStemmer.getDefaultQueExceptions(), true);
+		queExceptions.add("namque");
+		CharArrayMap<String> stemOverrides = new CharArrayMap<String>(1, true);
+		stemOverrides.put("filius", "filius");
+		final LatinStemmer stemmer = new LatinStemmer(queExceptions, stemOverrides);
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinStemFilter(source, stemmer));
+			}
+		};
+		assertAnalyzesTo(a, "namque filivs atque", new String[]{"namque", "namque", "filius", "filius", "atque", "atque"});
+		
+		stemmer.setStemOverrides(new CharArrayMap<String>(0, true));
+		assertAnalyzesTo(a, "filivs", new String[]{"fil", "filiu"});
+	}
+  
+	/** Test custom suffix rules */
+	public void testCustomRules() throws IOException {
+		final LatinStemRules rules = LatinStemRules.parse(Arrays.asList(
+				"# medieval genitive", 
+				"noun e 3", 
+				"noun ae 4", 
+				"verb unt 5 i", 
+				"verb unt 0 unt", 
+				"verb nt 4"));
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinStemFilter(source, new LatinStemmer(rules)));
+			}
+		};
+		assertAnalyzesTo(a, "rosae amant legunt", new String[]{"rosa", "rosae", "amant", "ama", "legunt", "legi"});
+	}
+	
+	/** Test that stopper rules keep upper and mixed case tokens unchanged */
+	public void testStopperRulesKeepCase() throws IOException {
+		assertAnalyzesTo(analyzer, "SUNT Sunt", new String[]{"SU", "SUNT", "Su", "Sunt"});
+	}
+	
+	/** Test stemming with a warmed stem cache */
+	public void testStemCache() throws IOException {
+		final LatinStemmer stemmer = new LatinStemmer();
+		LatinStemCache cache = new LatinStemCache(2, 1);
+		stemmer.setStemCache(cache);
+		cache.warm(LatinStemCache.parseFrequencyList(Arrays.asList("filius\t10", "atque\t20", "rosa\t5")), stemmer);
+		assertEquals(2, cache.size());
+		
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinStemFilter(source, stemmer));
+			}
+		};
+		assertAnalyzesTo(a, "filivs atque rosa rosa", new String[]{"fil", "filiu", "atque", "atque", "ros", "rosa", "ros", "rosa"});
+		// 'rosa' is not cached but used most
+		assertEquals("rosa", cache.getHotSet().get(0).getKey());
+		
+		// changing the stemmer invalidates the cache
+		stemmer.setStemOverrides(new CharArrayMap<String>(0, true));
+		assertEquals(0, cache.size());
+	}
+	
+	/** Test the sampled hit and miss counts of the stem cache */
+	public void testStemCacheSampling() {
+		LatinStemmer stemmer = new LatinStemmer();
+		LatinStemCache cache = new LatinStemCache(10, 64);
+		stemmer.setStemCache(cache);
+		cache.warm(Arrays.asList("rosa"), stemmer);
+		char[] rosa = "rosa".toCharArray();
+		char[] filius = "filius".toCharArray();
+		for (int i = 0; i < 64000; i++) {
+			stemmer.stem(rosa, rosa.length);
+			stemmer.stem(filius, filius.length);
+		}
+		// about 1000 counted lookups each, scaled back
+		assertTrue(String.valueOf(cache.getHits()), cache.getHits() > 32000 && cache.getHits() < 128000);
+		assertTrue(String.valueOf(cache.getMisses()), cache.getMisses() > 32000 && cache.getMisses() < 128000);
+		assertEquals(0, cache.getMisses() % 64);
+		
+		try {
+			new LatinStemCache(10, 10);
+			fail("sampling without power of two accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+	
+	/** Test emitting shared stems once, with origin flags and payloads */
+	public void testDedupStemsAndFlags() throws IOException {
+		Analyzer a = new Analyzer() {
+			@Override
+			protected TokenStreamComponents createComponents(String fieldName) {
+				Tokenizer source = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+				return new TokenStreamComponents(source, new LatinStemFilter(source, new LatinStemmer(), true, true));
+			}
+		};
+		assertAnalyzesTo(a, "atque rosa", 
+				new String[]{"atque", "ros", "rosa"}, null, null, 
+				new String[]{LatinStemFilter.TYPE_NOUN_VERB, LatinStemFilter.TYPE_NOUN, LatinStemFilter.TYPE_VERB}, 
+				new int[]{1, 1, 0});
+		
+		int[] expectedFlags = {LatinStemFilter.FLAG_NOUN | LatinStemFilter.FLAG_VERB, LatinStemFilter.FLAG_NOUN, LatinStemFilter.FLAG_VERB};
+		TokenStream ts = a.tokenStream("dummy", "atque rosa");
+		FlagsAttribute flagsAtt = ts.addAttribute(FlagsAttribute.class);
+		PayloadAttribute payloadAtt = ts.addAttribute(PayloadAttribute.class);
+		ts.reset();
+		for (int expected : expectedFlags) {
+			assertTrue(ts.incrementToken());
+			assertEquals(expected, flagsAtt.getFlags());
+			assertEquals(1, payloadAtt.getPayload().length);
+			assertEquals(expected, payloadAtt.getPayload().bytes[payloadAtt.getPayload().offset]);
+		}
+		assertFalse(ts.incrementToken());
+		ts.end();
+		ts.close();
+	}
+	
+	/** Test validation of rules */
+	public void testInvalidRules() {
+		try {
+			LatinStemRules.parse(Arrays.asList("noun ae four"));
+			fail("invalid minLength accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			LatinStemRules.parse(Arrays.asList("adverb e 3"));
+			fail("invalid type accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+  
 	// helper methods (adapted from VocabularyAssert, BaseTokenStreamTestCase)
 	private void assertLatinVocabulary(Analyzer a, File zipFile, String vocOut) throws IOException {
 		ZipFile zip = new ZipFile(zipFile);
@@ -17,13 +17,20 @@ package org.apache.lucene.analysis.la;
  * limitations under the License.
  */
 
+import java.io.File;
+import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.lucene.analysis.BaseTokenStreamTestCase;
 import org.apache.lucene.analysis.MockTokenizer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.la.LatinStemFilterFactory;
+import org.apache.lucene.analysis.util.ClasspathResourceLoader;
 
 /**
  * Simple tests to ensure the Latin stem factory is working.
@@ -37,4 +44,112 @@ public class TestLatinStemFilterFactory extends BaseTokenStreamTestCase {
 		TokenStream stream = factory.create(mockTokenizer);
 		assertTokenStreamContents(stream, new String[] {"adulter", "adulteri", "fil", "filiu", "fil", "filiu", "FIL", "FILIU", "fili", "filii", "atque", "atque"});
 	}
+	
+	public void testRulesFile() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("adultero filius filivs FILIVS filii atque"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("rules", LatinStemRules.DEFAULT_RULES);
+		LatinStemFilterFactory factory = new LatinStemFilterFactory(args);
+		factory.inform(new ClasspathResourceLoader(LatinStemRules.class));
+		TokenStream stream = factory.create(mockTokenizer);
+		assertTokenStreamContents(stream, new String[] {"adulter", "adulteri", "fil", "filiu", "fil", "filiu", "FIL", "FILIU", "fili", "filii", "atque", "atque"});
+	}
+	
+	public void testMaxTokenLength() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("filius adulteriorumque"));
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("maxTokenLength", "10");
+		LatinStemFilterFactory factory = new LatinStemFilterFactory(args);
+		TokenStream stream = factory.create(mockTokenizer);
+		// long token passes through untouched
+		assertTokenStreamContents(stream, new String[] {"fil", "filiu", "adulteriorumque"});
+		assertEquals(1, factory.getTokenLengthGuard().getLongTokenCount());
+		
+		mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("filius adulteriorumque"));
+		args = new HashMap<String, String>();
+		args.put("maxTokenLength", "8");
+		args.put("truncateLongTokens", "true");
+		factory = new LatinStemFilterFactory(args);
+		stream = factory.create(mockTokenizer);
+		// long token is truncated to 'adulteri'
+		assertTokenStreamContents(stream, new String[] {"fil", "filiu", "adulter", "adulte"});
+		assertEquals(1, factory.getTokenLengthGuard().getLongTokenCount());
+	}
+	
+	public void testRuleProfile() throws Exception {
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("reorderRulesAfter", "6");
+		LatinStemFilterFactory factory = new LatinStemFilterFactory(args);
+		for (int i = 0; i < 2; i++) {
+			// same stems before and after the reordering
+			MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+			mockTokenizer.setReader(new StringReader("adultero filius filii atque"));
+			TokenStream stream = factory.create(mockTokenizer);
+			assertTokenStreamContents(stream, new String[] {"adulter", "adulteri", "fil", "filiu", "fili", "filii", "atque", "atque"});
+		}
+		LatinStemRuleProfile profile = factory.getRuleProfile();
+		// 'atque' is not stemmed by the rules, stemmings after the warm-up window are not counted
+		assertEquals(6, profile.getTotal());
+		assertTrue(profile.isReordered());
+		assertEquals(Long.valueOf(1), profile.getRuleHits().get("noun ius 5"));
+		
+		assertNull(new LatinStemFilterFactory(new HashMap<String, String>()).getRuleProfile());
+	}
+	
+	/** Test counting without a warm-up window, from several threads */
+	public void testRuleProfileCounting() throws Exception {
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("profileRules", "true");
+		final LatinStemFilterFactory factory = new LatinStemFilterFactory(args);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < 100; i++) {
+							MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+							mockTokenizer.setReader(new StringReader("filius filii"));
+							TokenStream stream = factory.create(mockTokenizer);
+							stream.reset();
+							while (stream.incrementToken()) {
+							}
+							stream.end();
+							stream.close();
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		LatinStemRuleProfile profile = factory.getRuleProfile();
+		// noun and verb stem of 800 tokens
+		assertEquals(1600, profile.getTotal());
+		assertFalse(profile.isReordered());
+		assertEquals(Long.valueOf(400), profile.getRuleHits().get("noun ius 5"));
+	}
+	
+	public void testWriteHotSet() throws Exception {
+		File hotSet = new File(createTempDir().toFile(), "latin-forms.txt");
+		Map<String, String> args = new HashMap<String, String>();
+		args.put("hotSetFile", hotSet.getAbsolutePath());
+		args.put("stemCacheSampling", "1");
+		LatinStemFilterFactory factory = new LatinStemFilterFactory(args);
+		factory.inform(new ClasspathResourceLoader(LatinStemRules.class));
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("rosa filius rosa"));
+		assertTokenStreamContents(factory.create(mockTokenizer), new String[] {"ros", "rosa", "fil", "filiu", "ros", "rosa"});
+		factory.writeHotSet();
+		List<String> lines = Files.readAllLines(hotSet.toPath(), StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());
+		assertEquals("rosa\t2", lines.get(0));
+	}
 }
@@ -0,0 +1,77 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.search.spell.PlainTextDictionary;
+import org.apache.lucene.search.suggest.Lookup.LookupResult;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.LuceneTestCase;
+
+/**
+ * Simple tests for {@link LatinStemLookup}
+ */
+public class TestLatinStemLookup extends LuceneTestCase {
+	
+	private LatinStemLookup build(int threads) throws Exception {
+		LatinStemLookup lookup = new LatinStemLookup(new MockAnalyzer(random()), new LatinStemmer(), threads);
+		lookup.build(new PlainTextDictionary(new StringReader("amicus amicorum\namicitia\namicorum rosa\namo\n")).getEntryIterator());
+		return lookup;
+	}
+	
+	/** Test suggestions ranked by lemma frequency */
+	public void testLookup() throws Exception {
+		LatinStemLookup lookup = build(2);
+		assertResults(lookup.lookup("amic", false, 3), "amicorum", "amicus", "amicitia");
+		// complete form -> forms of its stem
+		assertResults(lookup.lookup("AMICORUM", false, 2), "amicorum", "amicus");
+		assertResults(lookup.lookup("rosis", false, 5), "rosa");
+		assertEquals(0, lookup.lookup("xyz", false, 5).size());
+	}
+	
+	/** Test store and load */
+	public void testStoreAndLoad() throws Exception {
+		LatinStemLookup lookup = build(1);
+		byte[] bytes = new byte[10000];
+		ByteArrayDataOutput output = new ByteArrayDataOutput(bytes);
+		assertTrue(lookup.store(output));
+		
+		LatinStemLookup loaded = new LatinStemLookup(new MockAnalyzer(random()), new LatinStemmer(), 1);
+		assertTrue(loaded.load(new ByteArrayDataInput(bytes, 0, output.getPosition())));
+		assertEquals(lookup.getCount(), loaded.getCount());
+		assertResults(loaded.lookup("amic", false, 3), "amicorum", "amicus", "amicitia");
+	}
+	
+	/** Test the weight fits into 31 bits and ranks the lemma frequency first */
+	public void testWeight() {
+		assertEquals(Integer.MAX_VALUE, LatinStemLookup.weight(Long.MAX_VALUE, Long.MAX_VALUE));
+		assertTrue(LatinStemLookup.weight(2, 0) > LatinStemLookup.weight(1, Long.MAX_VALUE));
+		assertTrue(LatinStemLookup.weight(1, 2) > LatinStemLookup.weight(1, 1));
+	}
+	
+	private static void assertResults(List<LookupResult> results, String... expected) {
+		assertEquals(expected.length, results.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], results.get(i).key.toString());
+		}
+	}
+}
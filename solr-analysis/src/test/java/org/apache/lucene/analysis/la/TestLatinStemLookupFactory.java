@@ -0,0 +1,71 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+
+import org.apache.lucene.search.spell.PlainTextDictionary;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinStemLookupFactory}
+ */
+public class TestLatinStemLookupFactory extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+	}
+	
+	private Lookup create(String... params) throws Exception {
+		NamedList<Object> args = new NamedList<Object>();
+		args.add(LatinStemLookupFactory.QUERY_ANALYZER, "text_la_tokens");
+		args.add(LatinStemLookupFactory.BUILD_THREADS, "1");
+		for (int i = 0; i < params.length; i += 2) {
+			args.add(params[i], params[i + 1]);
+		}
+		Lookup lookup = new LatinStemLookupFactory().create(args, h.getCore());
+		lookup.build(new PlainTextDictionary(new StringReader("rosa\namicus\n")).getEntryIterator());
+		return lookup;
+	}
+	
+	/** Test the built-in rules */
+	public void testDefaultStemmer() throws Exception {
+		Lookup lookup = create();
+		assertEquals(1, lookup.lookup("rosis", false, 5).size());
+		assertEquals("rosa", lookup.lookup("rosis", false, 5).get(0).key.toString());
+	}
+	
+	/** Test the stemmer of the field type stemFieldType */
+	public void testStemFieldType() throws Exception {
+		Lookup lookup = create(LatinStemLookupFactory.STEM_FIELD_TYPE, "text_la_rules");
+		// no rule for 'is'
+		assertEquals(0, lookup.lookup("rosis", false, 5).size());
+		assertEquals("rosa", lookup.lookup("rosae", false, 5).get(0).key.toString());
+		
+		try {
+			create(LatinStemLookupFactory.STEM_FIELD_TYPE, "text_la_light");
+			fail("field type without LatinStemFilterFactory accepted");
+		} catch (SolrException expected) {
+		}
+	}
+}
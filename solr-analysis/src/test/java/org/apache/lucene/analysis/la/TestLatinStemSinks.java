@@ -0,0 +1,43 @@
+package org.apache.lucene.analysis.la;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringReader;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+
+/**
+ * Simple tests for {@link LatinStemSinks}
+ */
+public class TestLatinStemSinks extends BaseTokenStreamTestCase {
+	
+	public void testNounAndVerbSinks() throws Exception {
+		MockTokenizer mockTokenizer = new MockTokenizer(MockTokenizer.WHITESPACE, false);
+		mockTokenizer.setReader(new StringReader("adultero filius atque"));
+		// the sinks clone the attributes of the chain, they need the check attribute of assertTokenStreamContents
+		mockTokenizer.addAttribute(CheckClearAttributesAttribute.class);
+		LatinStemSinks sinks = new LatinStemSinks(mockTokenizer, new LatinStemmer());
+		sinks.consumeAllTokens();
+		
+		assertTokenStreamContents(sinks.getNounSink(), new String[] {"adulter", "fil", "atque"}, new int[] {0, 9, 16}, new int[] {8, 15, 21},
+				new String[] {LatinStemFilter.TYPE_NOUN, LatinStemFilter.TYPE_NOUN, LatinStemFilter.TYPE_NOUN}, new int[] {1, 1, 1});
+		assertTokenStreamContents(sinks.getVerbSink(), new String[] {"adulteri", "filiu", "atque"}, new int[] {0, 9, 16}, new int[] {8, 15, 21},
+				new String[] {LatinStemFilter.TYPE_VERB, LatinStemFilter.TYPE_VERB, LatinStemFilter.TYPE_VERB}, new int[] {1, 1, 1});
+	}
+}
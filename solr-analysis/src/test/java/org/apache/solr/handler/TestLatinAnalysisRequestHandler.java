@@ -0,0 +1,85 @@
+package org.apache.solr.handler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Collections;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.ContentStream;
+import org.apache.solr.common.util.ContentStreamBase;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrQueryRequestBase;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinAnalysisRequestHandler}
+ */
+public class TestLatinAnalysisRequestHandler extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+	}
+
+	public void testTextParameters() {
+		assertQ(req("qt", "/analysis/latin", "text", "rosarum", "text", "filius")
+				, "count(//arr[@name='analysis']/arr)=2"
+				, "//arr[@name='analysis']/arr[1]/lst[1]/str[@name='text'][.='ros']"
+				, "//arr[@name='analysis']/arr[1]/lst[1]/str[@name='type'][.='LATIN_NOUN']"
+				, "//arr[@name='analysis']/arr[1]/lst[1]/int[@name='flags'][.='1']"
+				, "//arr[@name='analysis']/arr[1]/lst[2]/str[@name='text'][.='rosaru']"
+				, "//arr[@name='analysis']/arr[1]/lst[2]/int[@name='position'][.='1']"
+				, "//arr[@name='analysis']/arr[2]/lst[1]/str[@name='text'][.='fil']"
+				, "//arr[@name='analysis']/arr[2]/lst[2]/str[@name='text'][.='filiu']"
+		);
+	}
+
+	public void testNumerals() {
+		assertQ(req("qt", "/analysis/latin", "fieldType", "text_la_number", "text", "anno MCMXCIX")
+				, "//arr[@name='analysis']/arr[1]/lst[2]/str[@name='text'][.='1999']"
+				, "//arr[@name='analysis']/arr[1]/lst[2]/int[@name='start'][.='5']"
+				, "//arr[@name='analysis']/arr[1]/lst[2]/int[@name='position'][.='2']"
+				// no FlagsAttribute in this chain
+				, "count(//arr[@name='analysis']/arr[1]/lst/int[@name='flags'])=0"
+		);
+	}
+
+	/** one string per line of the request body, after the text parameters */
+	public void testContentStream() {
+		SolrQueryRequest req = req("qt", "/analysis/latin", "fieldType", "text_la_dedup", "text", "atque");
+		((SolrQueryRequestBase) req).setContentStreams(Collections.<ContentStream>singletonList(
+				new ContentStreamBase.StringStream("rosa\n\nregibus")));
+		assertQ(req
+				, "count(//arr[@name='analysis']/arr)=4"
+				, "//arr[@name='analysis']/arr[1]/lst[1]/str[@name='type'][.='LATIN_NOUN_VERB']"
+				, "//arr[@name='analysis']/arr[2]/lst[1]/str[@name='text'][.='ros']"
+				, "count(//arr[@name='analysis']/arr[3]/lst)=0"
+				, "//arr[@name='analysis']/arr[4]/lst[1]/str[@name='text'][.='reg']"
+		);
+	}
+
+	public void testUnknownFieldType() {
+		try {
+			h.query(req("qt", "/analysis/latin", "fieldType", "unknown", "text", "rosa"));
+			fail("unknown field type accepted");
+		} catch (Exception e) {
+			assertTrue(e.toString(), e instanceof SolrException);
+		}
+	}
+}
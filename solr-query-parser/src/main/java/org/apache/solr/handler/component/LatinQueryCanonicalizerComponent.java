@@ -0,0 +1,223 @@
+package org.apache.solr.handler.component;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * Rewrites the parsed query and filter queries into a canonical form before <code>queryResultCache</code> 
+ * and <code>filterCache</code> are looked up, so queries that only differ in the order of their clauses
+ * (e.g. the stacked noun and verb stem of a word, or the words of a query) share their cache entries.<br/>
+ * The clauses of boolean queries are sorted, boolean and disjunction max queries (e.g. edismax) are rewritten
+ * recursively. This does not change the documents a query matches.<br/>
+ * By default inflected forms of a word do <b>not</b> share cache entries: "rosa", "rosae" and "rosarum" share their 
+ * noun stem <code>ros</code>, but not their verb stems (<code>rosa</code>, <code>rosae</code>, <code>rosaru</code>),
+ * and both stems are kept because dropping one changes the results.<br/>
+ * <code>LatinStemFilterFactory</code> emits a noun and a stacked verb stem for every word, which the query parser
+ * turns into a coord disabled {@link BooleanQuery} of two SHOULD clauses (e.g. <code>amat ama</code>).
+ * With <code>nounStemOnly</code> such a group of one of the configured <code>fields</code> is replaced by the 
+ * noun stem alone, so inflected variants sharing the noun stem ("rosa", "rosae", "rosarum") share their cache entries.
+ * <b>This changes the results</b>: all matches that only come through the verb stem are lost, e.g. "amat" 
+ * (noun stem <code>amat</code>, verb stem <code>ama</code>) no longer matches "amant" or "amas". 
+ * It is off by default.
+ * <pre class="prettyprint" >
+ * &lt;searchComponent name="latinCanonicalizer" class="org.apache.solr.handler.component.LatinQueryCanonicalizerComponent"&gt;
+ *   &lt;!-- optional, lossy --&gt;
+ *   &lt;bool name="nounStemOnly"&gt;true&lt;/bool&gt;
+ *   &lt;str name="fields"&gt;latinText,latinTitle&lt;/str&gt;
+ * &lt;/searchComponent&gt;
+ *
+ * &lt;requestHandler name="/select" class="solr.SearchHandler"&gt;
+ *   &lt;arr name="last-components"&gt;
+ *     &lt;str&gt;latinCanonicalizer&lt;/str&gt;
+ *   &lt;/arr&gt;
+ * &lt;/requestHandler&gt;</pre>
+ * The component has to run after the query component parsed the query (<code>last-components</code>),
+ * its <code>prepare</code> still runs before the query component searches.
+ * It can be switched off per request with <code>latin.canonicalize=false</code>.
+ * @author Markus Klose
+ */
+public class LatinQueryCanonicalizerComponent extends SearchComponent {
+
+	/** request parameter to switch the component off */
+	public static final String PARAM_CANONICALIZE = "latin.canonicalize";
+
+	/** replace stem groups by their noun stem (lossy) */
+	private boolean nounStemOnly;
+
+	/** fields analyzed with LatinStemFilterFactory, only used with nounStemOnly */
+	private final Set<String> fields = new HashSet<String>();
+
+	/** clause ordered by its string representation, computed once */
+	private static final class SortableClause implements Comparable<SortableClause> {
+		final BooleanClause clause;
+		final String key;
+
+		SortableClause(BooleanClause clause) {
+			this.clause = clause;
+			this.key = clause.toString();
+		}
+
+		@Override
+		public int compareTo(SortableClause other) {
+			return key.compareTo(other.key);
+		}
+	}
+
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		super.init(args);
+		Object nounStemOnlyArg = args.get("nounStemOnly");
+		nounStemOnly = nounStemOnlyArg != null && Boolean.parseBoolean(nounStemOnlyArg.toString());
+		if (!nounStemOnly) {
+			return;
+		}
+		Object value = args.get("fields");
+		if (!(value instanceof String) || ((String) value).trim().length() == 0) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "'fields' must be configured as non empty string with 'nounStemOnly'");
+		}
+		for (String field : ((String) value).split(",")) {
+			if (field.trim().length() > 0) {
+				fields.add(field.trim());
+			}
+		}
+	}
+
+	@Override
+	public void prepare(ResponseBuilder rb) throws IOException {
+		if (!rb.req.getParams().getBool(PARAM_CANONICALIZE, true)) {
+			return;
+		}
+		if (rb.getQuery() != null) {
+			rb.setQuery(canonicalize(rb.getQuery()));
+		}
+		if (rb.getFilters() != null) {
+			List<Query> filters = new ArrayList<Query>(rb.getFilters().size());
+			for (Query filter : rb.getFilters()) {
+				filters.add(canonicalize(filter));
+			}
+			rb.setFilters(filters);
+		}
+	}
+
+	@Override
+	public void process(ResponseBuilder rb) throws IOException {
+		// all work is done in prepare
+	}
+
+	/**
+	 * rewrite a query into its canonical form.
+	 * @param query
+	 * 	the query
+	 * @return
+	 * 	the canonical query, the query itself if there is nothing to rewrite
+	 */
+	Query canonicalize(Query query) {
+		if (query instanceof DisjunctionMaxQuery) {
+			// e.g. edismax
+			DisjunctionMaxQuery disjunctionMaxQuery = (DisjunctionMaxQuery) query;
+			List<Query> disjuncts = new ArrayList<Query>(disjunctionMaxQuery.getDisjuncts().size());
+			for (Query disjunct : disjunctionMaxQuery.getDisjuncts()) {
+				disjuncts.add(canonicalize(disjunct));
+			}
+			DisjunctionMaxQuery canonical = new DisjunctionMaxQuery(disjuncts, disjunctionMaxQuery.getTieBreakerMultiplier());
+			canonical.setBoost(disjunctionMaxQuery.getBoost());
+			return canonical;
+		}
+		if (!(query instanceof BooleanQuery)) {
+			return query;
+		}
+		BooleanQuery booleanQuery = (BooleanQuery) query;
+
+		// noun and verb stem of one word
+		if (nounStemOnly) {
+			Query nounStem = getNounStem(booleanQuery);
+			if (nounStem != null) {
+				return nounStem;
+			}
+		}
+
+		List<SortableClause> clauses = new ArrayList<SortableClause>(booleanQuery.clauses().size());
+		for (BooleanClause clause : booleanQuery.clauses()) {
+			clauses.add(new SortableClause(new BooleanClause(canonicalize(clause.getQuery()), clause.getOccur())));
+		}
+		Collections.sort(clauses);
+
+		BooleanQuery canonical = new BooleanQuery(booleanQuery.isCoordDisabled());
+		for (SortableClause clause : clauses) {
+			canonical.add(clause.clause);
+		}
+		canonical.setMinimumNumberShouldMatch(booleanQuery.getMinimumNumberShouldMatch());
+		canonical.setBoost(booleanQuery.getBoost());
+		return canonical;
+	}
+
+	/**
+	 * check for the stacked noun and verb stem of a single word.
+	 * @param query
+	 * 	boolean query
+	 * @return
+	 * 	query of the noun stem, null if the query is no stem group of a configured field
+	 */
+	private Query getNounStem(BooleanQuery query) {
+		List<BooleanClause> clauses = query.clauses();
+		if (!query.isCoordDisabled() || clauses.size() != 2 || query.getMinimumNumberShouldMatch() > 0) {
+			return null;
+		}
+		String field = null;
+		for (BooleanClause clause : clauses) {
+			if (clause.getOccur() != BooleanClause.Occur.SHOULD || !(clause.getQuery() instanceof TermQuery)
+					|| clause.getQuery().getBoost() != 1f) {
+				return null;
+			}
+			String clauseField = ((TermQuery) clause.getQuery()).getTerm().field();
+			if (!fields.contains(clauseField) || (field != null && !field.equals(clauseField))) {
+				return null;
+			}
+			field = clauseField;
+		}
+		// the noun stem is emitted first
+		TermQuery nounStem = new TermQuery(((TermQuery) clauses.get(0).getQuery()).getTerm());
+		nounStem.setBoost(query.getBoost());
+		return nounStem;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Rewrites queries on Latin fields into a canonical stem based form";
+	}
+
+	@Override
+	public String getSource() {
+		return null;
+	}
+}
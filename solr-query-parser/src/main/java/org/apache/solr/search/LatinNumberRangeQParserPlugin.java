@@ -0,0 +1,199 @@
+package org.apache.solr.search;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.la.LatinNumberConvertFilterFactory;
+import org.apache.lucene.analysis.la.LatinNumberConverter;
+import org.apache.lucene.analysis.la.LatinNumberNormalizer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.schema.SchemaField;
+
+/**
+ * Query parser for numeric ranges with Roman numeral bounds, e.g. <code>annus:[MD TO MDCC]</code>.
+ * The bounds are normalized ({@link LatinNumberNormalizer}), converted ({@link LatinNumberConverter}) and
+ * searched as numeric range on a numeric (e.g. trie) field instead of a lexicographic term range on text.
+ * Arabic numbers and <code>*</code> are accepted as bounds as well, a single numeral searches its value.
+ * <pre class="prettyprint" >
+ * &lt;queryParser name="latinRange" class="org.apache.solr.search.LatinNumberRangeQParserPlugin"&gt;
+ *   &lt;bool name="strictMode"&gt;true&lt;/bool&gt;
+ *   &lt;lst name="fields"&gt;
+ *     &lt;str name="annus"&gt;annus_i&lt;/str&gt;
+ *   &lt;/lst&gt;
+ * &lt;/queryParser&gt;</pre>
+ * Usage: <code>fq={!latinRange}annus:[MD TO MDCC]</code> or <code>q={!latinRange f=annus_i strictMode=false}{MD TO *]</code>.<br/>
+ * The optional <code>fields</code> map the field names used in queries to the numeric fields holding the converted values.<br/>
+ * A text field whose index analyzer contains a {@link LatinNumberConvertFilterFactory} with a <code>precisionStep</code>
+ * holds the values as trie terms and is searched with a {@link NumericRangeQuery} of that precision step as well.
+ * @author Markus Klose
+ */
+public class LatinNumberRangeQParserPlugin extends QParserPlugin {
+
+	/** parameter names */
+	public static final String STRICT_MODE = "strictMode";
+	public static final String FIELDS = "fields";
+
+	/** <code>[field:]('['|'{') lower TO upper (']'|'}')</code> or <code>[field:]value</code> */
+	private static final Pattern RANGE = Pattern.compile("^\\s*(?:([^\\s:\\[\\{]+):)?\\s*([\\[\\{])\\s*(\\S+)\\s+TO\\s+(\\S+)\\s*([\\]\\}])\\s*$");
+	private static final Pattern VALUE = Pattern.compile("^\\s*(?:([^\\s:\\[\\{]+):)?\\s*([^\\s:\\[\\{\\]\\}]+)\\s*$");
+
+	/** configuration */
+	private boolean strictMode = false;
+	private final Map<String, String> fields = new HashMap<String, String>();
+
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		if (args == null) {
+			return;
+		}
+		Object strict = args.get(STRICT_MODE);
+		if (strict != null) {
+			strictMode = Boolean.parseBoolean(strict.toString());
+		}
+		Object mapping = args.get(FIELDS);
+		if (mapping instanceof NamedList) {
+			NamedList<?> fieldMapping = (NamedList<?>) mapping;
+			for (int i = 0; i < fieldMapping.size(); i++) {
+				fields.put(fieldMapping.getName(i), fieldMapping.getVal(i).toString());
+			}
+		}
+	}
+
+	@Override
+	public QParser createParser(String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest req) {
+		return new QParser(qstr, localParams, params, req) {
+			@Override
+			public Query parse() throws SyntaxError {
+				String field;
+				String lower;
+				String upper;
+				boolean lowerInclusive = true;
+				boolean upperInclusive = true;
+
+				Matcher range = RANGE.matcher(qstr);
+				Matcher value = VALUE.matcher(qstr);
+				if (range.matches()) {
+					field = range.group(1);
+					lowerInclusive = "[".equals(range.group(2));
+					lower = range.group(3);
+					upper = range.group(4);
+					upperInclusive = "]".equals(range.group(5));
+				} else if (value.matches()) {
+					field = value.group(1);
+					lower = value.group(2);
+					upper = lower;
+				} else {
+					throw new SyntaxError("Expected '[field:][lower TO upper]' or '[field:]value' but was: " + qstr);
+				}
+
+				if (field == null) {
+					field = getParam(CommonParams.FIELD);
+				}
+				if (field == null) {
+					throw new SyntaxError("No field given for Roman numeral range: " + qstr);
+				}
+				if (fields.containsKey(field)) {
+					field = fields.get(field);
+				}
+				SchemaField schemaField = req.getSchema().getField(field);
+				int precisionStep = getTriePrecisionStep(schemaField);
+				if (schemaField.getType().getNumericType() == null && precisionStep == 0) {
+					throw new SyntaxError("Field '" + field + "' is not numeric");
+				}
+
+				LatinNumberConverter converter = new LatinNumberConverter(localParams != null ?
+						localParams.getBool(STRICT_MODE, strictMode) : strictMode);
+				String lowerValue = toArabic(converter, lower);
+				String upperValue = toArabic(converter, upper);
+				try {
+					if (precisionStep > 0) {
+						return NumericRangeQuery.newLongRange(field, precisionStep,
+								lowerValue == null ? null : Long.valueOf(lowerValue), upperValue == null ? null : Long.valueOf(upperValue),
+								lowerInclusive, upperInclusive);
+					}
+					return schemaField.getType().getRangeQuery(this, schemaField, lowerValue, upperValue, lowerInclusive, upperInclusive);
+				} catch (NumberFormatException e) {
+					// all digits, but too large for the field
+					throw new SyntaxError("Number out of range for field '" + field + "': " + qstr, e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * find the precision step of a text field with trie encoded Roman numerals.
+	 * @param schemaField
+	 * 	field to search
+	 * @return
+	 * 	precision step of the {@link LatinNumberConvertFilterFactory} in the index analyzer of the field, 0 if none
+	 */
+	static int getTriePrecisionStep(SchemaField schemaField) {
+		Analyzer analyzer = schemaField.getType().getIndexAnalyzer();
+		if (!(analyzer instanceof TokenizerChain)) {
+			return 0;
+		}
+		for (TokenFilterFactory filterFactory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+			if (filterFactory instanceof LatinNumberConvertFilterFactory) {
+				return ((LatinNumberConvertFilterFactory) filterFactory).getPrecisionStep();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * convert a bound of the range.
+	 * @param converter
+	 * 	number converter
+	 * @param bound
+	 * 	Roman numeral, arabic number or '*'
+	 * @return
+	 * 	arabic number, null for an open bound
+	 * @throws SyntaxError
+	 * 	if the bound is no valid number
+	 */
+	static String toArabic(LatinNumberConverter converter, String bound) throws SyntaxError {
+		if ("*".equals(bound)) {
+			return null;
+		}
+		boolean digits = true;
+		for (int i = 0; i < bound.length() && digits; i++) {
+			digits = Character.isDigit(bound.charAt(i));
+		}
+		if (digits) {
+			return bound;
+		}
+		String normalized = new LatinNumberNormalizer().format(bound.toCharArray(), bound.length());
+		String arabic = converter.format(normalized.toCharArray(), normalized.length());
+		if (arabic == null) {
+			throw new SyntaxError("'" + bound + "' is no valid Roman numeral");
+		}
+		return arabic;
+	}
+}
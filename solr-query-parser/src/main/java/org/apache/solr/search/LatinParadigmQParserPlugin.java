@@ -0,0 +1,235 @@
+package org.apache.solr.search;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.la.LatinParadigmExpansionFilter;
+import org.apache.lucene.analysis.la.LatinParadigmExpansionFilterFactory;
+import org.apache.lucene.analysis.la.LatinParadigms;
+import org.apache.lucene.analysis.la.LatinStemFilterFactory;
+import org.apache.lucene.analysis.la.LatinStemmer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.QueryBuilder;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.SchemaField;
+
+/**
+ * Query parser for Latin fields indexed without stemming: the words of the query are expanded to their inflected
+ * forms ({@link LatinParadigmExpansionFilter}) and only the forms found in the term dictionary of the field are searched,
+ * e.g. <code>rosarum</code> becomes <code>rosarum rosa rosae rosis</code>. Changed stem rules take effect without a reindex.
+ * <pre class="prettyprint" >
+ * &lt;queryParser name="latinParadigm" class="org.apache.solr.search.LatinParadigmQParserPlugin"&gt;
+ *   &lt;int name="maxExpansions"&gt;64&lt;/int&gt;
+ *   &lt;str name="stemFieldType"&gt;text_la&lt;/str&gt;
+ * &lt;/queryParser&gt;</pre>
+ * Usage: <code>q={!latinParadigm f=latinForms q.op=AND}rosarum amicorum</code>.<br/>
+ * The words are analyzed with the query analyzer of the field, which must not stem and has to normalize 'v' and 'j'
+ * like the index analyzer (see {@link LatinParadigmExpansionFilter}). The forms of a word are combined as SHOULD clauses,
+ * the words by <code>q.op</code> (default OR).<br/>
+ * If the query analyzer contains a {@link LatinParadigmExpansionFilterFactory}, its filter is replaced by one with the
+ * same paradigms reading the terms of the field. Otherwise the filter is appended to the analyzer, with the paradigms of
+ * the {@link LatinStemFilterFactory} in the field type <code>stemFieldType</code> (rules file, managed 'que' exceptions
+ * and stem overrides) or of the built-in rules if no <code>stemFieldType</code> is configured.
+ * @author Markus Klose
+ */
+public class LatinParadigmQParserPlugin extends QParserPlugin {
+
+	/** parameter names */
+	public static final String MAX_EXPANSIONS = "maxExpansions";
+	public static final String STEM_FIELD_TYPE = "stemFieldType";
+
+	/** configuration */
+	private int maxExpansions = LatinParadigmExpansionFilter.DEFAULT_MAX_EXPANSIONS;
+	private String stemFieldType;
+
+	/** form generator of the built-in rules */
+	private final LatinParadigms defaultParadigms = new LatinParadigms(new LatinStemmer());
+
+	/** form generator of the stemmer of stemFieldType, rebuilt when the schema is reloaded */
+	private LatinStemmer stemmer;
+	private LatinParadigms stemmerParadigms;
+
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		if (args == null) {
+			return;
+		}
+		Object max = args.get(MAX_EXPANSIONS);
+		if (max != null) {
+			maxExpansions = Integer.parseInt(max.toString());
+		}
+		Object fieldType = args.get(STEM_FIELD_TYPE);
+		if (fieldType != null) {
+			stemFieldType = fieldType.toString();
+		}
+	}
+
+	@Override
+	public QParser createParser(String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest req) {
+		return new QParser(qstr, localParams, params, req) {
+			@Override
+			public Query parse() throws SyntaxError {
+				String field = getParam(CommonParams.FIELD);
+				if (field == null) {
+					field = getParam(CommonParams.DF);
+				}
+				if (field == null) {
+					throw new SyntaxError("No field given for Latin paradigm query: " + qstr);
+				}
+				SchemaField schemaField = req.getSchema().getField(field);
+				BooleanClause.Occur operator = "AND".equals(getParam(QueryParsing.OP)) ? BooleanClause.Occur.MUST : BooleanClause.Occur.SHOULD;
+				int max = localParams != null ? localParams.getInt(MAX_EXPANSIONS, maxExpansions) : maxExpansions;
+
+				Terms terms;
+				try {
+					terms = MultiFields.getTerms(req.getSearcher().getIndexReader(), field);
+				} catch (IOException e) {
+					throw new SyntaxError("Unable to read the terms of field '" + field + "'", e);
+				}
+				Analyzer analyzer = getExpandingAnalyzer(schemaField.getType().getQueryAnalyzer(), req.getSchema(), terms, max);
+				Query query = new QueryBuilder(analyzer).createBooleanQuery(field, qstr, operator);
+				// no words or only stop words
+				return query != null ? query : new BooleanQuery();
+			}
+		};
+	}
+
+	/**
+	 * the query analyzer of the field with a {@link LatinParadigmExpansionFilter} reading the terms of the field.
+	 * @param analyzer
+	 * 	query analyzer of the field
+	 * @param schema
+	 * 	current schema
+	 * @param terms
+	 * 	terms of the field
+	 * @param maxExpansions
+	 * 	maximum number of forms per word
+	 * @return
+	 * 	the analyzer expanding the words, with exactly one expansion filter
+	 */
+	private Analyzer getExpandingAnalyzer(Analyzer analyzer, IndexSchema schema, Terms terms, int maxExpansions) {
+		if (analyzer instanceof TokenizerChain) {
+			TokenizerChain chain = (TokenizerChain) analyzer;
+			TokenFilterFactory[] filterFactories = chain.getTokenFilterFactories().clone();
+			for (int i = 0; i < filterFactories.length; i++) {
+				if (filterFactories[i] instanceof LatinParadigmExpansionFilterFactory) {
+					LatinParadigms paradigms = ((LatinParadigmExpansionFilterFactory) filterFactories[i]).getParadigms();
+					filterFactories[i] = new ExpansionFilterFactory(paradigms, terms, maxExpansions);
+					return new TokenizerChain(chain.getCharFilterFactories(), chain.getTokenizerFactory(), filterFactories);
+				}
+			}
+		}
+		return new ExpandingAnalyzer(analyzer, getParadigms(schema), terms, maxExpansions);
+	}
+
+	/**
+	 * @param schema
+	 * 	current schema
+	 * @return
+	 * 	form generator of the stemmer of <code>stemFieldType</code>, of the built-in rules if not configured
+	 */
+	private synchronized LatinParadigms getParadigms(IndexSchema schema) {
+		if (stemFieldType == null) {
+			return defaultParadigms;
+		}
+		FieldType fieldType = schema.getFieldTypeByName(stemFieldType);
+		Analyzer analyzer = fieldType != null ? fieldType.getIndexAnalyzer() : null;
+		if (analyzer instanceof TokenizerChain) {
+			for (TokenFilterFactory filterFactory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+				if (filterFactory instanceof LatinStemFilterFactory) {
+					LatinStemmer fieldStemmer = ((LatinStemFilterFactory) filterFactory).getStemmer();
+					if (fieldStemmer != stemmer) {
+						stemmer = fieldStemmer;
+						stemmerParadigms = new LatinParadigms(fieldStemmer);
+					}
+					return stemmerParadigms;
+				}
+			}
+		}
+		throw new SolrException(ErrorCode.SERVER_ERROR, "Field type '" + stemFieldType + "' (" + STEM_FIELD_TYPE
+				+ ") does not exist or has no LatinStemFilterFactory");
+	}
+
+	/**
+	 * creates the {@link LatinParadigmExpansionFilter} in place of a {@link LatinParadigmExpansionFilterFactory}.
+	 */
+	private static final class ExpansionFilterFactory extends TokenFilterFactory {
+		private final LatinParadigms paradigms;
+		private final Terms terms;
+		private final int maxExpansions;
+
+		ExpansionFilterFactory(LatinParadigms paradigms, Terms terms, int maxExpansions) {
+			super(new HashMap<String, String>());
+			this.paradigms = paradigms;
+			this.terms = terms;
+			this.maxExpansions = maxExpansions;
+		}
+
+		@Override
+		public TokenStream create(TokenStream input) {
+			return new LatinParadigmExpansionFilter(input, paradigms, terms, maxExpansions);
+		}
+	}
+
+	/**
+	 * appends the {@link LatinParadigmExpansionFilter} to the query analyzer of the field.
+	 */
+	private static final class ExpandingAnalyzer extends AnalyzerWrapper {
+		private final Analyzer analyzer;
+		private final LatinParadigms paradigms;
+		private final Terms terms;
+		private final int maxExpansions;
+
+		ExpandingAnalyzer(Analyzer analyzer, LatinParadigms paradigms, Terms terms, int maxExpansions) {
+			super(analyzer.getReuseStrategy());
+			this.analyzer = analyzer;
+			this.paradigms = paradigms;
+			this.terms = terms;
+			this.maxExpansions = maxExpansions;
+		}
+
+		@Override
+		protected Analyzer getWrappedAnalyzer(String fieldName) {
+			return analyzer;
+		}
+
+		@Override
+		protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+			return new TokenStreamComponents(components.getTokenizer(),
+					new LatinParadigmExpansionFilter(components.getTokenStream(), paradigms, terms, maxExpansions));
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package org.apache.solr.handler.component;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * Tests for {@link LatinQueryCanonicalizerComponent}
+ */
+public class TestLatinQueryCanonicalizerComponent extends LuceneTestCase {
+
+	/** by default stem groups keep both stems, only the clause order is normalized */
+	public void testKeepsStemGroups() {
+		LatinQueryCanonicalizerComponent component = component(null);
+		Query canonical = component.canonicalize(stemGroup("latinText", "amat", "ama"));
+		assertEquals(stemGroup("latinText", "ama", "amat"), canonical);
+		assertEquals(canonical, component.canonicalize(stemGroup("latinText", "ama", "amat")));
+	}
+
+	public void testWordOrder() {
+		LatinQueryCanonicalizerComponent component = component(null);
+		BooleanQuery query1 = new BooleanQuery();
+		query1.add(stemGroup("latinText", "ros", "rosa"), Occur.MUST);
+		query1.add(new TermQuery(new Term("latinText", "fil")), Occur.MUST);
+		BooleanQuery query2 = new BooleanQuery();
+		query2.add(new TermQuery(new Term("latinText", "fil")), Occur.MUST);
+		query2.add(stemGroup("latinText", "rosa", "ros"), Occur.MUST);
+		assertFalse(query1.equals(query2));
+		assertEquals(component.canonicalize(query1), component.canonicalize(query2));
+
+		// minimum should match and boosts are kept
+		query1.setMinimumNumberShouldMatch(1);
+		query1.setBoost(2f);
+		BooleanQuery canonical = (BooleanQuery) component.canonicalize(query1);
+		assertEquals(1, canonical.getMinimumNumberShouldMatch());
+		assertEquals(2f, canonical.getBoost(), 0f);
+	}
+
+	public void testDisjunctionMax() {
+		LatinQueryCanonicalizerComponent component = component(null);
+		DisjunctionMaxQuery query = new DisjunctionMaxQuery(Arrays.<Query>asList(
+				stemGroup("latinText", "rosa", "ros"), stemGroup("latinTitle", "rosa", "ros")), 0.1f);
+		DisjunctionMaxQuery canonical = (DisjunctionMaxQuery) component.canonicalize(query);
+		assertEquals(0.1f, canonical.getTieBreakerMultiplier(), 0f);
+		assertEquals(Arrays.<Query>asList(stemGroup("latinText", "ros", "rosa"), stemGroup("latinTitle", "ros", "rosa")), 
+				canonical.getDisjuncts());
+	}
+
+	/** the lossy opt-in collapses stem groups of the configured fields to the noun stem */
+	public void testNounStemOnly() {
+		LatinQueryCanonicalizerComponent component = component("latinText");
+		assertEquals(new TermQuery(new Term("latinText", "amat")), component.canonicalize(stemGroup("latinText", "amat", "ama")));
+		// other fields, required clauses and more than two clauses are no stem groups
+		assertEquals(stemGroup("latinTitle", "ama", "amat"), component.canonicalize(stemGroup("latinTitle", "amat", "ama")));
+		BooleanQuery required = new BooleanQuery(true);
+		required.add(new TermQuery(new Term("latinText", "amat")), Occur.MUST);
+		required.add(new TermQuery(new Term("latinText", "ama")), Occur.MUST);
+		assertTrue(component.canonicalize(required) instanceof BooleanQuery);
+	}
+
+	public void testNounStemOnlyRequiresFields() {
+		NamedList<Object> args = new NamedList<Object>();
+		args.add("nounStemOnly", Boolean.TRUE);
+		try {
+			new LatinQueryCanonicalizerComponent().init(args);
+			fail("missing fields accepted");
+		} catch (SolrException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * @param fields
+	 * 	fields for nounStemOnly, null for the default configuration
+	 */
+	private static LatinQueryCanonicalizerComponent component(String fields) {
+		NamedList<Object> args = new NamedList<Object>();
+		if (fields != null) {
+			args.add("nounStemOnly", Boolean.TRUE);
+			args.add("fields", fields);
+		}
+		LatinQueryCanonicalizerComponent component = new LatinQueryCanonicalizerComponent();
+		component.init(args);
+		return component;
+	}
+
+	/** stacked noun and verb stem as built by the query parser */
+	private static BooleanQuery stemGroup(String field, String stem1, String stem2) {
+		BooleanQuery group = new BooleanQuery(true);
+		group.add(new TermQuery(new Term(field, stem1)), Occur.SHOULD);
+		group.add(new TermQuery(new Term(field, stem2)), Occur.SHOULD);
+		return group;
+	}
+}
@@ -0,0 +1,152 @@
+package org.apache.solr.search;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinNumberRangeQParserPlugin}
+ */
+public class TestLatinNumberRangeQParserPlugin extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+		assertU(adoc("id", "1", "annus_i", "1500", "annusTrie", "MD", "annusText", "MD"));
+		assertU(adoc("id", "2", "annus_i", "1700", "annusTrie", "MDCC", "annusText", "MDCC"));
+		assertU(adoc("id", "3", "annus_i", "1999", "annusTrie", "MCMXCIX", "annusText", "MCMXCIX"));
+		assertU(adoc("id", "4", "annus_i", "99", "annusTrie", "XCIX", "annusText", "XCIX"));
+		assertU(commit());
+	}
+
+	public void testRange() {
+		assertQ(req("q", "{!latinRange}annus_i:[MD TO MDCC]")
+				, "//result[@numFound='2']"
+				, "//str[@name='id'][.='1']"
+				, "//str[@name='id'][.='2']"
+		);
+		// blanks around the brackets and bounds
+		assertQ(req("q", "{!latinRange} annus_i: [ md  TO  mdcc ] ")
+				, "//result[@numFound='2']"
+		);
+		// arabic bounds
+		assertQ(req("q", "{!latinRange}annus_i:[1500 TO MDCC]")
+				, "//result[@numFound='2']"
+		);
+	}
+
+	public void testExclusiveBounds() {
+		assertQ(req("q", "{!latinRange}annus_i:{MD TO MDCC]")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='2']"
+		);
+		assertQ(req("q", "{!latinRange}annus_i:[MD TO MDCC}")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='1']"
+		);
+	}
+
+	public void testOpenBounds() {
+		assertQ(req("q", "{!latinRange}annus_i:[MDCC TO *]")
+				, "//result[@numFound='2']"
+				, "//str[@name='id'][.='2']"
+				, "//str[@name='id'][.='3']"
+		);
+		assertQ(req("q", "{!latinRange}annus_i:[* TO C}")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='4']"
+		);
+		assertQ(req("q", "{!latinRange}annus_i:[* TO *]")
+				, "//result[@numFound='4']"
+		);
+	}
+
+	public void testValue() {
+		assertQ(req("q", "{!latinRange}annus_i:mcmxcix")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='3']"
+		);
+		// field from the local params
+		assertQ(req("q", "{!latinRange f=annus_i}MD")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='1']"
+		);
+	}
+
+	/** 'annus' is mapped to 'annus_i' in solrconfig.xml */
+	public void testFieldMapping() {
+		assertQ(req("q", "{!latinRange}annus:[MD TO MDCC]")
+				, "//result[@numFound='2']"
+		);
+		assertQ(req("q", "{!latinRange f=annus}XCIX")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='4']"
+		);
+	}
+
+	/** 'IC' is accepted for 99 unless strictMode is set */
+	public void testStrictMode() throws Exception {
+		assertQ(req("q", "{!latinRange f=annus_i}IC")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='4']"
+		);
+		assertBadRequest("{!latinRange f=annus_i strictMode=true}IC", "'IC' is no valid Roman numeral");
+		assertBadRequest("{!latinRange f=annus_i}[MD TO VX]", "'VX' is no valid Roman numeral");
+	}
+
+	/** text field with trie terms from LatinNumberConvertFilterFactory */
+	public void testTrieTerms() {
+		assertQ(req("q", "{!latinRange}annusTrie:[MD TO MDCC]")
+				, "//result[@numFound='2']"
+				, "//str[@name='id'][.='1']"
+				, "//str[@name='id'][.='2']"
+		);
+		assertQ(req("q", "{!latinRange}annusTrie:{MDCC TO *]")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='3']"
+		);
+		assertQ(req("q", "{!latinRange f=annusTrie}XCIX")
+				, "//result[@numFound='1']"
+				, "//str[@name='id'][.='4']"
+		);
+	}
+
+	public void testErrors() throws Exception {
+		// decimal terms can only be compared lexicographically
+		assertBadRequest("{!latinRange}annusText:[MD TO MDCC]", "Field 'annusText' is not numeric");
+		assertBadRequest("{!latinRange}[MD TO MDCC]", "No field given");
+		assertBadRequest("{!latinRange}annus_i:[MD TO]", "Expected '[field:][lower TO upper]' or '[field:]value'");
+		assertBadRequest("{!latinRange}annus_i:MD MDCC", "Expected '[field:][lower TO upper]' or '[field:]value'");
+		// arabic bounds too large for the field
+		assertBadRequest("{!latinRange}annus_i:[1 TO 99999999999]", "Number out of range for field 'annus_i'");
+		assertBadRequest("{!latinRange}annusTrie:[1 TO 99999999999999999999]", "Number out of range for field 'annusTrie'");
+	}
+
+	/** the query has to fail with a bad request containing the message */
+	private void assertBadRequest(String query, String message) throws Exception {
+		try {
+			h.query(req("q", query));
+			fail("query accepted: " + query);
+		} catch (SolrException e) {
+			assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package org.apache.solr.search;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.index.Term;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.request.SolrQueryRequest;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinParadigmQParserPlugin}
+ */
+public class TestLatinParadigmQParserPlugin extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+		assertU(adoc("id", "1", "latinForms", "rosa", "latinWords", "rosa"));
+		assertU(adoc("id", "2", "latinForms", "rosis", "latinWords", "rosis"));
+		assertU(adoc("id", "3", "latinForms", "rosam", "latinWords", "rosam"));
+		assertU(adoc("id", "4", "latinForms", "filius", "latinWords", "filius"));
+		assertU(commit());
+	}
+
+	/** the LatinParadigmExpansionFilterFactory of the query analyzer is used once, with its rules file */
+	public void testExpansionFilterFactory() throws Exception {
+		assertQ(req("q", "{!latinParadigm f=latinForms}rosarum")
+				, "//result[@numFound='2']"
+				, "//str[@name='id'][.='1']"
+				, "//str[@name='id'][.='2']"
+		);
+		// the word and the indexed forms only, no second expansion of the generated forms
+		assertEquals(terms("latinForms", "rosarum", "rosa", "rosis"), parse("{!latinParadigm f=latinForms}rosarum"));
+	}
+
+	/** fields without the filter factory get the paradigms of stemFieldType */
+	public void testStemFieldType() throws Exception {
+		assertQ(req("q", "{!latinParadigm f=latinWords}rosarum")
+				, "//result[@numFound='2']"
+				, "//str[@name='id'][.='1']"
+				, "//str[@name='id'][.='2']"
+		);
+		assertEquals(terms("latinWords", "rosarum", "rosa", "rosis"), parse("{!latinParadigm f=latinWords}rosarum"));
+	}
+
+	/** the built-in rules know the accusative */
+	public void testDefaultRules() {
+		assertQ(req("q", "{!latinParadigmDefault f=latinWords}rosarum")
+				, "//result[@numFound='3']"
+				, "//str[@name='id'][.='3']"
+		);
+		// field from df
+		assertQ(req("q", "{!latinParadigmDefault}rosa", "df", "latinWords")
+				, "//result[@numFound='3']"
+		);
+	}
+
+	public void testMaxExpansions() throws Exception {
+		// only the word itself
+		assertQ(req("q", "{!latinParadigm f=latinWords maxExpansions=1}rosarum")
+				, "//result[@numFound='0']"
+		);
+		assertEquals(terms("latinWords", "rosarum"), parse("{!latinParadigm f=latinWords maxExpansions=1}rosarum"));
+	}
+
+	public void testNoField() throws Exception {
+		try {
+			h.query(req("q", "{!latinParadigm}rosa"));
+			fail("query without field accepted");
+		} catch (SolrException e) {
+			assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+			assertTrue(e.getMessage(), e.getMessage().contains("No field given"));
+		}
+	}
+
+	/** terms of the parsed query */
+	private static Set<Term> parse(String query) throws Exception {
+		SolrQueryRequest req = req();
+		try {
+			Set<Term> terms = new HashSet<Term>();
+			QParser.getParser(query, null, req).getQuery().extractTerms(terms);
+			return terms;
+		} finally {
+			req.close();
+		}
+	}
+
+	private static Set<Term> terms(String field, String... texts) {
+		Set<Term> terms = new HashSet<Term>();
+		for (String text : texts) {
+			terms.add(new Term(field, text));
+		}
+		return terms;
+	}
+}
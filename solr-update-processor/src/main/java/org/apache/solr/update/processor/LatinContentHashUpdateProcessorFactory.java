@@ -0,0 +1,172 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.apache.solr.common.util.Hash;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.handler.component.RealTimeGetComponent;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.update.AddUpdateCommand;
+
+/**
+ * Skips the Latin analysis of fields whose content did not change since the document was indexed the last time,
+ * e.g. in a nightly reindex sending mostly unchanged documents.<br/>
+ * Each source field is analyzed into a {@link org.apache.solr.schema.PreAnalyzedField} (JSON parser) 
+ * <code>&lt;source&gt;_tokens</code>. The pre-analyzed JSON is kept in the stored only field <code>&lt;source&gt;_tokensCache</code>,
+ * a 64 bit hash ({@link Hash#lookup3ycs64(CharSequence, int, int, long)}) of the values in the stored long field
+ * <code>&lt;source&gt;_hash</code>. If the hash of the incoming values matches the hash of the latest version of the document
+ * (index or transaction log, see {@link RealTimeGetComponent#getInputDocument}), the cached tokens are reused
+ * instead of running the analyzer.
+ * <pre class="prettyprint" >
+ * &lt;processor class="org.apache.solr.update.processor.LatinContentHashUpdateProcessorFactory"&gt;
+ *   &lt;str name="source"&gt;latinText,latinTitle&lt;/str&gt;
+ *   &lt;str name="fieldType"&gt;text_la&lt;/str&gt;
+ *   &lt;str name="analysisVersion"&gt;1&lt;/str&gt;
+ * &lt;/processor&gt;
+ *
+ * &lt;field name="latinText" type="string" indexed="false" stored="true"/&gt;
+ * &lt;field name="latinText_tokens" type="preanalyzed" indexed="true" stored="false" multiValued="true"/&gt;
+ * &lt;field name="latinText_tokensCache" type="string" indexed="false" stored="true" multiValued="true"/&gt;
+ * &lt;field name="latinText_hash" type="long" indexed="false" stored="true"/&gt;</pre>
+ * <code>fieldType</code> names the field type whose index analyzer produces the tokens (the complete Latin chain).
+ * The hash is seeded with the field type name and the optional <code>analysisVersion</code>: increase the version
+ * after changing the analysis chain, so the cached tokens of the old chain are not reused.
+ * Place the processor right before <code>RunUpdateProcessorFactory</code> (in SolrCloud after the
+ * <code>DistributedUpdateProcessorFactory</code>), so the previous version is read on the node indexing the document.
+ * @author Markus Klose
+ */
+public class LatinContentHashUpdateProcessorFactory extends UpdateRequestProcessorFactory {
+
+	/** suffixes of the fields written per source field */
+	public static final String TOKENS_SUFFIX = "_tokens";
+	public static final String CACHE_SUFFIX = "_tokensCache";
+	public static final String HASH_SUFFIX = "_hash";
+
+	/** configuration */
+	private String[] sources;
+	private String fieldType;
+	private long seed;
+
+	/** number of field values analyzed and reused */
+	private final AtomicLong analyzed = new AtomicLong();
+	private final AtomicLong reused = new AtomicLong();
+
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		sources = LatinStemFieldsUpdateProcessorFactory.required(args, "source").split("\\s*,\\s*");
+		fieldType = LatinStemFieldsUpdateProcessorFactory.required(args, "fieldType");
+		Object analysisVersion = args.remove("analysisVersion");
+		String seedText = analysisVersion == null ? fieldType : fieldType + "/" + analysisVersion;
+		seed = Hash.lookup3ycs64(seedText, 0, seedText.length(), 0);
+		super.init(args);
+	}
+
+	@Override
+	public UpdateRequestProcessor getInstance(final SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor next) {
+		FieldType type = req.getSchema().getFieldTypeByName(fieldType);
+		if (type == null) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "Unknown fieldType '" + fieldType + "'");
+		}
+		final Analyzer analyzer = type.getIndexAnalyzer();
+
+		return new UpdateRequestProcessor(next) {
+			@Override
+			public void processAdd(AddUpdateCommand cmd) throws IOException {
+				SolrInputDocument doc = cmd.getSolrInputDocument();
+				// latest version of the document, read once if a source field is filled
+				SolrInputDocument previous = null;
+				boolean previousRead = false;
+				for (String source : sources) {
+					Collection<Object> values = doc.getFieldValues(source);
+					if (values == null) {
+						continue;
+					}
+					long hash = hash(values);
+					if (!previousRead) {
+						BytesRef id = cmd.getIndexedId();
+						previous = id == null ? null : RealTimeGetComponent.getInputDocument(req.getCore(), id);
+						previousRead = true;
+					}
+					SolrInputField cached = previous == null ? null : previous.getField(source + CACHE_SUFFIX);
+					Object previousHash = previous == null ? null : previous.getFieldValue(source + HASH_SUFFIX);
+					if (cached != null && previousHash instanceof Number && ((Number) previousHash).longValue() == hash) {
+						// unchanged -> reuse the tokens
+						for (Object json : cached.getValues()) {
+							doc.addField(source + TOKENS_SUFFIX, json.toString());
+							doc.addField(source + CACHE_SUFFIX, json.toString());
+						}
+						reused.addAndGet(values.size());
+					} else {
+						for (Object value : values) {
+							String json = PreAnalyzedJsonWriter.toJson(null, analyzer.tokenStream(source, value.toString()));
+							doc.addField(source + TOKENS_SUFFIX, json);
+							doc.addField(source + CACHE_SUFFIX, json);
+						}
+						analyzed.addAndGet(values.size());
+					}
+					doc.setField(source + HASH_SUFFIX, hash);
+				}
+				super.processAdd(cmd);
+			}
+		};
+	}
+
+	/**
+	 * hash the values of a field.
+	 * @param values
+	 * 	values of the field
+	 * @return
+	 * 	64 bit hash, chained over the values
+	 */
+	long hash(Collection<Object> values) {
+		long hash = seed;
+		for (Object value : values) {
+			String text = value.toString();
+			hash = Hash.lookup3ycs64(text, 0, text.length(), hash);
+		}
+		return hash;
+	}
+
+	/**
+	 * @return
+	 * 	number of field values analyzed
+	 */
+	public long getAnalyzedCount() {
+		return analyzed.get();
+	}
+
+	/**
+	 * @return
+	 * 	number of field values whose cached tokens were reused
+	 */
+	public long getReusedCount() {
+		return reused.get();
+	}
+}
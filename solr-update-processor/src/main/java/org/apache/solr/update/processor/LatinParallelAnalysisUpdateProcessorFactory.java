@@ -0,0 +1,254 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.CloseHook;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.CommitUpdateCommand;
+import org.apache.solr.update.DeleteUpdateCommand;
+import org.apache.solr.update.MergeIndexesCommand;
+import org.apache.solr.update.RollbackUpdateCommand;
+import org.apache.solr.util.DefaultSolrThreadFactory;
+import org.apache.solr.util.plugin.SolrCoreAware;
+
+/**
+ * Analyzes the configured Latin fields of the documents of one update request on a pool of worker threads, 
+ * so a single client sending large batches uses more than the one core of its request thread.<br/>
+ * Up to <code>batchSize</code> added documents are buffered, the fields of each document are analyzed by a worker
+ * into the {@link org.apache.solr.schema.PreAnalyzedField} (JSON parser) <code>&lt;source&gt;_tokens</code>, 
+ * and the documents are passed on in their original order. Deletes, commits and the end of the request 
+ * pass the buffered documents on first. The analyzers keep their token stream components per thread,
+ * so every worker reuses its own filter chain.
+ * <pre class="prettyprint" >
+ * &lt;processor class="org.apache.solr.update.processor.LatinParallelAnalysisUpdateProcessorFactory"&gt;
+ *   &lt;str name="source"&gt;latinText,latinTitle&lt;/str&gt;
+ *   &lt;str name="fieldType"&gt;text_la&lt;/str&gt;
+ *   &lt;int name="threads"&gt;4&lt;/int&gt;
+ *   &lt;int name="batchSize"&gt;100&lt;/int&gt;
+ * &lt;/processor&gt;
+ *
+ * &lt;field name="latinText" type="string" indexed="false" stored="true"/&gt;
+ * &lt;field name="latinText_tokens" type="preanalyzed" indexed="true" stored="false" multiValued="true"/&gt;</pre>
+ * <code>fieldType</code> names the field type whose index analyzer produces the tokens (the complete Latin chain).
+ * <code>threads</code> defaults to the number of processors and is shared by all requests of the core.
+ * @author Markus Klose
+ */
+public class LatinParallelAnalysisUpdateProcessorFactory extends UpdateRequestProcessorFactory implements SolrCoreAware {
+
+	/** suffix of the pre-analyzed field written per source field */
+	public static final String TOKENS_SUFFIX = LatinContentHashUpdateProcessorFactory.TOKENS_SUFFIX;
+
+	/** configuration */
+	private String[] sources;
+	private String fieldType;
+	private int threads;
+	private int batchSize;
+
+	/** worker pool shared by all requests, shut down with the core */
+	private ExecutorService executor;
+
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		sources = LatinStemFieldsUpdateProcessorFactory.required(args, "source").split("\\s*,\\s*");
+		fieldType = LatinStemFieldsUpdateProcessorFactory.required(args, "fieldType");
+		threads = intArg(args, "threads", Runtime.getRuntime().availableProcessors());
+		batchSize = intArg(args, "batchSize", 100);
+		super.init(args);
+	}
+
+	/**
+	 * read a positive int parameter.
+	 * @param args
+	 * 	init args
+	 * @param name
+	 * 	name of the parameter
+	 * @param defaultValue
+	 * 	value if the parameter is missing
+	 * @return
+	 * 	value of the parameter
+	 */
+	private static int intArg(@SuppressWarnings("rawtypes") NamedList args, String name, int defaultValue) {
+		Object value = args.remove(name);
+		int intValue = value == null ? defaultValue : Integer.parseInt(value.toString());
+		if (intValue < 1) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "'" + name + "' must be positive: " + value);
+		}
+		return intValue;
+	}
+
+	@Override
+	public void inform(SolrCore core) {
+		executor = Executors.newFixedThreadPool(threads, new DefaultSolrThreadFactory("latinAnalysis"));
+		core.addCloseHook(new CloseHook() {
+			@Override
+			public void preClose(SolrCore core) {
+			}
+
+			@Override
+			public void postClose(SolrCore core) {
+				executor.shutdownNow();
+			}
+		});
+	}
+
+	@Override
+	public UpdateRequestProcessor getInstance(SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor next) {
+		FieldType type = req.getSchema().getFieldTypeByName(fieldType);
+		if (type == null) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "Unknown fieldType '" + fieldType + "'");
+		}
+		return new ParallelAnalysisProcessor(type.getIndexAnalyzer(), next);
+	}
+
+	/**
+	 * buffers the added documents of a request and analyzes them in parallel.
+	 */
+	private final class ParallelAnalysisProcessor extends UpdateRequestProcessor {
+		private final Analyzer analyzer;
+
+		/** buffered documents and their analysis, in the order they were added */
+		private final List<AddUpdateCommand> commands = new ArrayList<AddUpdateCommand>();
+		private final List<Future<Void>> analyses = new ArrayList<Future<Void>>();
+
+		ParallelAnalysisProcessor(Analyzer analyzer, UpdateRequestProcessor next) {
+			super(next);
+			this.analyzer = analyzer;
+		}
+
+		@Override
+		public void processAdd(AddUpdateCommand cmd) throws IOException {
+			// the loaders reuse the command for the next document
+			final AddUpdateCommand copy = new AddUpdateCommand(cmd.getReq());
+			copy.solrDoc = cmd.solrDoc;
+			copy.overwrite = cmd.overwrite;
+			copy.commitWithin = cmd.commitWithin;
+			copy.updateTerm = cmd.updateTerm;
+			copy.setFlags(cmd.getFlags());
+			copy.setVersion(cmd.getVersion());
+
+			commands.add(copy);
+			analyses.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					analyze(copy.getSolrInputDocument());
+					return null;
+				}
+			}));
+			if (commands.size() >= batchSize) {
+				flush();
+			}
+		}
+
+		/**
+		 * analyze the source fields of a document.
+		 * @param doc
+		 * 	document to analyze
+		 */
+		private void analyze(SolrInputDocument doc) throws IOException {
+			for (String source : sources) {
+				Collection<Object> values = doc.getFieldValues(source);
+				if (values != null) {
+					List<String> tokens = new ArrayList<String>(values.size());
+					for (Object value : values) {
+						tokens.add(PreAnalyzedJsonWriter.toJson(null, analyzer.tokenStream(source, value.toString())));
+					}
+					for (String json : tokens) {
+						doc.addField(source + TOKENS_SUFFIX, json);
+					}
+				}
+			}
+		}
+
+		/**
+		 * wait for the analysis of the buffered documents and pass them on in order.
+		 */
+		private void flush() throws IOException {
+			try {
+				for (int i = 0; i < commands.size(); i++) {
+					try {
+						analyses.get(i).get();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new SolrException(ErrorCode.SERVER_ERROR, "interrupted while analyzing Latin fields", e);
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof IOException) {
+							throw (IOException) e.getCause();
+						}
+						throw new SolrException(ErrorCode.SERVER_ERROR, "analysis of Latin fields failed", e.getCause());
+					}
+					super.processAdd(commands.get(i));
+				}
+			} finally {
+				for (Future<Void> analysis : analyses) {
+					analysis.cancel(true);
+				}
+				commands.clear();
+				analyses.clear();
+			}
+		}
+
+		@Override
+		public void processDelete(DeleteUpdateCommand cmd) throws IOException {
+			flush();
+			super.processDelete(cmd);
+		}
+
+		@Override
+		public void processMergeIndexes(MergeIndexesCommand cmd) throws IOException {
+			flush();
+			super.processMergeIndexes(cmd);
+		}
+
+		@Override
+		public void processCommit(CommitUpdateCommand cmd) throws IOException {
+			flush();
+			super.processCommit(cmd);
+		}
+
+		@Override
+		public void processRollback(RollbackUpdateCommand cmd) throws IOException {
+			flush();
+			super.processRollback(cmd);
+		}
+
+		@Override
+		public void finish() throws IOException {
+			flush();
+			super.finish();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.la.LatinStemFilter;
+import org.apache.lucene.analysis.la.LatinStemmer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.update.AddUpdateCommand;
+
+/**
+ * Stems the configured Latin fields and writes the distinct stems of a document into a multi valued
+ * string field with doc values, so faceting on stems ("lemma") runs on the doc values column
+ * instead of un-inverting a text field.
+ * <pre class="prettyprint" >
+ * &lt;processor class="org.apache.solr.update.processor.LatinStemDocValuesUpdateProcessorFactory"&gt;
+ *   &lt;str name="source"&gt;latinText,latinTitle&lt;/str&gt;
+ *   &lt;str name="fieldType"&gt;text_la_tokens&lt;/str&gt;
+ *   &lt;str name="dest"&gt;latinStems&lt;/str&gt;
+ *   &lt;str name="stems"&gt;noun&lt;/str&gt;
+ *   &lt;str name="stemFieldType"&gt;text_la&lt;/str&gt;
+ * &lt;/processor&gt;
+ *
+ * &lt;field name="latinStems" type="string" indexed="false" stored="false" docValues="true" multiValued="true"/&gt;</pre>
+ * <code>fieldType</code> names the field type whose index analyzer produces the tokens to stem
+ * (the chain without <code>LatinStemFilterFactory</code>).
+ * <code>stems</code> selects the stems to write: <code>noun</code>, <code>verb</code> or <code>both</code> (default).
+ * The stemmer is the one of the <code>LatinStemFilterFactory</code> in the field type <code>stemFieldType</code>, 
+ * the built-in rules are used if no <code>stemFieldType</code> is configured.
+ * @author Markus Klose
+ */
+public class LatinStemDocValuesUpdateProcessorFactory extends UpdateRequestProcessorFactory {
+
+	/** values of the stems parameter */
+	public static final String STEMS_NOUN = "noun";
+	public static final String STEMS_VERB = "verb";
+	public static final String STEMS_BOTH = "both";
+
+	/** configuration */
+	private String[] sources;
+	private String fieldType;
+	private String dest;
+	private int stemFlags;
+	private String stemFieldType;
+
+	/** stemmer of the built-in rules, used without stemFieldType */
+	private final LatinStemmer defaultStemmer = new LatinStemmer();
+
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		sources = LatinStemFieldsUpdateProcessorFactory.required(args, "source").split("\\s*,\\s*");
+		fieldType = LatinStemFieldsUpdateProcessorFactory.required(args, "fieldType");
+		dest = LatinStemFieldsUpdateProcessorFactory.required(args, "dest");
+		stemFieldType = LatinStemFieldsUpdateProcessorFactory.optional(args, LatinStemFieldsUpdateProcessorFactory.STEM_FIELD_TYPE);
+		Object stems = args.remove("stems");
+		if (stems == null || STEMS_BOTH.equals(stems)) {
+			stemFlags = LatinStemFilter.FLAG_NOUN | LatinStemFilter.FLAG_VERB;
+		} else if (STEMS_NOUN.equals(stems)) {
+			stemFlags = LatinStemFilter.FLAG_NOUN;
+		} else if (STEMS_VERB.equals(stems)) {
+			stemFlags = LatinStemFilter.FLAG_VERB;
+		} else {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "'stems' must be one of " + STEMS_NOUN + ", " + STEMS_VERB + ", " + STEMS_BOTH + ": " + stems);
+		}
+		super.init(args);
+	}
+
+	@Override
+	public UpdateRequestProcessor getInstance(SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor next) {
+		FieldType type = req.getSchema().getFieldTypeByName(fieldType);
+		if (type == null) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "Unknown fieldType '" + fieldType + "'");
+		}
+		SchemaField destField = req.getSchema().getField(dest);
+		if (!destField.hasDocValues() || !destField.multiValued()) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "Field '" + dest + "' must be multiValued with docValues");
+		}
+		final Analyzer analyzer = type.getIndexAnalyzer();
+		// the stemmer changes with a reloaded schema
+		final LatinStemmer stemmer = stemFieldType != null 
+				? LatinStemFieldsUpdateProcessorFactory.getStemmer(req.getSchema(), stemFieldType) : defaultStemmer;
+
+		return new UpdateRequestProcessor(next) {
+			@Override
+			public void processAdd(AddUpdateCommand cmd) throws IOException {
+				SolrInputDocument doc = cmd.getSolrInputDocument();
+				// distinct stems of the document, sorted as doc values are
+				Set<String> stems = new TreeSet<String>();
+				for (String source : sources) {
+					Collection<Object> values = doc.getFieldValues(source);
+					if (values != null) {
+						for (Object value : values) {
+							collectStems(analyzer.tokenStream(source, value.toString()), stemmer, stems);
+						}
+					}
+				}
+				for (String stem : stems) {
+					doc.addField(dest, stem);
+				}
+				super.processAdd(cmd);
+			}
+		};
+	}
+
+	/**
+	 * stem the tokens of a stream.
+	 * @param tokens
+	 * 	tokens to stem
+	 * @param stemmer
+	 * 	the stemmer to use
+	 * @param stems
+	 * 	set to add the selected stems to
+	 */
+	private void collectStems(TokenStream tokens, LatinStemmer stemmer, Set<String> stems) throws IOException {
+		TokenStream stream = new LatinStemFilter(tokens, stemmer, true, false);
+		CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+		FlagsAttribute flagsAtt = stream.addAttribute(FlagsAttribute.class);
+		try {
+			stream.reset();
+			while (stream.incrementToken()) {
+				// keywords are not stemmed and carry no flags
+				if ((flagsAtt.getFlags() & stemFlags) != 0 || flagsAtt.getFlags() == 0) {
+					stems.add(termAtt.toString());
+				}
+			}
+			stream.end();
+		} finally {
+			stream.close();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.la.LatinStemFilterFactory;
+import org.apache.lucene.analysis.la.LatinStemSinks;
+import org.apache.lucene.analysis.la.LatinStemmer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.update.AddUpdateCommand;
+
+/**
+ * Analyzes a Latin field once and writes the noun stems and the verb stems into two separate fields, 
+ * using {@link LatinStemSinks}. The target fields must be of type {@link org.apache.solr.schema.PreAnalyzedField}
+ * (JSON parser), so the stems are indexed with their positions and offsets but without a second analysis.
+ * <pre class="prettyprint" >
+ * &lt;processor class="org.apache.solr.update.processor.LatinStemFieldsUpdateProcessorFactory"&gt;
+ *   &lt;str name="source"&gt;latinText&lt;/str&gt;
+ *   &lt;str name="fieldType"&gt;text_la_tokens&lt;/str&gt;
+ *   &lt;str name="nounField"&gt;latinText_noun&lt;/str&gt;
+ *   &lt;str name="verbField"&gt;latinText_verb&lt;/str&gt;
+ *   &lt;str name="stemFieldType"&gt;text_la&lt;/str&gt;
+ * &lt;/processor&gt;</pre>
+ * <code>fieldType</code> names the field type whose index analyzer produces the tokens to stem 
+ * (the chain without <code>LatinStemFilterFactory</code>).
+ * The stemmer is the one of the <code>LatinStemFilterFactory</code> in the field type <code>stemFieldType</code> 
+ * (rules file, managed 'que' exceptions and stem overrides, stem cache), the built-in rules are used 
+ * if no <code>stemFieldType</code> is configured.
+ * @author Markus Klose
+ */
+public class LatinStemFieldsUpdateProcessorFactory extends UpdateRequestProcessorFactory {
+	
+	/** name of the field type parameter of the stemmer */
+	public static final String STEM_FIELD_TYPE = "stemFieldType";
+	
+	/** configuration */
+	private String source;
+	private String fieldType;
+	private String nounField;
+	private String verbField;
+	private String stemFieldType;
+	
+	/** stemmer of the built-in rules, used without stemFieldType */
+	private final LatinStemmer defaultStemmer = new LatinStemmer();
+	
+	@Override
+	public void init(@SuppressWarnings("rawtypes") NamedList args) {
+		source = required(args, "source");
+		fieldType = required(args, "fieldType");
+		nounField = required(args, "nounField");
+		verbField = required(args, "verbField");
+		stemFieldType = optional(args, STEM_FIELD_TYPE);
+		super.init(args);
+	}
+	
+	/**
+	 * read a required string parameter.
+	 * @param args
+	 * 	init args
+	 * @param name
+	 * 	name of the parameter
+	 * @return
+	 * 	value of the parameter
+	 */
+	static String required(@SuppressWarnings("rawtypes") NamedList args, String name) {
+		Object value = args.remove(name);
+		if (!(value instanceof String) || ((String) value).trim().length() == 0) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "'" + name + "' must be configured as non empty string");
+		}
+		return ((String) value).trim();
+	}
+	
+	/**
+	 * read an optional string parameter.
+	 * @param args
+	 * 	init args
+	 * @param name
+	 * 	name of the parameter
+	 * @return
+	 * 	value of the parameter, null if not configured
+	 */
+	static String optional(@SuppressWarnings("rawtypes") NamedList args, String name) {
+		return args.get(name) == null ? null : required(args, name);
+	}
+	
+	/**
+	 * find the stemmer of a field type.
+	 * @param schema
+	 * 	current schema
+	 * @param stemFieldType
+	 * 	name of the field type
+	 * @return
+	 * 	stemmer of the {@link LatinStemFilterFactory} in the index analyzer of the field type
+	 */
+	static LatinStemmer getStemmer(IndexSchema schema, String stemFieldType) {
+		FieldType type = schema.getFieldTypeByName(stemFieldType);
+		Analyzer analyzer = type != null ? type.getIndexAnalyzer() : null;
+		if (analyzer instanceof TokenizerChain) {
+			for (TokenFilterFactory filterFactory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+				if (filterFactory instanceof LatinStemFilterFactory) {
+					return ((LatinStemFilterFactory) filterFactory).getStemmer();
+				}
+			}
+		}
+		throw new SolrException(ErrorCode.SERVER_ERROR, "Field type '" + stemFieldType + "' (" + STEM_FIELD_TYPE
+				+ ") does not exist or has no LatinStemFilterFactory");
+	}
+	
+	@Override
+	public UpdateRequestProcessor getInstance(SolrQueryRequest req, SolrQueryResponse rsp, UpdateRequestProcessor next) {
+		FieldType type = req.getSchema().getFieldTypeByName(fieldType);
+		if (type == null) {
+			throw new SolrException(ErrorCode.SERVER_ERROR, "Unknown fieldType '" + fieldType + "'");
+		}
+		final Analyzer analyzer = type.getIndexAnalyzer();
+		// the stemmer changes with a reloaded schema
+		final LatinStemmer stemmer = stemFieldType != null ? getStemmer(req.getSchema(), stemFieldType) : defaultStemmer;
+		
+		return new UpdateRequestProcessor(next) {
+			@Override
+			public void processAdd(AddUpdateCommand cmd) throws IOException {
+				SolrInputDocument doc = cmd.getSolrInputDocument();
+				Collection<Object> values = doc.getFieldValues(source);
+				if (values != null) {
+					for (Object value : values) {
+						LatinStemSinks sinks = new LatinStemSinks(analyzer.tokenStream(source, value.toString()), stemmer);
+						sinks.consumeAllTokens();
+						doc.addField(nounField, PreAnalyzedJsonWriter.toJson(null, sinks.getNounSink()));
+						doc.addField(verbField, PreAnalyzedJsonWriter.toJson(null, sinks.getVerbSink()));
+					}
+				}
+				super.processAdd(cmd);
+			}
+		};
+	}
+}
@@ -0,0 +1,128 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Locale;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.util.Base64;
+
+/**
+ * Writes a token stream in the JSON format of {@link org.apache.solr.schema.PreAnalyzedField}, so the tokens
+ * are indexed without running the analysis chain again.
+ * @author Markus Klose
+ */
+public final class PreAnalyzedJsonWriter {
+	
+	private PreAnalyzedJsonWriter() {
+	}
+	
+	/**
+	 * consume the token stream and serialize its tokens.
+	 * @param storedValue
+	 * 	value to store, null if nothing should be stored
+	 * @param tokenStream
+	 * 	stream to consume, will be closed
+	 * @return
+	 * 	pre-analyzed JSON
+	 * @throws IOException
+	 */
+	public static String toJson(String storedValue, TokenStream tokenStream) throws IOException {
+		StringBuilder json = new StringBuilder("{\"v\":\"1\"");
+		if (storedValue != null) {
+			json.append(",\"str\":");
+			appendString(json, storedValue);
+		}
+		json.append(",\"tokens\":[");
+		try {
+			CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
+			OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
+			PositionIncrementAttribute posIncAtt = tokenStream.addAttribute(PositionIncrementAttribute.class);
+			TypeAttribute typeAtt = tokenStream.addAttribute(TypeAttribute.class);
+			FlagsAttribute flagsAtt = tokenStream.hasAttribute(FlagsAttribute.class) ? tokenStream.getAttribute(FlagsAttribute.class) : null;
+			PayloadAttribute payloadAtt = tokenStream.hasAttribute(PayloadAttribute.class) ? tokenStream.getAttribute(PayloadAttribute.class) : null;
+			
+			tokenStream.reset();
+			boolean first = true;
+			while (tokenStream.incrementToken()) {
+				if (!first) {
+					json.append(',');
+				}
+				first = false;
+				json.append("{\"t\":");
+				appendString(json, termAtt);
+				json.append(",\"s\":").append(offsetAtt.startOffset());
+				json.append(",\"e\":").append(offsetAtt.endOffset());
+				json.append(",\"i\":").append(posIncAtt.getPositionIncrement());
+				if (!TypeAttribute.DEFAULT_TYPE.equals(typeAtt.type())) {
+					json.append(",\"y\":");
+					appendString(json, typeAtt.type());
+				}
+				if (flagsAtt != null && flagsAtt.getFlags() != 0) {
+					// flags are written hexadecimal
+					json.append(",\"f\":\"").append(Integer.toHexString(flagsAtt.getFlags())).append('"');
+				}
+				if (payloadAtt != null && payloadAtt.getPayload() != null && payloadAtt.getPayload().length > 0) {
+					BytesRef payload = payloadAtt.getPayload();
+					json.append(",\"p\":\"").append(Base64.byteArrayToBase64(payload.bytes, payload.offset, payload.length)).append('"');
+				}
+				json.append('}');
+			}
+			tokenStream.end();
+		} finally {
+			tokenStream.close();
+		}
+		return json.append("]}").toString();
+	}
+	
+	/**
+	 * append a JSON string.
+	 * @param json
+	 * 	target
+	 * @param value
+	 * 	string to escape
+	 */
+	private static void appendString(StringBuilder json, CharSequence value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"': json.append("\\\""); break;
+				case '\\': json.append("\\\\"); break;
+				case '\n': json.append("\\n"); break;
+				case '\r': json.append("\\r"); break;
+				case '\t': json.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+					} else {
+						json.append(c);
+					}
+			}
+		}
+		json.append('"');
+	}
+}
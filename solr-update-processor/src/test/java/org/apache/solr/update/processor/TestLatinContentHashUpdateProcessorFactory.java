@@ -0,0 +1,102 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinContentHashUpdateProcessorFactory}
+ */
+public class TestLatinContentHashUpdateProcessorFactory extends SolrTestCaseJ4 {
+
+	private static LatinContentHashUpdateProcessorFactory factory;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+		for (UpdateRequestProcessorFactory processorFactory : h.getCore().getUpdateProcessingChain("latin-content-hash").getFactories()) {
+			if (processorFactory instanceof LatinContentHashUpdateProcessorFactory) {
+				factory = (LatinContentHashUpdateProcessorFactory) processorFactory;
+			}
+		}
+		assertNotNull(factory);
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		clearIndex();
+		assertU(commit());
+	}
+
+	public void testReuseUnchangedValues() throws Exception {
+		long analyzed = factory.getAnalyzedCount();
+		long reused = factory.getReusedCount();
+
+		add("1", "rosa filius");
+		assertEquals(analyzed + 1, factory.getAnalyzedCount());
+		assertEquals(reused, factory.getReusedCount());
+
+		// previous version from the update log
+		add("1", "rosa filius");
+		assertEquals(analyzed + 1, factory.getAnalyzedCount());
+		assertEquals(reused + 1, factory.getReusedCount());
+
+		// previous version from the index
+		assertU(commit());
+		add("1", "rosa filius");
+		assertEquals(analyzed + 1, factory.getAnalyzedCount());
+		assertEquals(reused + 2, factory.getReusedCount());
+
+		assertU(commit());
+		assertQ(req("q", "{!term f=latinText_tokens}ros"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_tokens}filiu"), "//result[@numFound='1']");
+		assertQ(req("q", "id:1", "fl", "latinText_hash,latinText_tokensCache")
+				, "//doc/long[@name='latinText_hash']"
+				, "count(//doc/arr[@name='latinText_tokensCache']/str)=1"
+		);
+	}
+
+	public void testAnalyzeChangedValues() throws Exception {
+		long analyzed = factory.getAnalyzedCount();
+		long reused = factory.getReusedCount();
+
+		add("1", "rosa filius");
+		assertU(commit());
+		add("1", "rosa atque");
+		assertEquals(analyzed + 2, factory.getAnalyzedCount());
+		assertEquals(reused, factory.getReusedCount());
+
+		// the tokens of the old value are gone
+		assertU(commit());
+		assertQ(req("q", "{!term f=latinText_tokens}atque"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_tokens}fil"), "//result[@numFound='0']");
+
+		// an other document with the same value is analyzed
+		add("2", "rosa atque");
+		assertEquals(analyzed + 3, factory.getAnalyzedCount());
+		assertEquals(reused, factory.getReusedCount());
+	}
+
+	private static void add(String id, String text) throws Exception {
+		ModifiableSolrParams params = params("update.chain", "latin-content-hash");
+		updateJ(jsonAdd(sdoc("id", id, "latinText", text)), params);
+	}
+}
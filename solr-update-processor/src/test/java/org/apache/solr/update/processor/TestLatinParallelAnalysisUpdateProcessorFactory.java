@@ -0,0 +1,66 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinParallelAnalysisUpdateProcessorFactory}, the chain buffers two documents.
+ */
+public class TestLatinParallelAnalysisUpdateProcessorFactory extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		clearIndex();
+		assertU(commit());
+	}
+
+	/** buffered documents are passed on before a delete and a commit of the same request */
+	public void testFlushOnDeleteAndCommit() throws Exception {
+		updateJ("{\"add\":{\"doc\":{\"id\":\"1\",\"latinText\":\"rosa\"}},"
+				+ "\"delete\":{\"id\":\"1\"},"
+				+ "\"add\":{\"doc\":{\"id\":\"2\",\"latinText\":\"filius\"}},"
+				+ "\"commit\":{}}", params("update.chain", "latin-parallel"));
+		// no commit after the request
+		assertQ(req("q", "id:1"), "//result[@numFound='0']");
+		assertQ(req("q", "id:2"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_tokens}fil"), "//result[@numFound='1']");
+	}
+
+	/** full batches and the rest at the end of the request are passed on in order */
+	public void testFlushInOrder() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "3", "latinText", "rosa"), sdoc("id", "3", "latinText", "atque"),
+				sdoc("id", "4", "latinText", "amant"), sdoc("id", "5", "latinText", "filius")), params("update.chain", "latin-parallel"));
+		updateJ(jsonAdd(sdoc("id", "5", "latinText", "rosa")), params("update.chain", "latin-parallel"));
+		assertU(commit());
+		assertQ(req("q", "*:*"), "//result[@numFound='3']");
+		// the last version of a document wins
+		assertQ(req("q", "{!term f=latinText_tokens}atque"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_tokens}ama"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_tokens}ros"), "//result[@numFound='1']");
+		assertQ(req("q", "id:5", "fq", "{!term f=latinText_tokens}ros"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_tokens}fil"), "//result[@numFound='0']");
+	}
+}
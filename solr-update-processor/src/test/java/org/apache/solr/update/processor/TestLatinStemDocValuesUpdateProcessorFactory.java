@@ -0,0 +1,84 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinStemDocValuesUpdateProcessorFactory}
+ */
+public class TestLatinStemDocValuesUpdateProcessorFactory extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		clearIndex();
+		assertU(commit());
+	}
+
+	public void testBothStems() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "1", "latinText", "rosa filius", "latinTitle", "rosae amant atque")), 
+				params("update.chain", "latin-stem-docvalues"));
+		assertU(commit());
+		// distinct stems of all source fields, 'ros' is counted once per document
+		assertQ(req("q", "*:*", "facet", "true", "facet.field", "latinStems", "facet.mincount", "1")
+				, "count(//lst[@name='latinStems']/int)=7"
+				, "//lst[@name='latinStems']/int[@name='ros'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='rosa'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='rosae'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='fil'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='filiu'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='ama'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='atque'][.='1']"
+		);
+	}
+
+	public void testNounStems() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "1", "latinText", "rosa filius", "latinTitle", "rosae amant atque"),
+				sdoc("id", "2", "latinText", "rosa")), params("update.chain", "latin-noun-docvalues"));
+		assertU(commit());
+		// stems shared by noun and verb are kept
+		assertQ(req("q", "*:*", "facet", "true", "facet.field", "latinStems", "facet.mincount", "1")
+				, "count(//lst[@name='latinStems']/int)=4"
+				, "//lst[@name='latinStems']/int[@name='ros'][.='2']"
+				, "//lst[@name='latinStems']/int[@name='fil'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='ama'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='atque'][.='1']"
+		);
+	}
+
+	public void testStemFieldType() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "1", "latinText", "rosa filius", "latinTitle", "rosae amant atque")), 
+				params("update.chain", "latin-noun-docvalues-rules"));
+		assertU(commit());
+		// the rules of text_la_rules only know the first declension
+		assertQ(req("q", "*:*", "facet", "true", "facet.field", "latinStems", "facet.mincount", "1")
+				, "count(//lst[@name='latinStems']/int)=4"
+				, "//lst[@name='latinStems']/int[@name='ros'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='filius'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='amant'][.='1']"
+				, "//lst[@name='latinStems']/int[@name='atque'][.='1']"
+		);
+	}
+}
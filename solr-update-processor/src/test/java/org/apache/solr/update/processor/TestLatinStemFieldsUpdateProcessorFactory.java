@@ -0,0 +1,67 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.BeforeClass;
+
+/**
+ * Tests for {@link LatinStemFieldsUpdateProcessorFactory}
+ */
+public class TestLatinStemFieldsUpdateProcessorFactory extends SolrTestCaseJ4 {
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		initCore("solrconfig.xml", "schema.xml", getFile("solr-latin").getAbsolutePath());
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		clearIndex();
+		assertU(commit());
+	}
+
+	public void testNounAndVerbFields() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "1", "latinText", "rosa filius")), params("update.chain", "latin-stem-fields"));
+		assertU(commit());
+		assertQ(req("q", "{!term f=latinText_noun}ros"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_noun}fil"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_verb}rosa"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_verb}filiu"), "//result[@numFound='1']");
+		// each field only contains the stems of its reading
+		assertQ(req("q", "{!term f=latinText_noun}filiu"), "//result[@numFound='0']");
+		assertQ(req("q", "{!term f=latinText_verb}ros"), "//result[@numFound='0']");
+	}
+
+	public void testStemFieldType() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "1", "latinText", "rosa filius")), params("update.chain", "latin-stem-fields-rules"));
+		assertU(commit());
+		// the rules of text_la_rules only know the first declension
+		assertQ(req("q", "{!term f=latinText_noun}ros"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_noun}filius"), "//result[@numFound='1']");
+		assertQ(req("q", "{!term f=latinText_noun}fil"), "//result[@numFound='0']");
+	}
+
+	public void testMissingSource() throws Exception {
+		updateJ(jsonAdd(sdoc("id", "1")), params("update.chain", "latin-stem-fields"));
+		assertU(commit());
+		assertQ(req("q", "id:1"), "//result[@numFound='1']");
+		assertQ(req("q", "latinText_noun:[* TO *]"), "//result[@numFound='0']");
+	}
+}
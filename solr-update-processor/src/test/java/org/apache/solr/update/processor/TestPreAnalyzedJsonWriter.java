@@ -0,0 +1,135 @@
+package org.apache.solr.update.processor;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.Token;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.FlagsAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.AttributeSource;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.schema.JsonPreAnalyzedParser;
+import org.apache.solr.schema.PreAnalyzedField.ParseResult;
+
+/**
+ * Round trip of {@link PreAnalyzedJsonWriter} through the {@link JsonPreAnalyzedParser} of Solr,
+ * so a change of the format fails here and not at index time.
+ */
+public class TestPreAnalyzedJsonWriter extends BaseTokenStreamTestCase {
+
+	public void testRoundTrip() throws IOException {
+		Token[] tokens = {
+			token("ros", 0, 4, 1, "LATIN_NOUN", 1, new byte[] {1}),
+			token("rosa", 0, 4, 0, "LATIN_VERB", 2, new byte[] {2}),
+			token("atque", 5, 10, 1, "LATIN_NOUN_VERB", 3, null),
+			// characters to escape, default type, no flags
+			token("a\"b\\c\n\t\u0001\u00e6", 11, 20, 2, TypeAttribute.DEFAULT_TYPE, 0, null)
+		};
+		String stored = "rosa atque \"x\\y\"\n";
+		String json = PreAnalyzedJsonWriter.toJson(stored, new TypedTokenStream(tokens));
+
+		AttributeSource parsed = new AttributeSource();
+		CharTermAttribute termAtt = parsed.addAttribute(CharTermAttribute.class);
+		OffsetAttribute offsetAtt = parsed.addAttribute(OffsetAttribute.class);
+		PositionIncrementAttribute posIncAtt = parsed.addAttribute(PositionIncrementAttribute.class);
+		TypeAttribute typeAtt = parsed.addAttribute(TypeAttribute.class);
+		FlagsAttribute flagsAtt = parsed.addAttribute(FlagsAttribute.class);
+		PayloadAttribute payloadAtt = parsed.addAttribute(PayloadAttribute.class);
+		ParseResult result = new JsonPreAnalyzedParser().parse(new StringReader(json), parsed);
+		assertEquals(stored, result.str);
+		assertEquals(tokens.length, result.states.size());
+		for (int i = 0; i < tokens.length; i++) {
+			Token expected = tokens[i];
+			parsed.clearAttributes();
+			parsed.restoreState(result.states.get(i));
+			assertEquals(expected.toString(), termAtt.toString());
+			assertEquals(expected.startOffset(), offsetAtt.startOffset());
+			assertEquals(expected.endOffset(), offsetAtt.endOffset());
+			assertEquals(expected.getPositionIncrement(), posIncAtt.getPositionIncrement());
+			assertEquals(expected.type(), typeAtt.type());
+			assertEquals(expected.getFlags(), flagsAtt.getFlags());
+			BytesRef payload = payloadAtt.getPayload();
+			if (expected.getPayload() == null) {
+				assertTrue(payload == null || payload.length == 0);
+			} else {
+				assertEquals(expected.getPayload(), payload);
+			}
+		}
+	}
+
+	public void testNoTokens() throws IOException {
+		assertEquals("{\"v\":\"1\",\"tokens\":[]}", PreAnalyzedJsonWriter.toJson(null, new TypedTokenStream()));
+	}
+
+	private static Token token(String text, int start, int end, int posInc, String type, int flags, byte[] payload) {
+		Token token = new Token(text, start, end);
+		token.setPositionIncrement(posInc);
+		token.setType(type);
+		token.setFlags(flags);
+		if (payload != null) {
+			token.setPayload(new BytesRef(payload));
+		}
+		return token;
+	}
+
+	/** like the CannedTokenStream, but keeps the type and the flags of the tokens */
+	private static final class TypedTokenStream extends TokenStream {
+		private final Token[] tokens;
+		private int upto = 0;
+		private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+		private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+		private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+		private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+		private final FlagsAttribute flagsAtt = addAttribute(FlagsAttribute.class);
+		private final PayloadAttribute payloadAtt = addAttribute(PayloadAttribute.class);
+
+		TypedTokenStream(Token... tokens) {
+			this.tokens = tokens;
+		}
+
+		@Override
+		public boolean incrementToken() {
+			if (upto == tokens.length) {
+				return false;
+			}
+			Token token = tokens[upto++];
+			clearAttributes();
+			termAtt.setEmpty().append(token);
+			offsetAtt.setOffset(token.startOffset(), token.endOffset());
+			posIncAtt.setPositionIncrement(token.getPositionIncrement());
+			typeAtt.setType(token.type());
+			flagsAtt.setFlags(token.getFlags());
+			payloadAtt.setPayload(token.getPayload());
+			return true;
+		}
+
+		@Override
+		public void reset() throws IOException {
+			super.reset();
+			upto = 0;
+		}
+	}
+}